@@ -0,0 +1,89 @@
+package io.ebean.migration.cli;
+
+import io.ebean.migration.MigrationBaseline;
+import io.ebean.migration.MigrationConfig;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.Properties;
+
+/**
+ * Command line generation of a dbinit baseline script using {@link MigrationBaseline}.
+ * <p>
+ * The migration options are read from a properties file (using the same {@code ebean.migration.*}
+ * keys as {@link MigrationConfig#load(Properties)}) or when no file is given from the system properties.
+ * Without a url the migrations are run using an embedded H2 database (which must be on the classpath).
+ * <pre>{@code
+ *
+ *   java -cp "ebean-migration-cli.jar:lib/*" io.ebean.migration.cli.MigrationBaselineCli \
+ *     migration.properties src/main/resources/dbinit
+ * }</pre>
+ */
+public final class MigrationBaselineCli {
+
+  private static final String DEFAULT_URL = "jdbc:h2:mem:baseline";
+
+  private static final String USAGE = "Usage: MigrationBaselineCli [<properties file> [<output directory>]]";
+
+  private final PrintStream out;
+  private final PrintStream err;
+
+  MigrationBaselineCli(PrintStream out, PrintStream err) {
+    this.out = out;
+    this.err = err;
+  }
+
+  public static void main(String[] args) {
+    System.exit(new MigrationBaselineCli(System.out, System.err).run(args));
+  }
+
+  /**
+   * Run returning the exit code.
+   */
+  int run(String[] args) {
+    if (args.length > 2) {
+      err.println(USAGE);
+      return MigrationCli.EXIT_USAGE;
+    }
+    final Properties properties = new Properties();
+    try {
+      if (args.length > 0) {
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]))) {
+          properties.load(reader);
+        }
+      } else {
+        properties.putAll(System.getProperties());
+      }
+    } catch (IOException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return MigrationCli.EXIT_USAGE;
+    }
+    final Path directory = Paths.get(args.length > 1 ? args[1] : ".");
+
+    final MigrationConfig config = new MigrationConfig();
+    config.load(properties);
+    if (config.getDbUrl() == null) {
+      // run the migrations using an embedded H2 database
+      config.setDbUrl(DEFAULT_URL);
+      config.setDbUsername("sa");
+      config.setDbPassword("");
+      if (config.getPlatform() == null) {
+        config.setPlatform("h2");
+      }
+    }
+    try (Connection connection = config.createConnection()) {
+      final Path path = new MigrationBaseline(config).write(connection, directory);
+      out.println("Baseline written to " + path);
+      return MigrationCli.EXIT_OK;
+    } catch (Exception e) {
+      err.println("Error generating baseline: " + MigrationCli.message(e));
+      return MigrationCli.EXIT_FAILED;
+    }
+  }
+}
@@ -0,0 +1,391 @@
+package io.ebean.migration.cli;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationResource;
+import io.ebean.migration.MigrationRunner;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command line runner that migrates many databases concurrently.
+ * <p>
+ * The migration options are read from a properties file (using the same {@code ebean.migration.*}
+ * keys as {@link MigrationConfig#load(Properties)}) and system properties. The databases are given by
+ * {@code --url} arguments and/or a tenants file with a JDBC url per line (optionally preceded by a name).
+ * A JSON result per database is written to standard out as each database completes.
+ * <pre>{@code
+ *
+ *   java -cp "ebean-migration-cli.jar:lib/*" io.ebean.migration.cli.MigrationCli \
+ *     --config migration.properties --tenants tenants.txt --parallelism 8
+ *
+ *   {"name":"tenant1","status":"ok","millis":1042}
+ *   {"name":"tenant2","status":"error","millis":12,"error":"..."}
+ * }</pre>
+ * The exit code is 0 when all databases were migrated successfully, 1 when any failed and 2 for invalid arguments.
+ */
+public final class MigrationCli {
+
+  static final int EXIT_OK = 0;
+  static final int EXIT_FAILED = 1;
+  static final int EXIT_USAGE = 2;
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  private static final String USAGE = "Usage: MigrationCli [--config <file>] [--url <jdbc-url>]... [--tenants <file>] [--parallelism <n>] [--check]\n"
+    + "  --config <file>     properties file with ebean.migration.* options (username, password, migrationPath, ...)\n"
+    + "  --url <jdbc-url>    database to migrate (repeatable)\n"
+    + "  --tenants <file>    file with a database per line as '<jdbc-url>' or '<name> <jdbc-url>' (# for comments)\n"
+    + "  --parallelism <n>   number of databases migrated concurrently (default 4)\n"
+    + "  --check             only report the pending migrations of each database";
+
+  private final PrintStream out;
+  private final PrintStream err;
+
+  MigrationCli(PrintStream out, PrintStream err) {
+    this.out = out;
+    this.err = err;
+  }
+
+  public static void main(String[] args) {
+    System.exit(new MigrationCli(System.out, System.err).run(args));
+  }
+
+  /**
+   * Run returning the exit code.
+   */
+  int run(String[] args) {
+    final Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException | IOException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return EXIT_USAGE;
+    }
+    if (options.targets.isEmpty()) {
+      err.println("No databases to migrate");
+      err.println(USAGE);
+      return EXIT_USAGE;
+    }
+    return migrate(options);
+  }
+
+  private int migrate(Options options) {
+    final int threads = Math.min(options.parallelism, options.targets.size());
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "migration-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      final CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+      for (Target target : options.targets) {
+        completion.submit(() -> migrate(options, target));
+      }
+      int failed = 0;
+      for (int i = 0; i < options.targets.size(); i++) {
+        final Result result = completion.take().get();
+        if (!result.ok) {
+          failed++;
+        }
+        out.println(result.json);
+        out.flush();
+      }
+      return failed == 0 ? EXIT_OK : EXIT_FAILED;
+    } catch (Exception e) {
+      err.println("Error running migrations: " + message(e));
+      return EXIT_FAILED;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Migrate the database returning the result.
+   */
+  static Result migrate(Options options, Target target) {
+    final long start = System.currentTimeMillis();
+    try {
+      final Properties properties = new Properties();
+      properties.putAll(options.properties);
+      properties.setProperty("ebean.migration.url", target.url);
+      final MigrationConfig config = new MigrationConfig();
+      config.load(properties);
+      final MigrationRunner runner = new MigrationRunner(config);
+      if (options.check) {
+        final List<MigrationResource> pending = runner.checkState();
+        return new Result(true, json(target, "ok", start).pending(pending).end());
+      }
+      runner.run();
+      return new Result(true, json(target, "ok", start).end());
+    } catch (Throwable e) {
+      // the driver error messages can include the url with its credentials
+      final String error = message(e).replace(target.url, target.name);
+      return new Result(false, json(target, "error", start).field("error", error).end());
+    }
+  }
+
+  private static Json json(Target target, String status, long start) {
+    return new Json()
+      .field("name", target.name)
+      .field("status", status)
+      .field("millis", System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Return the message of the exception including the messages of its causes.
+   */
+  static String message(Throwable e) {
+    final StringBuilder sb = new StringBuilder(String.valueOf(e.getMessage()));
+    for (Throwable cause = e.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+      if (cause.getMessage() != null && sb.indexOf(cause.getMessage()) < 0) {
+        sb.append(" caused by: ").append(cause.getMessage());
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The result of migrating a database.
+   */
+  static final class Result {
+
+    final boolean ok;
+    final String json;
+
+    Result(boolean ok, String json) {
+      this.ok = ok;
+      this.json = json;
+    }
+  }
+
+  /**
+   * A database to migrate.
+   */
+  static final class Target {
+
+    final String name;
+    final String url;
+
+    Target(String name, String url) {
+      this.name = name;
+      this.url = url;
+    }
+
+    /**
+     * Parse a line of the tenants file returning null for blank and comment lines.
+     */
+    static Target parse(String line) {
+      final String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        return null;
+      }
+      final String[] parts = trimmed.split("\\s+", 2);
+      return parts.length == 2 ? new Target(parts[0], parts[1].trim()) : of(trimmed);
+    }
+
+    /**
+     * Return the target for the url named by the url without credentials.
+     */
+    static Target of(String url) {
+      return new Target(mask(url), url);
+    }
+
+    /**
+     * Return the url without parameters and user info (which may hold credentials).
+     * <p>
+     * This removes the user info of {@code jdbc:postgresql://user:pw@host/db} and
+     * the Oracle thin form {@code jdbc:oracle:thin:scott/tiger@host:1521:orcl}.
+     */
+    static String mask(String url) {
+      int end = url.length();
+      for (char ch : new char[]{'?', ';'}) {
+        final int pos = url.indexOf(ch);
+        if (pos > -1 && pos < end) {
+          end = pos;
+        }
+      }
+      final String masked = url.substring(0, end);
+      final int slashes = masked.indexOf("//");
+      if (slashes > -1) {
+        final int path = masked.indexOf('/', slashes + 2);
+        final int at = masked.lastIndexOf('@', path < 0 ? masked.length() : path);
+        if (at > slashes) {
+          return masked.substring(0, slashes + 2) + masked.substring(at + 1);
+        }
+      }
+      final int at = masked.indexOf('@');
+      if (at > -1 && (slashes < 0 || at < slashes)) {
+        // keep the '@' of the Oracle thin form without credentials
+        return masked.substring(0, masked.lastIndexOf(':', at) + 1) + masked.substring(at);
+      }
+      return masked;
+    }
+  }
+
+  /**
+   * The parsed command line options.
+   */
+  static final class Options {
+
+    final Properties properties = new Properties();
+    final List<Target> targets = new ArrayList<>();
+    int parallelism = 4;
+    boolean check;
+
+    static Options parse(String[] args) throws IOException {
+      final Options options = new Options();
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--config":
+            try (Reader reader = Files.newBufferedReader(path(args, ++i))) {
+              options.properties.load(reader);
+            }
+            break;
+          case "--url":
+            options.targets.add(Target.of(value(args, ++i)));
+            break;
+          case "--tenants":
+            for (String line : Files.readAllLines(path(args, ++i))) {
+              final Target target = Target.parse(line);
+              if (target != null) {
+                options.targets.add(target);
+              }
+            }
+            break;
+          case "--parallelism":
+            options.parallelism = parallelism(value(args, ++i));
+            break;
+          case "--check":
+            options.check = true;
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown argument " + args[i]);
+        }
+      }
+      // system properties override the config file
+      for (String key : System.getProperties().stringPropertyNames()) {
+        if (key.startsWith("ebean.")) {
+          options.properties.setProperty(key, System.getProperty(key));
+        }
+      }
+      return options;
+    }
+
+    private static int parallelism(String value) {
+      try {
+        final int parallelism = Integer.parseInt(value);
+        if (parallelism > 0) {
+          return parallelism;
+        }
+      } catch (NumberFormatException e) {
+        // fall through
+      }
+      throw new IllegalArgumentException("Invalid parallelism " + value);
+    }
+
+    private static Path path(String[] args, int index) {
+      return Paths.get(value(args, index));
+    }
+
+    private static String value(String[] args, int index) {
+      if (index >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+      }
+      return args[index];
+    }
+  }
+
+  /**
+   * Minimal writer of a single line JSON object.
+   */
+  static final class Json {
+
+    private final StringBuilder sb = new StringBuilder("{");
+
+    Json field(String name, String value) {
+      key(name);
+      string(value);
+      return this;
+    }
+
+    Json field(String name, long value) {
+      key(name);
+      sb.append(value);
+      return this;
+    }
+
+    Json pending(List<MigrationResource> pending) {
+      key("pending");
+      sb.append('[');
+      for (int i = 0; i < pending.size(); i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        string(pending.get(i).key());
+      }
+      sb.append(']');
+      return this;
+    }
+
+    String end() {
+      return sb.append('}').toString();
+    }
+
+    private void key(String name) {
+      if (sb.length() > 1) {
+        sb.append(',');
+      }
+      string(name);
+      sb.append(':');
+    }
+
+    private void string(String value) {
+      if (value == null) {
+        sb.append("null");
+        return;
+      }
+      sb.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        final char ch = value.charAt(i);
+        switch (ch) {
+          case '"':
+            sb.append("\\\"");
+            break;
+          case '\\':
+            sb.append("\\\\");
+            break;
+          case '\n':
+            sb.append("\\n");
+            break;
+          case '\r':
+            sb.append("\\r");
+            break;
+          case '\t':
+            sb.append("\\t");
+            break;
+          default:
+            if (ch < 0x20) {
+              sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+              sb.append(ch);
+            }
+        }
+      }
+      sb.append('"');
+    }
+  }
+}
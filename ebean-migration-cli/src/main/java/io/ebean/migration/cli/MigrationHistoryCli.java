@@ -0,0 +1,90 @@
+package io.ebean.migration.cli;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationHistory;
+import io.ebean.migration.MigrationRunner;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Command line report of the migration history run times using {@link MigrationHistory#report(int)}.
+ * <p>
+ * The connection details and migration table are read from a properties file using the usual
+ * {@code ebean.migration.*} keys (url, username, password, schema, metaTable) or when no file is
+ * given from the system properties.
+ * <pre>{@code
+ *
+ *   java -cp "ebean-migration-cli.jar:lib/*" io.ebean.migration.cli.MigrationHistoryCli migration.properties 20
+ * }</pre>
+ */
+public final class MigrationHistoryCli {
+
+  private static final int DEFAULT_LIMIT = 20;
+
+  private static final String USAGE = "Usage: MigrationHistoryCli [<properties file> [<limit>]]";
+
+  private final PrintStream out;
+  private final PrintStream err;
+
+  MigrationHistoryCli(PrintStream out, PrintStream err) {
+    this.out = out;
+    this.err = err;
+  }
+
+  public static void main(String[] args) {
+    System.exit(new MigrationHistoryCli(System.out, System.err).run(args));
+  }
+
+  /**
+   * Run returning the exit code.
+   */
+  int run(String[] args) {
+    final Properties properties = new Properties();
+    final int limit;
+    try {
+      if (args.length > 2) {
+        throw new IllegalArgumentException("Too many arguments");
+      }
+      if (args.length > 0) {
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]))) {
+          properties.load(reader);
+        }
+      } else {
+        properties.putAll(System.getProperties());
+      }
+      limit = args.length > 1 ? limit(args[1]) : DEFAULT_LIMIT;
+    } catch (IllegalArgumentException | IOException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return MigrationCli.EXIT_USAGE;
+    }
+
+    final MigrationConfig config = new MigrationConfig();
+    config.load(properties);
+    try {
+      final MigrationHistory history = new MigrationRunner(config).history();
+      out.println(history.report(limit));
+      return MigrationCli.EXIT_OK;
+    } catch (Exception e) {
+      err.println("Error reading migration history: " + MigrationCli.message(e));
+      return MigrationCli.EXIT_FAILED;
+    }
+  }
+
+  private static int limit(String value) {
+    try {
+      final int limit = Integer.parseInt(value);
+      if (limit > 0) {
+        return limit;
+      }
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    throw new IllegalArgumentException("Invalid limit " + value);
+  }
+}
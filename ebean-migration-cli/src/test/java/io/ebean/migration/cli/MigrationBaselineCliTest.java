@@ -0,0 +1,43 @@
+package io.ebean.migration.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationBaselineCliTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    return new MigrationBaselineCli(new PrintStream(out, true), new PrintStream(err, true)).run(args);
+  }
+
+  @Test
+  void write_usingEmbeddedH2() throws Exception {
+    Path config = Files.createTempFile("baseline", ".properties");
+    Files.writeString(config, "ebean.migration.migrationPath=dbmigration\n");
+    Path directory = Files.createTempDirectory("dbinit");
+
+    assertThat(run(config.toString(), directory.toString())).isEqualTo(MigrationCli.EXIT_OK);
+    Path baseline = directory.resolve("1.1__baseline.sql");
+    assertThat(out.toString(StandardCharsets.UTF_8)).contains("Baseline written to " + baseline);
+    assertThat(Files.readString(baseline)).doesNotContain("DB_MIGRATION");
+
+    Files.delete(baseline);
+    Files.delete(directory);
+    Files.delete(config);
+  }
+
+  @Test
+  void usage() {
+    assertThat(run("a", "b", "c")).isEqualTo(MigrationCli.EXIT_USAGE);
+    assertThat(err.toString(StandardCharsets.UTF_8)).contains("Usage:");
+  }
+}
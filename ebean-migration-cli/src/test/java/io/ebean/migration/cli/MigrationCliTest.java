@@ -0,0 +1,104 @@
+package io.ebean.migration.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationCliTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    out.reset();
+    err.reset();
+    return new MigrationCli(new PrintStream(out, true), new PrintStream(err, true)).run(args);
+  }
+
+  private List<String> lines() {
+    return List.of(out.toString(StandardCharsets.UTF_8).split("\\R"));
+  }
+
+  private static Path config() throws Exception {
+    Path config = Files.createTempFile("migration", ".properties");
+    Files.writeString(config, "ebean.migration.username=sa\nebean.migration.password=\nebean.migration.migrationPath=dbmigration\n");
+    return config;
+  }
+
+  @Test
+  void migrate_many() throws Exception {
+    Path config = config();
+    Path tenants = Files.createTempFile("tenants", ".txt");
+    Files.writeString(tenants, "# tenants\n\ntenant1 jdbc:h2:mem:cli_t1;DB_CLOSE_DELAY=-1\ntenant2 jdbc:h2:mem:cli_t2;DB_CLOSE_DELAY=-1\n");
+
+    String[] args = {"--config", config.toString(), "--tenants", tenants.toString(), "--url", "jdbc:h2:mem:cli_t3;DB_CLOSE_DELAY=-1", "--parallelism", "2"};
+    assertThat(run(args)).isEqualTo(MigrationCli.EXIT_OK);
+    assertThat(lines()).hasSize(3).allMatch(line -> line.contains("\"status\":\"ok\""));
+    assertThat(lines()).anyMatch(line -> line.startsWith("{\"name\":\"tenant1\""));
+    assertThat(lines()).anyMatch(line -> line.startsWith("{\"name\":\"jdbc:h2:mem:cli_t3\""));
+
+    String[] check = {"--config", config.toString(), "--tenants", tenants.toString(), "--url", "jdbc:h2:mem:cli_t4;DB_CLOSE_DELAY=-1", "--check"};
+    assertThat(run(check)).isEqualTo(MigrationCli.EXIT_OK);
+    assertThat(lines()).hasSize(3)
+      .anyMatch(line -> line.startsWith("{\"name\":\"tenant2\"") && line.endsWith("\"pending\":[]}"))
+      .anyMatch(line -> line.startsWith("{\"name\":\"jdbc:h2:mem:cli_t4\"") && line.endsWith("\"pending\":[\"1.0\",\"1.1\"]}"));
+
+    Files.delete(config);
+    Files.delete(tenants);
+  }
+
+  @Test
+  void migrate_error() throws Exception {
+    Path config = config();
+    assertThat(run("--config", config.toString(), "--url", "jdbc:unknown:db", "--url", "jdbc:h2:mem:cli_err")).isEqualTo(MigrationCli.EXIT_FAILED);
+    assertThat(lines()).hasSize(2)
+      .anyMatch(line -> line.startsWith("{\"name\":\"jdbc:unknown:db\",\"status\":\"error\"") && line.contains("\"error\":"))
+      .anyMatch(line -> line.startsWith("{\"name\":\"jdbc:h2:mem:cli_err\",\"status\":\"ok\""));
+    Files.delete(config);
+  }
+
+  @Test
+  void migrate_error_expect_urlMasked() throws Exception {
+    Path config = config();
+    assertThat(run("--config", config.toString(), "--url", "jdbc:unknown://scott:tiger@db/app;password=secret")).isEqualTo(MigrationCli.EXIT_FAILED);
+    assertThat(lines()).hasSize(1)
+      .allMatch(line -> line.startsWith("{\"name\":\"jdbc:unknown://db/app\",\"status\":\"error\"") && line.contains("\"error\":"))
+      .noneMatch(line -> line.contains("tiger") || line.contains("secret"));
+    Files.delete(config);
+  }
+
+  @Test
+  void usage() {
+    assertThat(run()).isEqualTo(MigrationCli.EXIT_USAGE);
+    assertThat(err.toString(StandardCharsets.UTF_8)).contains("No databases to migrate", "Usage:");
+    assertThat(run("--parallelism", "0", "--url", "jdbc:h2:mem:x")).isEqualTo(MigrationCli.EXIT_USAGE);
+    assertThat(run("--url")).isEqualTo(MigrationCli.EXIT_USAGE);
+    assertThat(err.toString(StandardCharsets.UTF_8)).contains("Missing value for --url");
+  }
+
+  @Test
+  void target() {
+    MigrationCli.Target target = MigrationCli.Target.of("jdbc:postgresql://db:5432/app?user=u&password=secret");
+    assertThat(target.name).isEqualTo("jdbc:postgresql://db:5432/app");
+    assertThat(MigrationCli.Target.of("jdbc:postgresql://u:p@ss@db:5432/app").name).isEqualTo("jdbc:postgresql://db:5432/app");
+    assertThat(MigrationCli.Target.of("jdbc:mysql://db:3306/app").name).isEqualTo("jdbc:mysql://db:3306/app");
+    assertThat(MigrationCli.Target.of("jdbc:oracle:thin:scott/tiger@db:1521:orcl").name).isEqualTo("jdbc:oracle:thin:@db:1521:orcl");
+    assertThat(MigrationCli.Target.of("jdbc:oracle:thin:scott/tiger@//db:1521/svc").name).isEqualTo("jdbc:oracle:thin:@//db:1521/svc");
+    assertThat(MigrationCli.Target.of("jdbc:oracle:thin:@db:1521:orcl").name).isEqualTo("jdbc:oracle:thin:@db:1521:orcl");
+    assertThat(MigrationCli.Target.parse("  # comment")).isNull();
+    assertThat(MigrationCli.Target.parse("acme  jdbc:h2:mem:acme").name).isEqualTo("acme");
+  }
+
+  @Test
+  void json() {
+    String json = new MigrationCli.Json().field("a", "q\"b\\c\nd\u0001").field("n", 3).end();
+    assertThat(json).isEqualTo("{\"a\":\"q\\\"b\\\\c\\nd\\u0001\",\"n\":3}");
+  }
+}
@@ -0,0 +1,40 @@
+package io.ebean.migration.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationHistoryCliTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    return new MigrationHistoryCli(new PrintStream(out, true), new PrintStream(err, true)).run(args);
+  }
+
+  @Test
+  void report() throws Exception {
+    Path config = Files.createTempFile("history", ".properties");
+    Files.writeString(config, "ebean.migration.username=sa\nebean.migration.password=\n"
+      + "ebean.migration.migrationPath=dbmigration\nebean.migration.url=jdbc:h2:mem:cli_history;DB_CLOSE_DELAY=-1\n");
+    String[] migrate = {"--config", config.toString(), "--url", "jdbc:h2:mem:cli_history;DB_CLOSE_DELAY=-1"};
+    assertThat(new MigrationCli(new PrintStream(new ByteArrayOutputStream()), System.err).run(migrate)).isEqualTo(MigrationCli.EXIT_OK);
+
+    assertThat(run(config.toString(), "5")).isEqualTo(MigrationCli.EXIT_OK);
+    assertThat(out.toString(StandardCharsets.UTF_8)).contains("Slowest migrations:", "1.1");
+    Files.delete(config);
+  }
+
+  @Test
+  void usage() {
+    assertThat(run("missing.properties", "0")).isEqualTo(MigrationCli.EXIT_USAGE);
+    assertThat(err.toString(StandardCharsets.UTF_8)).contains("Usage:");
+  }
+}
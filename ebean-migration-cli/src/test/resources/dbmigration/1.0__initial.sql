@@ -0,0 +1 @@
+create table cli_tenant (id integer not null, name varchar(100), constraint pk_cli_tenant primary key (id));
@@ -0,0 +1 @@
+alter table cli_tenant add column status varchar(10);
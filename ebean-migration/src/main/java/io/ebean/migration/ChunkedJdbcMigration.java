@@ -0,0 +1,343 @@
+package io.ebean.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Base type for JDBC migrations that backfill large tables in chunks of keys.
+ * <p>
+ * Rather than executing in the migration transaction, each chunk of keys is processed and committed
+ * on a separate connection. This keeps the undo/WAL growth and the time locks are held bounded
+ * by the chunk size rather than the size of the table. The migrations executed before this one are
+ * committed before the chunks are processed such that they are visible to the chunk connection.
+ * <p>
+ * The chunks are found using keyset paging. The key query returns the keys in ascending order
+ * starting from a given key and each chunk is the next {@link #chunkSize()} keys such that
+ * sparse keys do not result in empty chunks.
+ * <p>
+ * The progress is persisted in a side table (the migration table name with a {@code _chunk} suffix)
+ * in the same transaction as each chunk. When the migration fails (or the process crashes) the
+ * next migration run resumes from the first unprocessed chunk. As a consequence processing a
+ * chunk must be idempotent with respect to rows of a chunk that is processed again. The progress
+ * is removed using the migration connection such that it is removed when the migration is recorded.
+ * <p>
+ * The migration runner supplies the connection to process the chunks when it runs with a DataSource
+ * or a configured db url. Otherwise (running with only a connection) the chunks are processed
+ * in the migration transaction.
+ * <pre>{@code
+ *
+ *   public class V1_5__backfill_status extends ChunkedJdbcMigration {
+ *
+ *     protected String keyQuery() {
+ *       return "select id from orders where id >= ? order by id";
+ *     }
+ *
+ *     protected int processChunk(Connection connection, long fromKey, long toKey) throws SQLException {
+ *       try (PreparedStatement stmt = connection.prepareStatement("update orders set status = 'N' where id between ? and ? and status is null")) {
+ *         stmt.setLong(1, fromKey);
+ *         stmt.setLong(2, toKey);
+ *         return stmt.executeUpdate();
+ *       }
+ *     }
+ *   }
+ * }</pre>
+ */
+public abstract class ChunkedJdbcMigration implements JdbcMigration, ConfigurationAware {
+
+  private static final System.Logger log = MigrationRunner.log;
+
+  private MigrationConfig config;
+
+  @Override
+  public void setMigrationConfig(MigrationConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Return the query of the keys of the rows to process in ascending key order with a single
+   * parameter being the first key (inclusive) like {@code select id from orders where id >= ? order by id}.
+   * <p>
+   * The query is limited to the chunk size using {@link java.sql.Statement#setMaxRows(int)}.
+   */
+  protected abstract String keyQuery();
+
+  /**
+   * Process the rows with keys from {@code fromKey} to {@code toKey} (both inclusive).
+   * <p>
+   * The connection is committed after the chunk is processed and the progress recorded (unless
+   * the chunks are processed in the migration transaction).
+   *
+   * @return The number of rows processed (used to throttle to {@link #maxRowsPerSecond()})
+   */
+  protected abstract int processChunk(Connection connection, long fromKey, long toKey) throws SQLException;
+
+  /**
+   * Return the number of keys processed per chunk (defaults to 10,000).
+   */
+  protected int chunkSize() {
+    return 10_000;
+  }
+
+  /**
+   * Return the target maximum rows processed per second or 0 for no throttling (the default).
+   */
+  protected int maxRowsPerSecond() {
+    return 0;
+  }
+
+  /**
+   * Return the name the progress is persisted with (defaults to the class name).
+   */
+  protected String name() {
+    return getClass().getName();
+  }
+
+  /**
+   * Return the migration configuration.
+   */
+  protected MigrationConfig config() {
+    return config;
+  }
+
+  /**
+   * Helper to return a single long value of a query (0 when null).
+   */
+  protected static long queryLong(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    }
+  }
+
+  /**
+   * Run processing all the chunks in the migration transaction.
+   * <p>
+   * This is used when there is no other connection to process the chunks with. The chunks are
+   * not committed individually and no progress is persisted.
+   */
+  @Override
+  public void migrate(Connection connection) {
+    final String name = name();
+    log.log(INFO, "Start chunked migration {0} in the migration transaction", name);
+    final String keyQuery = keyQuery();
+    final int chunkSize = chunkSize();
+    final long start = System.currentTimeMillis();
+    try {
+      long rows = 0;
+      long fromKey = Long.MIN_VALUE;
+      while (true) {
+        final Chunk chunk = nextChunk(connection, keyQuery, fromKey, chunkSize);
+        if (chunk == null) {
+          break;
+        }
+        rows += processChunk(connection, chunk.fromKey, chunk.toKey);
+        if (chunk.toKey == Long.MAX_VALUE || chunk.count < chunkSize) {
+          break;
+        }
+        fromKey = chunk.toKey + 1;
+      }
+      log.log(INFO, "Completed chunked migration {0} - rows:{1} in {2}ms", name, rows, System.currentTimeMillis() - start);
+    } catch (SQLException e) {
+      throw new MigrationException("Error running chunked migration " + name, e);
+    }
+  }
+
+  /**
+   * Run processing the chunks using a connection obtained from the given supplier.
+   * <p>
+   * On completion the progress is removed using the migration connection (such that it is
+   * removed when the migration transaction commits).
+   *
+   * @param connection  The migration connection (not used to process chunks)
+   * @param connections Supplier of the connection used to process the chunks (closed after use)
+   */
+  public void migrate(Connection connection, Supplier<Connection> connections) {
+    try (Connection chunkConnection = connections.get()) {
+      chunkConnection.setAutoCommit(false);
+      run(chunkConnection);
+      deleteProgress(connection, progressTable(), name());
+    } catch (SQLException e) {
+      throw new MigrationException("Error running chunked migration " + name(), e);
+    }
+  }
+
+  private void run(Connection connection) throws SQLException {
+    final String table = progressTable();
+    createProgressTableIfNeeded(connection, table);
+    final String name = name();
+    final Long resumeKey = readProgress(connection, table, name);
+    long fromKey = resumeKey != null ? resumeKey : Long.MIN_VALUE;
+    connection.commit();
+    if (resumeKey != null) {
+      log.log(INFO, "Resume chunked migration {0} from key {1}", name, fromKey);
+    } else {
+      log.log(INFO, "Start chunked migration {0}", name);
+      insertProgress(connection, table, name, fromKey);
+      connection.commit();
+    }
+    final String keyQuery = keyQuery();
+    final int chunkSize = chunkSize();
+    final int maxRowsPerSecond = maxRowsPerSecond();
+    final long start = System.currentTimeMillis();
+    long rows = 0;
+    while (true) {
+      final Chunk chunk = nextChunk(connection, keyQuery, fromKey, chunkSize);
+      if (chunk == null) {
+        break;
+      }
+      // the key after the last key of the chunk (unless the last possible key)
+      final boolean last = chunk.toKey == Long.MAX_VALUE;
+      final long nextKey = last ? chunk.toKey : chunk.toKey + 1;
+      try {
+        final int chunkRows = processChunk(connection, chunk.fromKey, chunk.toKey);
+        updateProgress(connection, table, name, nextKey, chunkRows);
+        rows += chunkRows;
+        connection.commit();
+      } catch (SQLException e) {
+        rollback(connection);
+        throw e;
+      }
+      if (last || chunk.count < chunkSize) {
+        break;
+      }
+      fromKey = nextKey;
+      throttle(start, rows, maxRowsPerSecond);
+    }
+    log.log(INFO, "Completed chunked migration {0} - rows:{1} in {2}ms", name, rows, System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Return the next chunk of keys starting from the given key or null when there are no more keys.
+   */
+  private static Chunk nextChunk(Connection connection, String keyQuery, long fromKey, int chunkSize) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement(keyQuery)) {
+      stmt.setMaxRows(chunkSize);
+      stmt.setFetchSize(Math.min(chunkSize, 1000));
+      stmt.setLong(1, fromKey);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        int count = 0;
+        long firstKey = 0;
+        long lastKey = 0;
+        while (resultSet.next()) {
+          lastKey = resultSet.getLong(1);
+          if (count++ == 0) {
+            firstKey = lastKey;
+          }
+        }
+        return count == 0 ? null : new Chunk(firstKey, lastKey, count);
+      }
+    }
+  }
+
+  /**
+   * The first and last keys (inclusive) and the number of keys of a chunk.
+   */
+  private static final class Chunk {
+
+    final long fromKey;
+    final long toKey;
+    final int count;
+
+    Chunk(long fromKey, long toKey, int count) {
+      this.fromKey = fromKey;
+      this.toKey = toKey;
+      this.count = count;
+    }
+  }
+
+  private static void throttle(long start, long rows, int maxRowsPerSecond) {
+    if (maxRowsPerSecond <= 0) {
+      return;
+    }
+    final long sleepMillis = rows * 1000 / maxRowsPerSecond - (System.currentTimeMillis() - start);
+    if (sleepMillis > 0) {
+      try {
+        Thread.sleep(sleepMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MigrationException("Interrupted running chunked migration", e);
+      }
+    }
+  }
+
+  /**
+   * Return the name of the table holding the chunk progress.
+   */
+  String progressTable() {
+    final String table = config != null ? config.getMetaTable() + "_chunk" : "db_migration_chunk";
+    final String schema = config != null ? config.getDbSchema() : null;
+    return schema != null ? schema + '.' + table : table;
+  }
+
+  private static void createProgressTableIfNeeded(Connection connection, String sqlTable) throws SQLException {
+    final int dot = sqlTable.indexOf('.');
+    String schema = dot < 0 ? connection.getSchema() : sqlTable.substring(0, dot);
+    String table = sqlTable.substring(dot + 1);
+    DatabaseMetaData metaData = connection.getMetaData();
+    if (metaData.storesUpperCaseIdentifiers()) {
+      table = table.toUpperCase();
+      schema = schema == null ? null : schema.toUpperCase();
+    }
+    try (ResultSet tables = metaData.getTables(connection.getCatalog(), schema, table, null)) {
+      if (tables.next()) {
+        return;
+      }
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("create table " + sqlTable + " (mname varchar(255) not null, mnext_key bigint not null, mrows bigint not null, constraint pk_" + table.toLowerCase() + " primary key (mname))");
+      connection.commit();
+    } catch (SQLException e) {
+      // possibly created concurrently
+      rollback(connection);
+      log.log(WARNING, "Error creating chunk progress table " + sqlTable, e);
+    }
+  }
+
+  private static Long readProgress(Connection connection, String table, String name) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("select mnext_key from " + table + " where mname = ?")) {
+      stmt.setString(1, name);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : null;
+      }
+    }
+  }
+
+  private static void insertProgress(Connection connection, String table, String name, long nextKey) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("insert into " + table + " (mname, mnext_key, mrows) values (?, ?, 0)")) {
+      stmt.setString(1, name);
+      stmt.setLong(2, nextKey);
+      stmt.executeUpdate();
+    }
+  }
+
+  private static void updateProgress(Connection connection, String table, String name, long nextKey, long rows) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("update " + table + " set mnext_key = ?, mrows = mrows + ? where mname = ?")) {
+      stmt.setLong(1, nextKey);
+      stmt.setLong(2, rows);
+      stmt.setString(3, name);
+      stmt.executeUpdate();
+    }
+  }
+
+  private static void deleteProgress(Connection connection, String table, String name) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("delete from " + table + " where mname = ?")) {
+      stmt.setString(1, name);
+      stmt.executeUpdate();
+    }
+  }
+
+  private static void rollback(Connection connection) {
+    try {
+      connection.rollback();
+    } catch (SQLException e) {
+      log.log(WARNING, "Error on connection rollback", e);
+    }
+  }
+}
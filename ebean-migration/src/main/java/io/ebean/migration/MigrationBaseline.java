@@ -0,0 +1,180 @@
+package io.ebean.migration;
+
+import io.ebean.migration.runner.DefaultMigrationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Generates a consolidated dbinit baseline script by running all the migrations and dumping the resulting schema
+ * and data.
+ * <p>
+ * The baseline is written as {@code <version>__baseline.sql} where the version is that of the last versioned
+ * migration. When put into the {@link MigrationConfig#getMigrationInitPath()} it is used to initialise a new
+ * database rather than running all the migrations, with only the migrations after the baseline version then
+ * running as normal.
+ * <p>
+ * By default the schema and data are dumped using the H2 {@code SCRIPT} command such that the baseline is generated
+ * using an embedded H2 database. The data is included as the migrations typically insert seed and reference data
+ * that a database initialised from the baseline also needs. For other databases (for example a local container
+ * of the target platform) supply a {@link SchemaDump} that dumps the schema and the data.
+ * <p>
+ * The command line entry point is {@code io.ebean.migration.cli.MigrationBaselineCli} of ebean-migration-cli.
+ */
+public final class MigrationBaseline {
+
+  /**
+   * Dumps the schema and data of a database as a script.
+   */
+  @FunctionalInterface
+  public interface SchemaDump {
+
+    /**
+     * Return the script of the schema and data excluding the given migration table.
+     * <p>
+     * The data of the other tables must be included as otherwise seed and reference data inserted
+     * by the migrations is missing from databases initialised using the baseline.
+     */
+    String dump(Connection connection, String migrationTable) throws SQLException;
+  }
+
+  /**
+   * Dump the schema and data of an H2 database using {@code SCRIPT}.
+   */
+  public static final SchemaDump H2 = MigrationBaseline::h2Dump;
+
+  private final MigrationConfig config;
+  private SchemaDump schemaDump = H2;
+
+  public MigrationBaseline(MigrationConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Set the schema dump used to generate the baseline (defaults to {@link #H2}).
+   */
+  public MigrationBaseline schemaDump(SchemaDump schemaDump) {
+    this.schemaDump = schemaDump;
+    return this;
+  }
+
+  /**
+   * Run all the migrations on the (empty) database and return the baseline of the resulting schema.
+   * <p>
+   * The connection is not closed.
+   */
+  public Baseline generate(Connection connection) {
+    try {
+      new MigrationRunner(config).run(new DefaultMigrationContext(config, connection));
+      final String migrationTable = migrationTable();
+      final MigrationVersion version = lastVersion(connection, migrationTable);
+      if (version == null) {
+        throw new MigrationException("No versioned migrations to generate a baseline from");
+      }
+      final String script = schemaDump.dump(connection, config.getMetaTable());
+      connection.rollback();
+      return new Baseline(version, script);
+    } catch (SQLException e) {
+      throw new MigrationException("Error generating baseline", e);
+    }
+  }
+
+  /**
+   * Generate the baseline and write it to the given directory returning the path of the written file.
+   */
+  public Path write(Connection connection, Path directory) throws IOException {
+    return generate(connection).write(directory);
+  }
+
+  private String migrationTable() {
+    final String schema = config.getDbSchema();
+    final String table = config.getMetaTable();
+    return schema != null ? schema + '.' + table : table;
+  }
+
+  private static MigrationVersion lastVersion(Connection connection, String migrationTable) throws SQLException {
+    MigrationVersion last = null;
+    final String sql = "select mversion from " + migrationTable + " where mtype in ('" + MigrationVersion.VERSION_TYPE + "','" + MigrationVersion.BOOTINIT_TYPE + "')";
+    try (PreparedStatement statement = connection.prepareStatement(sql); ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        final MigrationVersion version = MigrationVersion.parse(resultSet.getString(1));
+        if (last == null || version.compareTo(last) > 0) {
+          last = version;
+        }
+      }
+    }
+    return last;
+  }
+
+  private static String h2Dump(Connection connection, String migrationTable) throws SQLException {
+    final String table = migrationTable.substring(migrationTable.lastIndexOf('.') + 1).toUpperCase(Locale.ROOT);
+    final String quotedTable = "\"" + table + "\"";
+    // the side tables of the migration table such as _checkpoint and _chunk (and their primary keys)
+    final String quotedPrefix = "\"" + table + "_";
+    final String quotedPk = "\"PK_" + table;
+    StringBuilder sb = new StringBuilder(2000);
+    try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("script nopasswords nosettings")) {
+      while (resultSet.next()) {
+        final String sql = resultSet.getString(1);
+        final String upper = sql.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("CREATE USER") || upper.startsWith("--") || upper.contains(quotedTable) || upper.contains(quotedPrefix) || upper.contains(quotedPk)) {
+          // exclude the user, comments and the migration tables (and their rows)
+          continue;
+        }
+        sb.append(sql).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * A generated baseline script.
+   */
+  public static final class Baseline {
+
+    private final MigrationVersion version;
+    private final String script;
+
+    Baseline(MigrationVersion version, String script) {
+      this.version = version;
+      this.script = script;
+    }
+
+    /**
+     * Return the version of the baseline (the last versioned migration included).
+     */
+    public MigrationVersion version() {
+      return version;
+    }
+
+    /**
+     * Return the script of the baseline.
+     */
+    public String script() {
+      return script;
+    }
+
+    /**
+     * Return the file name of the baseline like {@code 1.4__baseline.sql}.
+     */
+    public String fileName() {
+      return version.raw() + "__baseline.sql";
+    }
+
+    /**
+     * Write the baseline script to the given directory returning the path of the written file.
+     */
+    public Path write(Path directory) throws IOException {
+      Files.createDirectories(directory);
+      return Files.writeString(directory.resolve(fileName()), script, StandardCharsets.UTF_8);
+    }
+  }
+}
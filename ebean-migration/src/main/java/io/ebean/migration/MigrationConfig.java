@@ -3,7 +3,9 @@ package io.ebean.migration;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -34,6 +36,8 @@ public class MigrationConfig {
 
   private JdbcMigrationFactory jdbcMigrationFactory = new DefaultMigrationFactory();
 
+  private final List<MigrationResourceProvider> resourceProviders = new ArrayList<>();
+
   /**
    * Versions that we want to insert into migration history without actually running.
    */
@@ -67,6 +71,25 @@ public class MigrationConfig {
   private Properties properties;
   private boolean earlyChecksumMode;
   private boolean fastMode = true;
+  private int fetchSize;
+  private int queryTimeout;
+  private boolean lockInitRowOnly;
+  private String checksumCacheFile;
+  private int repeatableThreads;
+  private int moduleThreads;
+  private boolean templateMode;
+  private String templatePrefix = "migration_template";
+  private boolean templateDropPrior;
+  private String snapshotDir;
+  private MigrationStatementListener statementListener;
+  private int progressSeconds = 60;
+  private boolean statementCheckpoint;
+  private int onlineAlterMinRows;
+  private int onlineAlterChunkSize = 10_000;
+  private int lockTimeoutMillis;
+  private int statementTimeoutMillis;
+  private int lockRetries = 10;
+  private int lockRetryDelayMillis = 500;
 
   /**
    * Return the name of the migration table.
@@ -237,6 +260,11 @@ public class MigrationConfig {
 
   /**
    * Set the root path used to find migrations.
+   * <p>
+   * A path prefixed with {@code filesystem:} is read from the file system. When that directory (or its
+   * platform sub directory) contains an {@code idx_<platform>.migrations} index file only the scripts
+   * listed in the index are run and {@link #setEarlyChecksumMode(boolean)} is turned on, as for an
+   * index file on the classpath.
    */
   public void setMigrationPath(String migrationPath) {
     this.migrationPath = migrationPath;
@@ -429,6 +457,23 @@ public class MigrationConfig {
     this.jdbcMigrationFactory = jdbcMigrationFactory;
   }
 
+  /**
+   * Return the registered providers of migration scripts.
+   */
+  public List<MigrationResourceProvider> getResourceProviders() {
+    return resourceProviders;
+  }
+
+  /**
+   * Add a provider of migration scripts.
+   * <p>
+   * Registered providers are asked for the migration scripts before the providers found
+   * via ServiceLoader and before reading the scripts from the classpath or file system.
+   */
+  public void addResourceProvider(MigrationResourceProvider resourceProvider) {
+    this.resourceProviders.add(resourceProvider);
+  }
+
   /**
    * Return the minVersion.
    */
@@ -483,6 +528,24 @@ public class MigrationConfig {
     runPlaceholders = property("placeholders", runPlaceholders);
     minVersion = property("minVersion", minVersion);
     minVersionFailMessage = property("minVersionFailMessage", minVersionFailMessage);
+    fetchSize = property("fetchSize", fetchSize);
+    queryTimeout = property("queryTimeout", queryTimeout);
+    lockInitRowOnly = property("lockInitRowOnly", lockInitRowOnly);
+    checksumCacheFile = property("checksumCacheFile", checksumCacheFile);
+    repeatableThreads = property("repeatableThreads", repeatableThreads);
+    moduleThreads = property("moduleThreads", moduleThreads);
+    templateMode = property("templateMode", templateMode);
+    templatePrefix = property("templatePrefix", templatePrefix);
+    templateDropPrior = property("templateDropPrior", templateDropPrior);
+    snapshotDir = property("snapshotDir", snapshotDir);
+    progressSeconds = property("progressSeconds", progressSeconds);
+    statementCheckpoint = property("statementCheckpoint", statementCheckpoint);
+    onlineAlterMinRows = property("onlineAlterMinRows", onlineAlterMinRows);
+    onlineAlterChunkSize = property("onlineAlterChunkSize", onlineAlterChunkSize);
+    lockTimeoutMillis = property("lockTimeoutMillis", lockTimeoutMillis);
+    statementTimeoutMillis = property("statementTimeoutMillis", statementTimeoutMillis);
+    lockRetries = property("lockRetries", lockRetries);
+    lockRetryDelayMillis = property("lockRetryDelayMillis", lockRetryDelayMillis);
 
     String patchInsertOn = property("patchInsertOn");
     if (patchInsertOn != null) {
@@ -503,6 +566,11 @@ public class MigrationConfig {
     return val != null ? Boolean.parseBoolean(val) : value;
   }
 
+  private int property(String key, int value) {
+    String val = property(key);
+    return val != null ? Integer.parseInt(val.trim()) : value;
+  }
+
   private String property(String key) {
     return property(key, null);
   }
@@ -610,6 +678,344 @@ public class MigrationConfig {
     this.fastMode = fastMode;
   }
 
+  /**
+   * Return the JDBC fetch size used when reading the migration table (0 for the platform default).
+   */
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * Set the JDBC fetch size used when reading the migration table.
+   * <p>
+   * This can reduce the number of round trips when reading a large migration history.
+   * When not set a platform specific default is used (e.g. 1000 for Oracle).
+   */
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * Return the JDBC query timeout in seconds used for the migration table queries (0 for no timeout).
+   */
+  public int getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  /**
+   * Set the JDBC query timeout in seconds used for the migration table queries.
+   * <p>
+   * Note that this includes the time waiting to obtain the lock on the migration table.
+   */
+  public void setQueryTimeout(int queryTimeout) {
+    this.queryTimeout = queryTimeout;
+  }
+
+  /**
+   * Return true if row locking only locks the init row (id=0) of the migration table.
+   */
+  public boolean isLockInitRowOnly() {
+    return lockInitRowOnly;
+  }
+
+  /**
+   * Set to true for platforms using row locking to only lock the init row (id=0)
+   * rather than all the rows of the migration table.
+   * <p>
+   * As all migration runs first lock the init row this provides the same mutual
+   * exclusion but the cost of obtaining the lock does not grow with the number of
+   * migrations in the history.
+   */
+  public void setLockInitRowOnly(boolean lockInitRowOnly) {
+    this.lockInitRowOnly = lockInitRowOnly;
+  }
+
+  /**
+   * Return the file used to cache the checksums of migration scripts by fingerprint.
+   */
+  public String getChecksumCacheFile() {
+    return checksumCacheFile;
+  }
+
+  /**
+   * Set the file used to cache the checksums of migration scripts by fingerprint.
+   * <p>
+   * The fingerprint of a script is its size plus the jar entry CRC (for scripts in a jar)
+   * or the last modified time (for scripts on the file system). When the fingerprint matches
+   * the cached entry and the cached checksum matches the migration table then the script
+   * is skipped without reading its content.
+   * <p>
+   * This is only used with earlyChecksumMode where the checksum is on the original content.
+   */
+  public void setChecksumCacheFile(String checksumCacheFile) {
+    this.checksumCacheFile = checksumCacheFile;
+  }
+
+  /**
+   * Return the number of connections used to execute repeatable migrations in parallel.
+   */
+  public int getRepeatableThreads() {
+    return repeatableThreads;
+  }
+
+  /**
+   * Set the number of connections used to execute repeatable migrations in parallel.
+   * <p>
+   * When greater than 1 the repeatable migrations that need to run are executed concurrently
+   * on additional connections (from the DataSource or created via the url, username etc).
+   * Dependencies between repeatable migrations are declared with a header comment like
+   * <code>-- depends: R__base_views</code> and are executed in dependency order.
+   * <p>
+   * The migrations executed earlier in the run are committed before the repeatable migrations
+   * execute. A repeatable migration that runs for the first time is recorded in the migration
+   * table in the same transaction as it executes. A repeatable migration that runs again is
+   * recorded using the main connection.
+   */
+  public void setRepeatableThreads(int repeatableThreads) {
+    this.repeatableThreads = repeatableThreads;
+  }
+
+  /**
+   * Return the number of connections used to execute versioned migrations of independent modules in parallel.
+   */
+  public int getModuleThreads() {
+    return moduleThreads;
+  }
+
+  /**
+   * Set the number of connections used to execute versioned migrations of independent modules in parallel.
+   * <p>
+   * When greater than 1 the versioned migrations are grouped by the module declared with a header
+   * comment like <code>-- module: billing</code> and the modules execute concurrently on additional
+   * connections. Migrations of a module execute in version order and dependencies on other modules
+   * are declared with a header comment like <code>-- depends: core</code>. Each migration is recorded
+   * in the migration table in the same transaction as it executes.
+   * <p>
+   * Migrations without a module execute on the main connection after all the preceding migrations
+   * and before all the following migrations. All the versioned migrations complete before the
+   * repeatable migrations run.
+   */
+  public void setModuleThreads(int moduleThreads) {
+    this.moduleThreads = moduleThreads;
+  }
+
+  /**
+   * Return true if a database that does not exist is created by cloning a migrated template database.
+   */
+  public boolean isTemplateMode() {
+    return templateMode;
+  }
+
+  /**
+   * Set to true to create a (Postgres) database that does not exist by cloning a fully migrated
+   * template database when running via {@link MigrationRunner#run()}.
+   * <p>
+   * The template database is named using the template prefix and a hash of the migrations. When
+   * the migrations change a new template database is created and migrated. The migration run
+   * then only applies the migrations (if any) not already in the template.
+   * <p>
+   * This is intended for test and ephemeral environments that create many databases.
+   */
+  public void setTemplateMode(boolean templateMode) {
+    this.templateMode = templateMode;
+  }
+
+  /**
+   * Return the name prefix of the template databases.
+   */
+  public String getTemplatePrefix() {
+    return templatePrefix;
+  }
+
+  /**
+   * Set the name prefix of the template databases (defaults to <code>migration_template</code>).
+   */
+  public void setTemplatePrefix(String templatePrefix) {
+    this.templatePrefix = templatePrefix;
+  }
+
+  /**
+   * Return true if prior template databases are dropped when a new template database is created.
+   */
+  public boolean isTemplateDropPrior() {
+    return templateDropPrior;
+  }
+
+  /**
+   * Set to true to drop the prior template databases (of the same template prefix) that are not in
+   * use when the migrations change and a new template database is created (defaults to false).
+   * <p>
+   * Only enable this when the template prefix is not shared by applications or branches that run
+   * different migrations against the same server, as their templates would otherwise be dropped.
+   */
+  public void setTemplateDropPrior(boolean templateDropPrior) {
+    this.templateDropPrior = templateDropPrior;
+  }
+
+  /**
+   * Return the directory holding snapshots of migrated (H2) databases.
+   */
+  public String getSnapshotDir() {
+    return snapshotDir;
+  }
+
+  /**
+   * Set the directory holding snapshots of migrated H2 databases.
+   * <p>
+   * When set, the first migration run of an empty H2 database saves a snapshot of the migrated
+   * database keyed by a hash of the migrations. Subsequent runs against an empty H2 database
+   * (typically a new in-memory database per test) restore the snapshot rather than running all
+   * the migrations. When the migrations change a new snapshot is saved.
+   * <p>
+   * This is intended for test suites that create many in-memory databases.
+   */
+  public void setSnapshotDir(String snapshotDir) {
+    this.snapshotDir = snapshotDir;
+  }
+
+  /**
+   * Return the listener notified as each migration statement executes (or null).
+   */
+  public MigrationStatementListener getStatementListener() {
+    return statementListener;
+  }
+
+  /**
+   * Set a listener notified as each migration statement starts and ends with the elapsed
+   * time and update count, and periodically while a long-running statement executes.
+   */
+  public void setStatementListener(MigrationStatementListener statementListener) {
+    this.statementListener = statementListener;
+  }
+
+  /**
+   * Return the interval in seconds of the progress log of long-running statements.
+   */
+  public int getProgressSeconds() {
+    return progressSeconds;
+  }
+
+  /**
+   * Set the interval in seconds at which the progress of a long-running migration statement
+   * is logged (and the statement listener notified). Defaults to 60, set to 0 to disable.
+   */
+  public void setProgressSeconds(int progressSeconds) {
+    this.progressSeconds = progressSeconds;
+  }
+
+  /**
+   * Return true if a checkpoint is recorded after each statement of a migration.
+   */
+  public boolean isStatementCheckpoint() {
+    return statementCheckpoint;
+  }
+
+  /**
+   * Set to true to record a checkpoint after each statement of a migration such that a
+   * migration that fails part way through resumes from the failed statement on the next run.
+   * <p>
+   * This only applies to platforms where DDL implicitly commits (MySQL, MariaDB, Oracle and H2)
+   * and hence the statements executed before the failure are not rolled back. Note that a
+   * checkpoint commits the migration transaction after each statement.
+   */
+  public void setStatementCheckpoint(boolean statementCheckpoint) {
+    this.statementCheckpoint = statementCheckpoint;
+  }
+
+  /**
+   * Return the minimum number of rows of a MySQL table for ALTER TABLE to execute as an online schema change.
+   */
+  public int getOnlineAlterMinRows() {
+    return onlineAlterMinRows;
+  }
+
+  /**
+   * Set the minimum number of rows of a MySQL/MariaDB table for ALTER TABLE statements to execute as an
+   * online schema change (0, the default, disables online schema changes).
+   * <p>
+   * The online schema change copies the rows in chunks to a shadow table with the altered structure using
+   * triggers to apply concurrent changes, and then swaps the tables. This avoids blocking writes to large
+   * tables for the duration of the ALTER. It requires a single column integer primary key.
+   */
+  public void setOnlineAlterMinRows(int onlineAlterMinRows) {
+    this.onlineAlterMinRows = onlineAlterMinRows;
+  }
+
+  /**
+   * Return the number of primary key values copied per chunk by an online schema change.
+   */
+  public int getOnlineAlterChunkSize() {
+    return onlineAlterChunkSize;
+  }
+
+  /**
+   * Set the number of primary key values copied per chunk by an online schema change (defaults to 10,000).
+   */
+  public void setOnlineAlterChunkSize(int onlineAlterChunkSize) {
+    this.onlineAlterChunkSize = onlineAlterChunkSize;
+  }
+
+  /**
+   * Return the (Postgres) lock timeout in milliseconds of each migration statement.
+   */
+  public int getLockTimeoutMillis() {
+    return lockTimeoutMillis;
+  }
+
+  /**
+   * Set the (Postgres) lock timeout in milliseconds of each migration statement (0, the default, for none).
+   * <p>
+   * With a lock timeout a statement like ALTER TABLE that is queued behind a long-running query fails
+   * after the timeout rather than blocking all the following queries on the table while it waits. The
+   * statement is then retried after a backoff (see {@link #setLockRetries(int)}).
+   */
+  public void setLockTimeoutMillis(int lockTimeoutMillis) {
+    this.lockTimeoutMillis = lockTimeoutMillis;
+  }
+
+  /**
+   * Return the (Postgres) statement timeout in milliseconds of each migration statement.
+   */
+  public int getStatementTimeoutMillis() {
+    return statementTimeoutMillis;
+  }
+
+  /**
+   * Set the (Postgres) statement timeout in milliseconds of each migration statement (0, the default, for none).
+   */
+  public void setStatementTimeoutMillis(int statementTimeoutMillis) {
+    this.statementTimeoutMillis = statementTimeoutMillis;
+  }
+
+  /**
+   * Return the number of times a statement failing due to the lock timeout is retried.
+   */
+  public int getLockRetries() {
+    return lockRetries;
+  }
+
+  /**
+   * Set the number of times a statement failing due to the lock timeout is retried (defaults to 10).
+   */
+  public void setLockRetries(int lockRetries) {
+    this.lockRetries = lockRetries;
+  }
+
+  /**
+   * Return the base delay in milliseconds before retrying a statement that failed due to the lock timeout.
+   */
+  public int getLockRetryDelayMillis() {
+    return lockRetryDelayMillis;
+  }
+
+  /**
+   * Set the base delay in milliseconds before retrying a statement that failed due to the lock timeout
+   * (defaults to 500). The delay doubles with each retry (up to 30 seconds) with random jitter.
+   */
+  public void setLockRetryDelayMillis(int lockRetryDelayMillis) {
+    this.lockRetryDelayMillis = lockRetryDelayMillis;
+  }
+
   /**
    * Default factory. Uses the migration's class loader and injects the config if necessary.
    *
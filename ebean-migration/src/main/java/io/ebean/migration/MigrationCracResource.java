@@ -0,0 +1,60 @@
+package io.ebean.migration;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import javax.sql.DataSource;
+
+/**
+ * CRaC (Coordinated Restore at Checkpoint) resource that prepares the migrations before the checkpoint
+ * and optionally runs them after restore.
+ * <p>
+ * This requires {@code org.crac:crac} which is an optional dependency.
+ * <pre>{@code
+ *
+ *   MigrationRunner runner = new MigrationRunner(config);
+ *   // retain the resource as the CRaC context only holds a weak reference to it
+ *   this.cracResource = new MigrationCracResource(runner, dataSource).register();
+ * }</pre>
+ */
+public final class MigrationCracResource implements Resource {
+
+  private final MigrationRunner runner;
+  private final DataSource dataSource;
+
+  /**
+   * Create to prepare the migrations before the checkpoint (running them is left to the application).
+   */
+  public MigrationCracResource(MigrationRunner runner) {
+    this(runner, null);
+  }
+
+  /**
+   * Create to prepare the migrations before the checkpoint and run them using the DataSource after restore.
+   */
+  public MigrationCracResource(MigrationRunner runner, DataSource dataSource) {
+    this.runner = runner;
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Register with the global CRaC context returning this resource (which should be retained).
+   */
+  public MigrationCracResource register() {
+    Core.getGlobalContext().register(this);
+    return this;
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) {
+    runner.prepare();
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context) {
+    if (dataSource != null) {
+      runner.run(dataSource);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package io.ebean.migration;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The migration history read from the migration table with run time analytics.
+ * <p>
+ * Obtained via {@link MigrationRunner#history()} this can be used to find the slowest
+ * migrations, the cumulative run time of each migration run, repeatable migrations
+ * that have been re-run and run time outliers.
+ */
+public interface MigrationHistory {
+
+  /**
+   * Return all the migrations in id order (excluding the init row).
+   */
+  List<Entry> entries();
+
+  /**
+   * Return the slowest migrations ordered by run time descending.
+   */
+  List<Entry> slowest(int limit);
+
+  /**
+   * Return the migration runs (migrations executed together with the same run on timestamp)
+   * with their cumulative run time.
+   */
+  List<Run> runs();
+
+  /**
+   * Return the repeatable migrations that have been re-run since first applied ordered by run time
+   * descending.
+   * <p>
+   * The migration table only holds the latest run of a repeatable migration, so these are the
+   * repeatable migrations that have a later run on timestamp than a following migration. This
+   * means a re-run is not detected for repeatable migrations that have no following migration.
+   */
+  List<Entry> rerunRepeatables();
+
+  /**
+   * Return the migrations with a run time more than 3 standard deviations above the mean.
+   */
+  List<Entry> outliers();
+
+  /**
+   * Return a plain text report of the history with the given limit on each section.
+   */
+  String report(int limit);
+
+  /**
+   * A migration in the history.
+   */
+  interface Entry {
+
+    /**
+     * Return the id of the migration.
+     */
+    int id();
+
+    /**
+     * Return the type of the migration (V, R, I or B).
+     */
+    String type();
+
+    /**
+     * Return the version (or key for repeatable migrations).
+     */
+    String version();
+
+    /**
+     * Return the migration comment.
+     */
+    String comment();
+
+    /**
+     * Return when the migration was last run.
+     */
+    Timestamp runOn();
+
+    /**
+     * Return who last ran the migration.
+     */
+    String runBy();
+
+    /**
+     * Return the run time in millis of the last run.
+     */
+    long runTime();
+  }
+
+  /**
+   * A migration run being the migrations executed together.
+   */
+  interface Run {
+
+    /**
+     * Return when the migrations were run.
+     */
+    Timestamp runOn();
+
+    /**
+     * Return the number of migrations (still) recorded against this run.
+     */
+    int count();
+
+    /**
+     * Return the cumulative run time in millis of the migrations.
+     */
+    long totalMillis();
+  }
+}
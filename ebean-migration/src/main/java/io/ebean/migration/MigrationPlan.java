@@ -0,0 +1,84 @@
+package io.ebean.migration;
+
+import java.util.List;
+
+/**
+ * A dry run execution plan of the migrations that would be applied.
+ * <p>
+ * Obtained via {@link MigrationRunner#plan()} this details the statements of each pending
+ * migration along with an estimated duration based on historical run times.
+ */
+public interface MigrationPlan {
+
+  /**
+   * Return the pending migrations in execution order.
+   */
+  List<Migration> migrations();
+
+  /**
+   * Return the total estimated duration in millis of all the pending migrations.
+   */
+  long estimatedMillis();
+
+  /**
+   * Return true if there are no pending migrations.
+   */
+  default boolean isEmpty() {
+    return migrations().isEmpty();
+  }
+
+  /**
+   * A pending migration in the plan.
+   */
+  interface Migration {
+
+    /**
+     * Return the migration resource.
+     */
+    MigrationResource resource();
+
+    /**
+     * Return the statements in execution order (non-transactional statements last).
+     * <p>
+     * This is empty for JDBC migrations.
+     */
+    List<Statement> statements();
+
+    /**
+     * Return true if any of the statements is lock heavy DDL.
+     */
+    boolean lockingDdl();
+
+    /**
+     * Return the estimated duration in millis.
+     * <p>
+     * This is the prior run time for a repeatable migration that has run before, otherwise
+     * the number of statements times the historical average run time per statement.
+     * Returns 0 when there is no history to base an estimate on.
+     */
+    long estimatedMillis();
+  }
+
+  /**
+   * A statement of a pending migration.
+   */
+  interface Statement {
+
+    /**
+     * Return the SQL statement (after placeholder replacement).
+     */
+    String sql();
+
+    /**
+     * Return true if the statement runs in the migration transaction. Non-transactional
+     * statements (like Postgres create index concurrently) run after the migration commit.
+     */
+    boolean transactional();
+
+    /**
+     * Return true if the statement is DDL that typically takes a heavy lock on the table
+     * (like alter table, create index without concurrently, drop table, truncate).
+     */
+    boolean lockingDdl();
+  }
+}
@@ -0,0 +1,69 @@
+package io.ebean.migration;
+
+import io.ebean.migration.runner.Checksum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Provides the migration scripts for a migration path from a custom source.
+ * <p>
+ * Providers are registered using {@link MigrationConfig#addResourceProvider(MigrationResourceProvider)}
+ * or via {@link java.util.ServiceLoader}. The providers are asked in order for the scripts of the migration
+ * path (and migration init path) and the scripts of the first provider supporting the path are used.
+ * <p>
+ * The built in providers follow the registered providers. These read the scripts of a single zip or jar
+ * archive file for paths prefixed with {@code archive:} (such as {@code archive:/opt/app/migrations.zip!dbmigration}),
+ * the file system for paths prefixed with {@code filesystem:} and otherwise the classpath.
+ */
+public interface MigrationResourceProvider {
+
+  /**
+   * Return the migration scripts for the migration path or null if the path is not supported.
+   *
+   * @param config The migration configuration (with the platform and base platform)
+   * @param path   The migration path or migration init path
+   */
+  List<Script> scripts(MigrationConfig config, String path);
+
+  /**
+   * Return the checksum of the script content as expected for {@link Script#checksum()}.
+   * <p>
+   * This is the CRC32 of the UTF-8 bytes of each line of the content excluding the line terminators.
+   */
+  static int checksum(String content) {
+    return Checksum.calculate(content);
+  }
+
+  /**
+   * A migration script with lazily read content.
+   */
+  interface Script {
+
+    /**
+     * Return the version (typically parsed from the script name using {@link MigrationVersion#parse(String)}).
+     */
+    MigrationVersion version();
+
+    /**
+     * Return the location of the script (used in logging and error messages).
+     */
+    String location();
+
+    /**
+     * Return the pre-computed checksum of the content or null to calculate it from the content.
+     * <p>
+     * This must be the checksum as calculated by {@link MigrationResourceProvider#checksum(String)}
+     * and is used by the fast mode check such that unchanged migrations do not need to be read.
+     */
+    Integer checksum();
+
+    /**
+     * Open the UTF-8 encoded content of the script.
+     * <p>
+     * This is only called when the script is run or when its checksum is not known.
+     */
+    InputStream open() throws IOException;
+  }
+}
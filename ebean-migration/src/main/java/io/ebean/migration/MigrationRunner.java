@@ -19,10 +19,26 @@ public class MigrationRunner {
 
   protected final MigrationConfig migrationConfig;
 
+  private volatile MigrationEngine.Prepared prepared;
+
   public MigrationRunner(MigrationConfig migrationConfig) {
     this.migrationConfig = migrationConfig;
   }
 
+  /**
+   * Read the local migrations and compute their checksums ahead of running the migrations.
+   * <p>
+   * Subsequent runs use the prepared migrations rather than reading the migration resources. With
+   * {@link MigrationConfig#isFastMode()} a run then only reads the migration table and compares it
+   * to the prepared checksums (running the migrations as normal when they differ).
+   * <p>
+   * This is intended for CRaC (Coordinated Restore at Checkpoint) where the migrations are prepared
+   * before the checkpoint and run against the live database after restore. See {@link MigrationCracResource}.
+   */
+  public void prepare() {
+    prepared = new MigrationEngine(migrationConfig, false).prepare();
+  }
+
   /**
    * Return the migrations that would be applied if the migration is run.
    */
@@ -51,18 +67,78 @@ public class MigrationRunner {
     return run(context, true);
   }
 
+  /**
+   * Return the dry run plan of the migrations that would be applied if the migration is run.
+   */
+  public MigrationPlan plan() {
+    return plan(migrationConfig.createConnection());
+  }
+
+  /**
+   * Return the dry run plan of the migrations that would be applied if the migration is run.
+   */
+  public MigrationPlan plan(DataSource dataSource) {
+    return plan(connection(dataSource));
+  }
+
+  /**
+   * Return the dry run plan of the migrations that would be applied if the migration is run.
+   * <p>
+   * This includes the statements of each migration noting non-transactional statements and
+   * lock heavy DDL along with an estimated duration based on the historical run times.
+   */
+  public MigrationPlan plan(Connection connection) {
+    return new MigrationEngine(migrationConfig, true).plan(connection);
+  }
+
+  /**
+   * Return the dry run plan of the migrations that would be applied if the migration is run.
+   */
+  public MigrationPlan plan(MigrationContext context) {
+    return new MigrationEngine(migrationConfig, true).plan(context);
+  }
+
+  /**
+   * Return the migration history with run time analytics.
+   */
+  public MigrationHistory history() {
+    return history(migrationConfig.createConnection());
+  }
+
+  /**
+   * Return the migration history with run time analytics.
+   */
+  public MigrationHistory history(DataSource dataSource) {
+    return history(connection(dataSource));
+  }
+
+  /**
+   * Return the migration history with run time analytics.
+   * <p>
+   * Note the connection will be closed.
+   */
+  public MigrationHistory history(Connection connection) {
+    return new MigrationEngine(migrationConfig, true).history(connection);
+  }
+
   /**
    * Run by creating a DB connection from driver, url, username defined in MigrationConfig.
+   * <p>
+   * With {@link MigrationConfig#isTemplateMode()} a database that does not exist is first
+   * created by cloning a fully migrated (Postgres) template database.
    */
   public void run() {
-    run(migrationConfig.createConnection());
+    if (migrationConfig.isTemplateMode()) {
+      new MigrationEngine(migrationConfig, false).createFromTemplate();
+    }
+    new MigrationEngine(migrationConfig, false, migrationConfig::createConnection).prepared(prepared).run(migrationConfig.createConnection());
   }
 
   /**
    * Run using the connection from the DataSource.
    */
   public void run(DataSource dataSource) {
-    run(connection(dataSource));
+    new MigrationEngine(migrationConfig, false, () -> connection(dataSource)).prepared(prepared).run(connection(dataSource));
   }
 
   /**
@@ -97,13 +173,13 @@ public class MigrationRunner {
    * Run the migrations if there are any that need running.
    */
   private List<MigrationResource> run(Connection connection, boolean checkStateOnly) {
-    return new MigrationEngine(migrationConfig, checkStateOnly).run(connection);
+    return new MigrationEngine(migrationConfig, checkStateOnly).prepared(prepared).run(connection);
   }
 
   /**
    * Run the migrations if there are any that need running.
    */
   private List<MigrationResource> run(MigrationContext context, boolean checkStateOnly) {
-    return new MigrationEngine(migrationConfig, checkStateOnly).run(context);
+    return new MigrationEngine(migrationConfig, checkStateOnly).prepared(prepared).run(context);
   }
 }
@@ -0,0 +1,42 @@
+package io.ebean.migration;
+
+/**
+ * Listener notified as each statement of a migration script executes.
+ * <p>
+ * This allows tooling to report the progress of long-running migrations and to
+ * tell progress apart from a stalled migration.
+ */
+public interface MigrationStatementListener {
+
+  /**
+   * A statement is about to execute.
+   *
+   * @param scriptName The name of the script like {@code run migration version: 1.2}
+   * @param ordinal    The ordinal of the statement in the script (starting at 1)
+   * @param total      The total number of statements in the script
+   * @param sql        The statement
+   */
+  default void statementStart(String scriptName, int ordinal, int total, String sql) {
+    // do nothing by default
+  }
+
+  /**
+   * A statement completed.
+   *
+   * @param elapsedMillis The execution time of the statement
+   * @param updateCount   The update count of the statement or -1 if not applicable
+   */
+  default void statementEnd(String scriptName, int ordinal, int total, String sql, long elapsedMillis, int updateCount) {
+    // do nothing by default
+  }
+
+  /**
+   * A statement is still executing. This is called periodically based on
+   * {@link MigrationConfig#getProgressSeconds()}.
+   *
+   * @param elapsedMillis The time elapsed since the statement started
+   */
+  default void statementProgress(String scriptName, int ordinal, int total, String sql, long elapsedMillis) {
+    // do nothing by default
+  }
+}
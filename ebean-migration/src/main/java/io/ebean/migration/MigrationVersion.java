@@ -188,6 +188,10 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
 
   /**
    * Parse the raw version string into a MigrationVersion.
+   * <p>
+   * The version part is parsed in a single pass without regex splitting or substring
+   * allocation. Sections are delimited by '.', '_' or '-' and parsing stops at the first
+   * non-numeric section (which is logged as a warning).
    */
   public static MigrationVersion parse(String raw) {
     if (raw.endsWith(".sql")) {
@@ -198,49 +202,95 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
     }
 
     String comment = "";
-    String value = raw;
-    int commentStart = raw.indexOf("__");
-    if (commentStart > -1) {
+    int end = raw.indexOf("__");
+    if (end > -1) {
       // trim off the trailing comment
-      comment = raw.substring(commentStart + 2);
-      value = value.substring(0, commentStart);
-    }
-
-    value = value.replace('_', '.');
-    String[] sections = value.split("[\\.-]");
-    if (sections[0].startsWith("R") || sections[0].startsWith("r")) {
-      // a "repeatable" version (does not have a version number)
-      return new MigrationVersion(raw, comment, false);
+      comment = raw.substring(end + 2);
+    } else {
+      end = raw.length();
     }
 
-    if (sections[0].startsWith("I") || sections[0].startsWith("i")) {
-      // this script will be executed before all other scripts
-      return new MigrationVersion(raw, comment, true);
+    if (end > 0) {
+      char first = raw.charAt(0);
+      if (first == 'R' || first == 'r') {
+        // a "repeatable" version (does not have a version number)
+        return new MigrationVersion(raw, comment, false);
+      }
+      if (first == 'I' || first == 'i') {
+        // this script will be executed before all other scripts
+        return new MigrationVersion(raw, comment, true);
+      }
     }
 
-    boolean[] underscores = new boolean[sections.length];
-    int[] ordering = new int[sections.length];
-    int delimiterPos = 0;
-    int stopIndex = 0;
-    for (int i = 0; i < sections.length; i++) {
-      try {
-        ordering[i] = Integer.parseInt(sections[i]);
-        stopIndex++;
-
-        delimiterPos += sections[i].length();
-        underscores[i] = (delimiterPos < raw.length() - 1 && raw.charAt(delimiterPos) == '_');
-        delimiterPos++;
-      } catch (NumberFormatException e) {
+    final int sections = sectionCount(raw, end);
+    int[] ordering = new int[sections];
+    boolean[] underscores = new boolean[sections];
+    int count = 0;
+    int start = 0;
+    while (count < sections) {
+      int pos = start;
+      while (pos < end && !isDelimiter(raw.charAt(pos))) {
+        pos++;
+      }
+      int value = parseSection(raw, start, pos);
+      if (value < 0) {
         // stop parsing
-        MigrationRunner.log.log(WARNING, "The migration script [{0}] contains non numeric version part. "
-          + "This may lead to mis-ordered version scripts. NumberFormatException {1}", raw, e.getMessage());
+        MigrationRunner.log.log(WARNING, "The migration script [{0}] contains non numeric version part [{1}]. "
+          + "This may lead to mis-ordered version scripts.", raw, raw.substring(start, pos));
         break;
       }
+      ordering[count] = value;
+      underscores[count] = (pos < raw.length() - 1 && raw.charAt(pos) == '_');
+      count++;
+      start = pos + 1;
     }
+    if (count < sections) {
+      ordering = Arrays.copyOf(ordering, count);
+      underscores = Arrays.copyOf(underscores, count);
+    }
+    return new MigrationVersion(raw, ordering, underscores, comment);
+  }
+
+  private static boolean isDelimiter(char ch) {
+    return ch == '.' || ch == '_' || ch == '-';
+  }
 
-    int[] actualOrder = Arrays.copyOf(ordering, stopIndex);
-    boolean[] actualUnderscores = Arrays.copyOf(underscores, stopIndex);
-    return new MigrationVersion(raw, actualOrder, actualUnderscores, comment);
+  /**
+   * Return the number of sections in the version part, ignoring trailing empty sections.
+   */
+  private static int sectionCount(String raw, int end) {
+    int last = end - 1;
+    while (last >= 0 && isDelimiter(raw.charAt(last))) {
+      last--;
+    }
+    int count = 1;
+    for (int i = 0; i < last; i++) {
+      if (isDelimiter(raw.charAt(i))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Parse the section as a non-negative int (same rules as Integer.parseInt) returning -1 when not valid.
+   */
+  private static int parseSection(String raw, int start, int end) {
+    if (start < end && raw.charAt(start) == '+') {
+      start++;
+    }
+    if (start >= end) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      int digit = Character.digit(raw.charAt(i), 10);
+      if (digit < 0 || result > (Integer.MAX_VALUE - digit) / 10) {
+        return -1;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
   }
 
   /**
@@ -0,0 +1,129 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+import io.ebean.migration.MigrationResourceProvider;
+import io.ebean.migration.MigrationVersion;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Provides the migration scripts of a single zip or jar archive file.
+ * <p>
+ * The migration path is the archive file optionally followed by {@code !} and the directory
+ * in the archive, for example {@code archive:/opt/app/migrations.zip!dbmigration}. As for the classpath
+ * the platform specific sub directories are used in preference. An archive file that does not exist
+ * is an error.
+ */
+final class ArchiveMigrationProvider implements MigrationResourceProvider {
+
+  static final String PREFIX = "archive:";
+
+  @Override
+  public List<Script> scripts(MigrationConfig config, String path) {
+    if (path == null || !path.startsWith(PREFIX)) {
+      return null;
+    }
+    final String archive = path.substring(PREFIX.length());
+    final int separator = archive.indexOf('!');
+    final Path file = Paths.get(separator < 0 ? archive : archive.substring(0, separator));
+    final String dir = separator < 0 ? "" : directory(archive.substring(separator + 1));
+    if (!Files.isRegularFile(file)) {
+      throw new MigrationException("Migration archive " + file + " not found for migration path " + path);
+    }
+    try (ZipFile zipFile = new ZipFile(file.toFile())) {
+      for (String platform : new String[]{config.getBasePlatform(), config.getPlatform()}) {
+        if (platform != null) {
+          final List<Script> scripts = scripts(file, zipFile, dir + platform + '/');
+          if (!scripts.isEmpty()) {
+            return scripts;
+          }
+        }
+      }
+      return scripts(file, zipFile, dir);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading migration archive " + file, e);
+    }
+  }
+
+  private static String directory(String dir) {
+    final String trimmed = dir.startsWith("/") ? dir.substring(1) : dir;
+    return trimmed.isEmpty() || trimmed.endsWith("/") ? trimmed : trimmed + '/';
+  }
+
+  private static List<Script> scripts(Path file, ZipFile zipFile, String dir) {
+    final List<Script> scripts = new ArrayList<>();
+    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    while (entries.hasMoreElements()) {
+      final ZipEntry entry = entries.nextElement();
+      final String name = entry.getName();
+      if (!entry.isDirectory() && name.startsWith(dir) && name.endsWith(".sql")) {
+        final String fileName = name.substring(name.lastIndexOf('/') + 1);
+        scripts.add(new ArchiveScript(file, name, MigrationVersion.parse(fileName.substring(0, fileName.length() - 4))));
+      }
+    }
+    return scripts;
+  }
+
+  /**
+   * A script entry of the archive (opening the archive to read the content).
+   */
+  private static final class ArchiveScript implements Script {
+
+    private final Path file;
+    private final String entryName;
+    private final MigrationVersion version;
+
+    ArchiveScript(Path file, String entryName, MigrationVersion version) {
+      this.file = file;
+      this.entryName = entryName;
+      this.version = version;
+    }
+
+    @Override
+    public MigrationVersion version() {
+      return version;
+    }
+
+    @Override
+    public String location() {
+      return file + "!" + entryName;
+    }
+
+    @Override
+    public Integer checksum() {
+      return null;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+      final ZipFile zipFile = new ZipFile(file.toFile());
+      final ZipEntry entry = zipFile.getEntry(entryName);
+      if (entry == null) {
+        zipFile.close();
+        throw new IOException("Entry " + entryName + " not found in " + file);
+      }
+      return new FilterInputStream(zipFile.getInputStream(entry)) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            zipFile.close();
+          }
+        }
+      };
+    }
+  }
+}
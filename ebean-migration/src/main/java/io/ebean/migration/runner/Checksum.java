@@ -3,18 +3,24 @@ package io.ebean.migration.runner;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.zip.CRC32;
 
 /**
  * Calculates the checksum for the given string content.
+ * <p>
+ * The checksum is the CRC32 of the UTF-8 bytes of each line excluding the line terminators.
  */
-final class Checksum {
+public final class Checksum {
+
+  private Checksum() {
+  }
 
   /**
    * Returns the checksum of the string content.
    */
-  static int calculate(String content) {
+  public static int calculate(String content) {
     final CRC32 crc32 = new CRC32();
     BufferedReader bufferedReader = new BufferedReader(new StringReader(content));
     try {
@@ -28,4 +34,32 @@ final class Checksum {
     }
     return (int) crc32.getValue();
   }
+
+  /**
+   * Returns the checksum of the UTF-8 encoded content without decoding it.
+   * <p>
+   * This matches the checksum of the decoded string content as the line terminators are
+   * excluded in both cases.
+   */
+  static int calculate(ByteBuffer content) {
+    final CRC32 crc32 = new CRC32();
+    final ByteBuffer line = content.duplicate();
+    final int end = content.limit();
+    int start = content.position();
+    for (int i = start; i < end; i++) {
+      final byte b = content.get(i);
+      if (b == '\n' || b == '\r') {
+        if (i > start) {
+          line.limit(i).position(start);
+          crc32.update(line);
+        }
+        start = i + 1;
+      }
+    }
+    if (start < end) {
+      line.limit(end).position(start);
+      crc32.update(line);
+    }
+    return (int) crc32.getValue();
+  }
 }
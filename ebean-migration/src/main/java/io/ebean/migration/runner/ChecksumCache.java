@@ -0,0 +1,139 @@
+package io.ebean.migration.runner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Local file cache of migration script checksums keyed by location and fingerprint.
+ * <p>
+ * Each line of the file is {@code fingerprint,checksum,location}. The cache is only
+ * an optimisation, if the file is missing or invalid all scripts are read as normal.
+ */
+final class ChecksumCache {
+
+  private static final System.Logger log = MigrationTable.log;
+
+  private final File file;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private boolean changed;
+
+  ChecksumCache(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Return the cache for the given file name or null if not configured.
+   */
+  static ChecksumCache of(String fileName) {
+    if (fileName == null || fileName.isEmpty()) {
+      return null;
+    }
+    ChecksumCache cache = new ChecksumCache(new File(fileName));
+    cache.load();
+    return cache;
+  }
+
+  /**
+   * Load the entries from the cache file if it exists.
+   */
+  void load() {
+    if (!file.isFile()) {
+      return;
+    }
+    try (var reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final int first = line.indexOf(',');
+        final int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second > 0) {
+          final long fingerprint = Long.parseLong(line.substring(0, first));
+          final int checksum = Integer.parseInt(line.substring(first + 1, second));
+          entries.put(line.substring(second + 1), new Entry(fingerprint, checksum));
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      log.log(WARNING, "Ignoring invalid checksum cache file " + file, e);
+      entries.clear();
+    }
+  }
+
+  /**
+   * Return the cached checksum for the location if the fingerprint matches, otherwise null.
+   */
+  Integer checksum(String location, long fingerprint) {
+    if (fingerprint == ResourceFingerprint.UNKNOWN) {
+      return null;
+    }
+    final Entry entry = entries.get(location);
+    return entry == null || entry.fingerprint != fingerprint ? null : entry.checksum;
+  }
+
+  /**
+   * Put the checksum for the location and fingerprint.
+   */
+  void put(String location, long fingerprint, int checksum) {
+    if (fingerprint == ResourceFingerprint.UNKNOWN) {
+      return;
+    }
+    final Entry entry = new Entry(fingerprint, checksum);
+    if (!entry.equals(entries.put(location, entry))) {
+      changed = true;
+    }
+  }
+
+  /**
+   * Save the cache file if entries have changed.
+   */
+  void save() {
+    if (!changed) {
+      return;
+    }
+    try (var writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+      for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+        writer.write(entry.getValue().fingerprint + "," + entry.getValue().checksum + "," + entry.getKey());
+        writer.newLine();
+      }
+      changed = false;
+      log.log(DEBUG, "saved checksum cache {0} entries:{1}", file, entries.size());
+    } catch (IOException e) {
+      log.log(WARNING, "Error writing checksum cache file " + file, e);
+    }
+  }
+
+  /**
+   * Return the number of entries in the cache.
+   */
+  int size() {
+    return entries.size();
+  }
+
+  private static final class Entry {
+
+    private final long fingerprint;
+    private final int checksum;
+
+    Entry(long fingerprint, int checksum) {
+      this.fingerprint = fingerprint;
+      this.checksum = checksum;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Entry)) {
+        return false;
+      }
+      Entry other = (Entry) obj;
+      return fingerprint == other.fingerprint && checksum == other.checksum;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(fingerprint) * 31 + checksum;
+    }
+  }
+}
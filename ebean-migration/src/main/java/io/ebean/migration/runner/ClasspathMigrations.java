@@ -0,0 +1,192 @@
+package io.ebean.migration.runner;
+
+import io.avaje.classpath.scanner.Resource;
+import io.avaje.classpath.scanner.core.Scanner;
+import io.ebean.migration.JdbcMigration;
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationVersion;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+/**
+ * Reads the migration scripts (and JDBC migrations) of a classpath migration path.
+ * <p>
+ * This supports any migration path and is the last of the sources. When the path contains an
+ * {@code idx_<platform>.migrations} index file the scripts listed in the index are used without
+ * scanning the classpath.
+ */
+final class ClasspathMigrations implements LocalMigrationSource {
+
+  private static final System.Logger log = MigrationSchema.log;
+
+  private final MigrationConfig migrationConfig;
+  private final ClassLoader classLoader;
+  private final ResourceFingerprints fingerprints;
+  private final boolean searchForJdbcMigrations;
+
+  ClasspathMigrations(MigrationConfig migrationConfig, ResourceFingerprints fingerprints) {
+    this.migrationConfig = migrationConfig;
+    this.classLoader = migrationConfig.getClassLoader();
+    this.fingerprints = fingerprints;
+    this.searchForJdbcMigrations = migrationConfig.getJdbcMigrationFactory() != null;
+  }
+
+  @Override
+  public List<LocalMigrationResource> read(String path, boolean index) {
+    final List<LocalMigrationResource> versions = new ArrayList<>();
+    if (index && readIndex(path, versions)) {
+      // automatically enable earlyChecksumMode when using index file with pre-computed checksums
+      migrationConfig.setEarlyChecksumMode(true);
+      return versions;
+    }
+    readPath(path, versions);
+    return versions;
+  }
+
+  private boolean readIndex(String path, List<LocalMigrationResource> versions) {
+    final var base = "/" + path + "/";
+    final var basePlatform = migrationConfig.getBasePlatform();
+    final var indexName = "idx_" + basePlatform + ".migrations";
+    var entries = MigrationIndex.entries(base + indexName);
+    if (entries != null) {
+      return addIndexEntries(entries, base, versions);
+    }
+    entries = MigrationIndex.entries(base + basePlatform + '/' + indexName);
+    if (entries != null) {
+      return addIndexEntries(entries, base + basePlatform + '/', versions);
+    }
+    final var platform = migrationConfig.getPlatform();
+    entries = MigrationIndex.entries(base + platform + indexName);
+    if (entries != null) {
+      return addIndexEntries(entries, base + platform + '/', versions);
+    }
+    return false;
+  }
+
+  private URL resource(String base) {
+    return ClasspathMigrations.class.getResource(base);
+  }
+
+  private boolean addIndexEntries(List<MigrationIndex.Entry> entries, String base, List<LocalMigrationResource> versions) {
+    for (MigrationIndex.Entry entry : entries) {
+      final var url = resource(base + entry.location);
+      versions.add(new LocalUriMigrationResource(entry.version, entry.location, url, entry.checksum));
+    }
+    return !versions.isEmpty();
+  }
+
+  private void readPath(String path, List<LocalMigrationResource> versions) {
+    // try to load from base platform first
+    final String basePlatform = migrationConfig.getBasePlatform();
+    if (basePlatform != null && loadedFrom(path, basePlatform, versions)) {
+      return;
+    }
+    // try to load from specific platform
+    final String platform = migrationConfig.getPlatform();
+    if (platform != null && loadedFrom(path, platform, versions)) {
+      return;
+    }
+    addResources(scanForBoth(path), versions);
+    Collections.sort(versions);
+  }
+
+  /**
+   * Return true if migrations were loaded from platform specific location.
+   */
+  private boolean loadedFrom(String path, String platform, List<LocalMigrationResource> versions) {
+    addResources(scanForBoth(path + "/" + platform), versions);
+    if (versions.isEmpty()) {
+      return false;
+    }
+    log.log(DEBUG, "platform migrations for {0}", platform);
+    if (searchForJdbcMigrations) {
+      addResources(scanForJdbcOnly(path), versions);
+    }
+    Collections.sort(versions);
+    return true;
+  }
+
+  /**
+   * Scan only for JDBC migrations.
+   */
+  private List<Resource> scanForJdbcOnly(String path) {
+    return new Scanner(classLoader).scanForResources(path, new JdbcOnly());
+  }
+
+  /**
+   * Scan for both SQL and JDBC migrations.
+   */
+  private List<Resource> scanForBoth(String path) {
+    return new Scanner(classLoader).scanForResources(path, new Match(searchForJdbcMigrations));
+  }
+
+  private void addResources(List<Resource> resourceList, List<LocalMigrationResource> versions) {
+    if (!resourceList.isEmpty()) {
+      log.log(DEBUG, "resources: {0}", resourceList);
+    }
+    for (Resource resource : resourceList) {
+      String filename = resource.name();
+      if (filename.endsWith(".sql")) {
+        versions.add(createScriptMigration(resource, filename));
+      } else if (searchForJdbcMigrations && filename.endsWith(".class")) {
+        versions.add(createJdbcMigration(resource, filename));
+      }
+    }
+  }
+
+  /**
+   * Return a programmatic JDBC migration.
+   */
+  private LocalMigrationResource createJdbcMigration(Resource resource, String filename) {
+    int pos = filename.lastIndexOf(".class");
+    String mainName = filename.substring(0, pos);
+    MigrationVersion migrationVersion = MigrationVersion.parse(mainName);
+    String className = resource.location().replace('/', '.');
+    className = className.substring(0, className.length() - 6);
+    JdbcMigration instance = migrationConfig.getJdbcMigrationFactory().createInstance(className);
+    return new LocalJdbcMigrationResource(migrationVersion, resource.location(), instance);
+  }
+
+  /**
+   * Create a script based migration.
+   */
+  private LocalMigrationResource createScriptMigration(Resource resource, String filename) {
+    int pos = filename.lastIndexOf(".sql");
+    String mainName = filename.substring(0, pos);
+    MigrationVersion migrationVersion = MigrationVersion.parse(mainName);
+    return new LocalDdlMigrationResource(migrationVersion, resource.location(), resource, fingerprints);
+  }
+
+  /**
+   * Filter used to find the migration scripts.
+   */
+  private static final class Match implements Predicate<String> {
+
+    private final boolean searchJdbc;
+
+    Match(boolean searchJdbc) {
+      this.searchJdbc = searchJdbc;
+    }
+
+    @Override
+    public boolean test(String name) {
+      return name.endsWith(".sql") || (searchJdbc && name.endsWith(".class") && !name.contains("$"));
+    }
+  }
+
+  /**
+   * Filter to find JDBC migrations only.
+   */
+  private static final class JdbcOnly implements Predicate<String> {
+    @Override
+    public boolean test(String name) {
+      return name.endsWith(".class") && !name.contains("$");
+    }
+  }
+}
@@ -9,6 +9,8 @@ import static java.lang.System.Logger.Level.WARNING;
  */
 class DbNameUtil implements DbPlatformNames {
 
+  private static final int ORACLE_FETCH_SIZE = 1000;
+
   /**
    * Normalise the database product/platform name.
    * <p>
@@ -70,7 +72,10 @@ class DbNameUtil implements DbPlatformNames {
       case MARIADB:
         return new MigrationPlatform.MySql();
       case ORACLE:
+        // Oracle JDBC defaults to fetching 10 rows per round trip
+        return new MigrationPlatform.LogicalLock(ORACLE_FETCH_SIZE, false);
       case H2:
+        return new MigrationPlatform.LogicalLock(0, false);
       case DB2:
         return new MigrationPlatform.LogicalLock();
       case POSTGRES:
@@ -0,0 +1,243 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationHistory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Default implementation of MigrationHistory read from the migration table.
+ */
+final class DefaultMigrationHistory implements MigrationHistory {
+
+  private static final String REPEAT_TYPE = "R";
+  private static final String INIT_TYPE = "I";
+
+  private final List<Entry> entries;
+
+  DefaultMigrationHistory(List<Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Read the history from the migration table.
+   */
+  static DefaultMigrationHistory read(MigrationPlatform platform, Connection connection, String sqlTable) throws SQLException {
+    final String sql = "select id, mtype, mversion, mcomment, run_on, run_by, run_time from " + sqlTable + " order by id";
+    List<Entry> entries = new ArrayList<>();
+    platform.readRows(connection, sql, row -> {
+      if (row.getInt(1) != 0) {
+        // exclude the <init> row
+        entries.add(new HistoryEntry(row));
+      }
+    });
+    return new DefaultMigrationHistory(entries);
+  }
+
+  @Override
+  public List<Entry> entries() {
+    return entries;
+  }
+
+  @Override
+  public List<Entry> slowest(int limit) {
+    List<Entry> sorted = new ArrayList<>(entries);
+    sorted.sort(comparingLong(Entry::runTime).reversed());
+    return sorted.subList(0, Math.min(limit, sorted.size()));
+  }
+
+  @Override
+  public List<Run> runs() {
+    Map<Timestamp, HistoryRun> runs = new TreeMap<>();
+    for (Entry entry : entries) {
+      runs.computeIfAbsent(entry.runOn(), HistoryRun::new).add(entry);
+    }
+    return new ArrayList<>(runs.values());
+  }
+
+  @Override
+  public List<Entry> rerunRepeatables() {
+    List<Entry> rerun = new ArrayList<>();
+    // earliest runOn of the entries that follow (by id)
+    Timestamp minFollowing = null;
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      final Entry entry = entries.get(i);
+      if (isRepeatable(entry) && minFollowing != null && entry.runOn().after(minFollowing)) {
+        rerun.add(entry);
+      }
+      if (minFollowing == null || entry.runOn().before(minFollowing)) {
+        minFollowing = entry.runOn();
+      }
+    }
+    rerun.sort(comparingLong(Entry::runTime).reversed());
+    return rerun;
+  }
+
+  @Override
+  public List<Entry> outliers() {
+    final int count = entries.size();
+    if (count < 2) {
+      return Collections.emptyList();
+    }
+    double sum = 0;
+    for (Entry entry : entries) {
+      sum += entry.runTime();
+    }
+    final double mean = sum / count;
+    double variance = 0;
+    for (Entry entry : entries) {
+      final double diff = entry.runTime() - mean;
+      variance += diff * diff;
+    }
+    final double threshold = mean + 3 * Math.sqrt(variance / count);
+    List<Entry> outliers = new ArrayList<>();
+    for (Entry entry : entries) {
+      if (entry.runTime() > threshold) {
+        outliers.add(entry);
+      }
+    }
+    outliers.sort(comparingLong(Entry::runTime).reversed());
+    return outliers;
+  }
+
+  @Override
+  public String report(int limit) {
+    StringBuilder sb = new StringBuilder(1000);
+    sb.append("Migrations: ").append(entries.size()).append('\n');
+    sb.append("\nSlowest migrations:\n");
+    for (Entry entry : slowest(limit)) {
+      appendEntry(sb, entry);
+    }
+    sb.append("\nMigration runs:\n");
+    List<Run> runs = runs();
+    for (Run run : runs.subList(Math.max(0, runs.size() - limit), runs.size())) {
+      sb.append("  ").append(run.runOn()).append("  migrations:").append(run.count())
+        .append("  totalMillis:").append(run.totalMillis()).append('\n');
+    }
+    sb.append("\nRe-run repeatable migrations:\n");
+    List<Entry> rerun = rerunRepeatables();
+    for (Entry entry : rerun.subList(0, Math.min(limit, rerun.size()))) {
+      appendEntry(sb, entry);
+    }
+    sb.append("\nOutliers:\n");
+    List<Entry> outliers = outliers();
+    for (Entry entry : outliers.subList(0, Math.min(limit, outliers.size()))) {
+      appendEntry(sb, entry);
+    }
+    return sb.toString();
+  }
+
+  private static boolean isRepeatable(Entry entry) {
+    return REPEAT_TYPE.equals(entry.type()) || INIT_TYPE.equals(entry.type());
+  }
+
+  private static void appendEntry(StringBuilder sb, Entry entry) {
+    sb.append("  ").append(entry.type()).append(' ').append(entry.version());
+    if (!isRepeatable(entry)) {
+      sb.append("__").append(entry.comment());
+    }
+    sb.append("  runTime:").append(entry.runTime()).append("ms  runOn:").append(entry.runOn()).append('\n');
+  }
+
+  static final class HistoryEntry implements Entry {
+
+    private final int id;
+    private final String type;
+    private final String version;
+    private final String comment;
+    private final Timestamp runOn;
+    private final String runBy;
+    private final long runTime;
+
+    HistoryEntry(ResultSet row) throws SQLException {
+      this.id = row.getInt(1);
+      this.type = row.getString(2);
+      this.version = row.getString(3);
+      this.comment = row.getString(4);
+      this.runOn = row.getTimestamp(5);
+      this.runBy = row.getString(6);
+      this.runTime = row.getLong(7);
+    }
+
+    @Override
+    public int id() {
+      return id;
+    }
+
+    @Override
+    public String type() {
+      return type;
+    }
+
+    @Override
+    public String version() {
+      return version;
+    }
+
+    @Override
+    public String comment() {
+      return comment;
+    }
+
+    @Override
+    public Timestamp runOn() {
+      return runOn;
+    }
+
+    @Override
+    public String runBy() {
+      return runBy;
+    }
+
+    @Override
+    public long runTime() {
+      return runTime;
+    }
+
+    @Override
+    public String toString() {
+      return "id:" + id + " type:" + type + " version:" + version + " runTime:" + runTime;
+    }
+  }
+
+  static final class HistoryRun implements Run {
+
+    private final Timestamp runOn;
+    private int count;
+    private long totalMillis;
+
+    HistoryRun(Timestamp runOn) {
+      this.runOn = runOn;
+    }
+
+    void add(Entry entry) {
+      count++;
+      totalMillis += entry.runTime();
+    }
+
+    @Override
+    public Timestamp runOn() {
+      return runOn;
+    }
+
+    @Override
+    public int count() {
+      return count;
+    }
+
+    @Override
+    public long totalMillis() {
+      return totalMillis;
+    }
+
+    @Override
+    public String toString() {
+      return "runOn:" + runOn + " count:" + count + " totalMillis:" + totalMillis;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationPlan;
+import io.ebean.migration.MigrationResource;
+
+import java.util.List;
+
+/**
+ * Default implementation of MigrationPlan.
+ */
+final class DefaultMigrationPlan implements MigrationPlan {
+
+  private final List<Migration> migrations;
+  private final long estimatedMillis;
+
+  DefaultMigrationPlan(List<Migration> migrations) {
+    this.migrations = migrations;
+    this.estimatedMillis = migrations.stream().mapToLong(Migration::estimatedMillis).sum();
+  }
+
+  @Override
+  public List<Migration> migrations() {
+    return migrations;
+  }
+
+  @Override
+  public long estimatedMillis() {
+    return estimatedMillis;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(200);
+    sb.append("MigrationPlan migrations:").append(migrations.size()).append(" estimatedMillis:").append(estimatedMillis);
+    for (Migration migration : migrations) {
+      sb.append("\n  ").append(migration);
+    }
+    return sb.toString();
+  }
+
+  static final class PlanMigration implements Migration {
+
+    private final MigrationResource resource;
+    private final List<Statement> statements;
+    private final boolean lockingDdl;
+    private final long estimatedMillis;
+
+    PlanMigration(MigrationResource resource, List<Statement> statements, long estimatedMillis) {
+      this.resource = resource;
+      this.statements = statements;
+      this.lockingDdl = statements.stream().anyMatch(Statement::lockingDdl);
+      this.estimatedMillis = estimatedMillis;
+    }
+
+    @Override
+    public MigrationResource resource() {
+      return resource;
+    }
+
+    @Override
+    public List<Statement> statements() {
+      return statements;
+    }
+
+    @Override
+    public boolean lockingDdl() {
+      return lockingDdl;
+    }
+
+    @Override
+    public long estimatedMillis() {
+      return estimatedMillis;
+    }
+
+    @Override
+    public String toString() {
+      return resource.location() + " statements:" + statements.size() + " lockingDdl:" + lockingDdl + " estimatedMillis:" + estimatedMillis;
+    }
+  }
+
+  static final class PlanStatement implements Statement {
+
+    private final String sql;
+    private final boolean transactional;
+    private final boolean lockingDdl;
+
+    PlanStatement(String sql, boolean transactional, boolean lockingDdl) {
+      this.sql = sql;
+      this.transactional = transactional;
+      this.lockingDdl = lockingDdl;
+    }
+
+    @Override
+    public String sql() {
+      return sql;
+    }
+
+    @Override
+    public boolean transactional() {
+      return transactional;
+    }
+
+    @Override
+    public boolean lockingDdl() {
+      return lockingDdl;
+    }
+
+    @Override
+    public String toString() {
+      return sql;
+    }
+  }
+}
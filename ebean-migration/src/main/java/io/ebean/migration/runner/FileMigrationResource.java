@@ -0,0 +1,84 @@
+package io.ebean.migration.runner;
+
+import io.avaje.classpath.scanner.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A migration script on the file system.
+ * <p>
+ * The content is read into a heap buffer closing the file immediately (rather than memory mapping
+ * the file which holds the mapping, and on Windows a lock on the file, until it is garbage collected).
+ */
+final class FileMigrationResource implements Resource {
+
+  private final Path file;
+  private final Integer checksum;
+
+  /**
+   * Create with the known checksum of the content (from an index file) or null.
+   */
+  FileMigrationResource(Path file, Integer checksum) {
+    this.file = file;
+    this.checksum = checksum;
+  }
+
+  @Override
+  public String location() {
+    return file.toString();
+  }
+
+  @Override
+  public String name() {
+    return file.getFileName().toString();
+  }
+
+  @Override
+  public String toString() {
+    return location();
+  }
+
+  @Override
+  public InputStream inputStream() {
+    try {
+      return Files.newInputStream(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + file, e);
+    }
+  }
+
+  @Override
+  public List<String> loadAsLines(Charset charset) {
+    return new BufferedReader(new StringReader(loadAsString(charset))).lines().collect(Collectors.toList());
+  }
+
+  @Override
+  public String loadAsString(Charset charset) {
+    return charset.decode(read()).toString();
+  }
+
+  /**
+   * Return the checksum of the content (calculated from the bytes without decoding unless known from an index file).
+   */
+  int checksum() {
+    return checksum != null ? checksum : Checksum.calculate(read());
+  }
+
+  private ByteBuffer read() {
+    try {
+      return ByteBuffer.wrap(Files.readAllBytes(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + file, e);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationVersion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+/**
+ * Reads the migration scripts of a {@code filesystem:} migration path.
+ * <p>
+ * The platform specific sub directories are used in preference. The directory is walked in parallel
+ * (a fork join task per sub directory) or when the directory contains an {@code idx_<platform>.migrations}
+ * index file the scripts listed in the index are used without walking the directory. Directory symbolic links are followed once (by real path) such
+ * that a link loop does not recurse.
+ */
+final class FileSystemMigrations implements LocalMigrationSource {
+
+  private static final System.Logger log = MigrationSchema.log;
+
+  static final String PREFIX = "filesystem:";
+
+  private final MigrationConfig migrationConfig;
+  private final ResourceFingerprints fingerprints;
+
+  FileSystemMigrations(MigrationConfig migrationConfig, ResourceFingerprints fingerprints) {
+    this.migrationConfig = migrationConfig;
+    this.fingerprints = fingerprints;
+  }
+
+  @Override
+  public List<LocalMigrationResource> read(String path, boolean index) {
+    if (!isFileSystem(path)) {
+      return null;
+    }
+    final Path dir = dir(path);
+    if (index) {
+      final List<LocalMigrationResource> indexed = readIndex(dir);
+      if (indexed != null && !indexed.isEmpty()) {
+        // automatically enable earlyChecksumMode when using index file with pre-computed checksums
+        migrationConfig.setEarlyChecksumMode(true);
+        return indexed;
+      }
+    }
+    return readDir(dir);
+  }
+
+  /**
+   * Return the migrations of the index file in the directory or platform sub directory (null if there is no index file).
+   */
+  private List<LocalMigrationResource> readIndex(Path dir) {
+    final String basePlatform = migrationConfig.getBasePlatform();
+    if (basePlatform == null) {
+      return null;
+    }
+    final String indexName = "idx_" + basePlatform + ".migrations";
+    List<LocalMigrationResource> indexed = index(dir.resolve(indexName));
+    if (indexed == null) {
+      indexed = index(dir.resolve(basePlatform).resolve(indexName));
+    }
+    final String platform = migrationConfig.getPlatform();
+    if (indexed == null && platform != null) {
+      indexed = index(dir.resolve(platform).resolve(indexName));
+    }
+    return indexed;
+  }
+
+  /**
+   * Return the scripts of the directory trying the platform specific directories first.
+   */
+  private List<LocalMigrationResource> readDir(Path dir) {
+    final String basePlatform = migrationConfig.getBasePlatform();
+    List<LocalMigrationResource> found = basePlatform == null ? List.of() : walk(dir.resolve(basePlatform));
+    final String platform = migrationConfig.getPlatform();
+    if (found.isEmpty() && platform != null) {
+      found = walk(dir.resolve(platform));
+    }
+    if (found.isEmpty()) {
+      found = walk(dir);
+    }
+    log.log(DEBUG, "file system migrations:{0} in {1}", found.size(), dir);
+    final List<LocalMigrationResource> versions = new ArrayList<>(found);
+    Collections.sort(versions);
+    return versions;
+  }
+
+  /**
+   * Return true if the migration path is a file system path.
+   */
+  static boolean isFileSystem(String path) {
+    return path != null && path.startsWith(PREFIX);
+  }
+
+  /**
+   * Return the directory of the file system migration path.
+   */
+  static Path dir(String path) {
+    return Paths.get(path.substring(PREFIX.length()));
+  }
+
+  /**
+   * Return the migrations of the index file or null if the index file does not exist.
+   */
+  List<LocalMigrationResource> index(Path idx) {
+    if (!Files.isRegularFile(idx)) {
+      return null;
+    }
+    final List<MigrationIndex.Entry> entries;
+    try {
+      entries = MigrationIndex.read(idx.toUri().toURL());
+    } catch (MalformedURLException e) {
+      throw new UncheckedIOException("Error reading idx file " + idx, e);
+    }
+    final Path dir = idx.getParent();
+    final List<LocalMigrationResource> versions = new ArrayList<>(entries.size());
+    for (MigrationIndex.Entry entry : entries) {
+      final var resource = new FileMigrationResource(dir.resolve(entry.location), entry.checksum);
+      versions.add(new LocalDdlMigrationResource(entry.version, resource.location(), resource, fingerprints));
+    }
+    return versions;
+  }
+
+  /**
+   * Return the migration scripts in the directory and its sub directories (empty if the directory does not exist).
+   */
+  List<LocalMigrationResource> walk(Path dir) {
+    if (!Files.isDirectory(dir) || !Files.isReadable(dir)) {
+      return List.of();
+    }
+    // a dedicated pool as the tasks block on IO
+    final ForkJoinPool pool = new ForkJoinPool(Math.min(4, Runtime.getRuntime().availableProcessors()));
+    try {
+      return pool.invoke(new Walk(dir, fingerprints, ConcurrentHashMap.newKeySet()));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Lists a directory forking a task per sub directory.
+   */
+  private static final class Walk extends RecursiveTask<List<LocalMigrationResource>> {
+
+    private final Path dir;
+    private final ResourceFingerprints fingerprints;
+    private final Set<Path> visited;
+
+    Walk(Path dir, ResourceFingerprints fingerprints, Set<Path> visited) {
+      this.dir = dir;
+      this.fingerprints = fingerprints;
+      this.visited = visited;
+    }
+
+    @Override
+    protected List<LocalMigrationResource> compute() {
+      final List<Walk> subDirs = new ArrayList<>();
+      final List<LocalMigrationResource> versions = new ArrayList<>();
+      try {
+        if (!visited.add(dir.toRealPath())) {
+          // already walked via another (symbolic) link
+          return versions;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Error reading migration directory " + dir, e);
+      }
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+        for (Path path : stream) {
+          final String name = path.getFileName().toString();
+          if (Files.isDirectory(path)) {
+            if (Files.isReadable(path)) {
+              Walk walk = new Walk(path, fingerprints, visited);
+              walk.fork();
+              subDirs.add(walk);
+            }
+          } else if (name.endsWith(".sql")) {
+            final var version = MigrationVersion.parse(name.substring(0, name.length() - 4));
+            final var resource = new FileMigrationResource(path, null);
+            versions.add(new LocalDdlMigrationResource(version, resource.location(), resource, fingerprints));
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Error reading migration directory " + dir, e);
+      }
+      for (Walk walk : subDirs) {
+        versions.addAll(walk.join());
+      }
+      return versions;
+    }
+  }
+}
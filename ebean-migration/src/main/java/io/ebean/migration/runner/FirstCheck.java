@@ -6,8 +6,7 @@ import io.ebean.migration.MigrationContext;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * First initial check to see if migrations exist and exactly match.
@@ -20,6 +19,7 @@ final class FirstCheck {
   final String schema;
   final String table;
   final String sqlTable;
+  final ChecksumCache checksumCache;
   boolean tableKnownToExist;
   private int count;
 
@@ -30,29 +30,33 @@ final class FirstCheck {
     this.schema = config.getDbSchema();
     this.table = config.getMetaTable();
     this.sqlTable = schema != null ? schema + '.' + table : table;
+    this.checksumCache = ChecksumCache.of(config.getChecksumCacheFile());
   }
 
-  MigrationTable initTable(boolean checkStateOnly) {
-    return new MigrationTable(this, checkStateOnly);
+  MigrationTable initTable(boolean checkStateOnly, Supplier<Connection> connectionSupplier) {
+    return new MigrationTable(this, checkStateOnly, connectionSupplier);
   }
 
   boolean fastModeCheck(List<LocalMigrationResource> versions) {
     try {
-      final List<MigrationMetaRow> rows = fastRead();
+      final MigrationMetaMap rows = fastRead();
       tableKnownToExist = !rows.isEmpty();
+      if (rows.hasDuplicateKeys()) {
+        // duplicate version rows, leave it to the full check
+        return false;
+      }
       if (rows.size() != versions.size() + 1) {
         // difference in count of migrations
         return false;
       }
-      final Map<String, Integer> dbChecksums = dbChecksumMap(rows);
       for (LocalMigrationResource local : versions) {
-        Integer dbChecksum = dbChecksums.get(local.key());
-        if (dbChecksum == null) {
+        int index = rows.indexOf(local.key());
+        if (index < 0) {
           // no match, unexpected missing migration
           return false;
         }
         int localChecksum = checksumFor(local);
-        if (localChecksum != dbChecksum) {
+        if (localChecksum != rows.checksumAt(index)) {
           // no match, perhaps repeatable migration change
           return false;
         }
@@ -66,21 +70,48 @@ final class FirstCheck {
     }
   }
 
-  private static Map<String, Integer> dbChecksumMap(List<MigrationMetaRow> rows) {
-    return rows.stream().collect(Collectors.toMap(MigrationMetaRow::version, MigrationMetaRow::checksum));
-  }
-
   private int checksumFor(LocalMigrationResource local) {
     if (local instanceof LocalUriMigrationResource) {
       return ((LocalUriMigrationResource) local).checksum();
     } else if (local instanceof LocalDdlMigrationResource) {
-      return Checksum.calculate(local.content());
+      return contentChecksum((LocalDdlMigrationResource) local);
     } else {
       return ((LocalJdbcMigrationResource) local).checksum();
     }
   }
 
-  List<MigrationMetaRow> fastRead() throws SQLException {
+  /**
+   * Return the checksum of the script content using the prepared checksum or the checksum cache
+   * when the fingerprint is unchanged and otherwise reading the content.
+   */
+  private int contentChecksum(LocalDdlMigrationResource local) {
+    final Integer prepared = local.preparedChecksum();
+    if (prepared != null) {
+      return prepared;
+    }
+    if (checksumCache == null) {
+      return local.contentChecksum();
+    }
+    final long fingerprint = local.fingerprint();
+    final Integer cached = checksumCache.checksum(local.location(), fingerprint);
+    if (cached != null) {
+      return cached;
+    }
+    final int checksum = local.contentChecksum();
+    checksumCache.put(local.location(), fingerprint, checksum);
+    return checksum;
+  }
+
+  /**
+   * Save the checksum cache (if used and changed).
+   */
+  void saveChecksumCache() {
+    if (checksumCache != null) {
+      checksumCache.save();
+    }
+  }
+
+  MigrationMetaMap fastRead() throws SQLException {
     return platform.fastReadMigrations(sqlTable, context.connection());
   }
 
@@ -0,0 +1,156 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Snapshot of a migrated H2 database used to initialise empty (typically in-memory) H2 databases.
+ * <p>
+ * The snapshot is saved using H2 {@code SCRIPT TO} after migrating an empty database and restored
+ * using {@code RUNSCRIPT FROM}. It is keyed by a hash of the migrations such that a new snapshot is
+ * saved when the migrations change. The hash is only computed (reading the migrations) when the
+ * database is empty.
+ */
+final class H2Snapshot {
+
+  private static final System.Logger log = MigrationEngine.log;
+
+  private final MigrationConfig config;
+  private final List<LocalMigrationResource> versions;
+  private final String schema;
+  private Path file;
+  private boolean save;
+
+  private H2Snapshot(MigrationConfig config, List<LocalMigrationResource> versions) {
+    this.config = config;
+    this.versions = versions;
+    this.schema = config.getDbSchema();
+  }
+
+  /**
+   * Return the snapshot for the migrations or null if snapshots are not used.
+   */
+  static H2Snapshot of(MigrationConfig config, boolean checkStateOnly, List<LocalMigrationResource> versions) {
+    final String dir = config.getSnapshotDir();
+    if (dir == null || dir.isEmpty() || checkStateOnly || !DbPlatformNames.H2.equals(config.getPlatform())) {
+      return null;
+    }
+    return new H2Snapshot(config, versions);
+  }
+
+  /**
+   * Return the snapshot file name for the given migrations hash.
+   */
+  static String fileName(String hash) {
+    return "migration-snapshot-" + hash + ".sql";
+  }
+
+  /**
+   * Return the snapshot file (keyed by the hash of the migrations).
+   */
+  Path file() {
+    if (file == null) {
+      final String hash = MigrationsHash.hash(MigrationsHash.of(config, versions) + ':' + config.getMetaTable() + ':' + schema);
+      file = Paths.get(config.getSnapshotDir(), fileName(hash));
+    }
+    return file;
+  }
+
+  /**
+   * Restore the snapshot if the database is empty and the snapshot exists.
+   * <p>
+   * When the database is empty and the snapshot does not exist the snapshot is saved by
+   * {@link #saveIfNeeded(Connection)} after the migrations have run.
+   *
+   * @return True if the snapshot was restored
+   */
+  boolean restoreIfEmpty(Connection connection) {
+    try {
+      if (!isEmpty(connection)) {
+        return false;
+      }
+      final Path file = file();
+      if (!Files.isRegularFile(file)) {
+        save = true;
+        return false;
+      }
+      long start = System.currentTimeMillis();
+      execute(connection, "runscript from " + quote(file));
+      connection.commit();
+      log.log(INFO, "DB migrations restored from snapshot {0} in {1}ms", file, System.currentTimeMillis() - start);
+      return true;
+    } catch (SQLException e) {
+      MigrationEngine.rollback(connection);
+      throw new MigrationException("Error restoring DB migration snapshot " + (file != null ? file : config.getSnapshotDir()), e);
+    }
+  }
+
+  /**
+   * Save the snapshot if the migrations ran on an empty database and the snapshot does not exist.
+   * <p>
+   * Failing to save the snapshot is logged and otherwise ignored.
+   */
+  void saveIfNeeded(Connection connection) {
+    if (!save) {
+      return;
+    }
+    Path temp = null;
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      temp = Files.createTempFile(file.toAbsolutePath().getParent(), "migration-snapshot", ".tmp");
+      execute(connection, "script to " + quote(temp));
+      // another test may be saving the same snapshot concurrently
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      log.log(INFO, "DB migration snapshot saved to {0}", file);
+    } catch (IOException | SQLException e) {
+      log.log(WARNING, "Error saving DB migration snapshot " + file, e);
+      deleteQuietly(temp);
+    }
+  }
+
+  /**
+   * Return true if there are no tables in the schema.
+   */
+  private boolean isEmpty(Connection connection) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    String checkSchema = schema != null ? schema.toUpperCase() : connection.getSchema();
+    try (ResultSet tables = metaData.getTables(null, checkSchema, "%", new String[]{"TABLE"})) {
+      return !tables.next();
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static String quote(Path path) {
+    return "'" + path.toAbsolutePath().toString().replace("'", "''") + "'";
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path != null) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        log.log(WARNING, "Error deleting " + path, e);
+      }
+    }
+  }
+}
@@ -12,13 +12,53 @@ import java.util.List;
 final class LocalDdlMigrationResource extends LocalMigrationResource {
 
   private final Resource resource;
+  private final ResourceFingerprints fingerprints;
+  private long fingerprint = ResourceFingerprint.UNKNOWN;
+  private Integer checksum;
 
   /**
    * Construct with version and resource.
    */
-  LocalDdlMigrationResource(MigrationVersion version, String location, Resource resource) {
+  LocalDdlMigrationResource(MigrationVersion version, String location, Resource resource, ResourceFingerprints fingerprints) {
     super(version, location);
     this.resource = resource;
+    this.fingerprints = fingerprints;
+  }
+
+  /**
+   * Return the fingerprint of the resource (determined lazily without reading the content).
+   */
+  long fingerprint() {
+    if (fingerprint == ResourceFingerprint.UNKNOWN && fingerprints != null) {
+      fingerprint = fingerprints.of(location);
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Compute and retain the checksum of the content such that a fast mode check does not read the content.
+   */
+  void prepareChecksum() {
+    checksum = contentChecksum();
+  }
+
+  /**
+   * Return the prepared checksum of the content or null if it has not been prepared.
+   */
+  Integer preparedChecksum() {
+    return checksum;
+  }
+
+  /**
+   * Return the checksum of the content (without decoding the content for file system scripts or using the checksum of provided scripts).
+   */
+  int contentChecksum() {
+    if (resource instanceof FileMigrationResource) {
+      return ((FileMigrationResource) resource).checksum();
+    } else if (resource instanceof ProvidedResource) {
+      return ((ProvidedResource) resource).checksum();
+    }
+    return Checksum.calculate(content());
   }
 
   /**
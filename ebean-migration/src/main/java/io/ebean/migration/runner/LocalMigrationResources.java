@@ -1,17 +1,12 @@
 package io.ebean.migration.runner;
 
-import io.avaje.classpath.scanner.Resource;
-import io.avaje.classpath.scanner.core.Scanner;
-import io.ebean.migration.JdbcMigration;
 import io.ebean.migration.MigrationConfig;
-import io.ebean.migration.MigrationVersion;
+import io.ebean.migration.MigrationResourceProvider;
 
-import java.io.*;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.ServiceLoader;
 
 import static java.lang.System.Logger.Level.DEBUG;
 
@@ -25,7 +20,7 @@ final class LocalMigrationResources {
   private final List<LocalMigrationResource> versions = new ArrayList<>();
   private final MigrationConfig migrationConfig;
   private final ClassLoader classLoader;
-  private final boolean searchForJdbcMigrations;
+  private final ResourceFingerprints fingerprints;
 
   /**
    * Construct with configuration options.
@@ -33,190 +28,89 @@ final class LocalMigrationResources {
   LocalMigrationResources(MigrationConfig migrationConfig) {
     this.migrationConfig = migrationConfig;
     this.classLoader = migrationConfig.getClassLoader();
-    this.searchForJdbcMigrations = migrationConfig.getJdbcMigrationFactory() != null;
+    this.fingerprints = new ResourceFingerprints(classLoader);
   }
 
   /**
    * Read the init migration resources (usually only 1) returning true if there are versions.
    */
   boolean readInitResources() {
-    return readResourcesForPath(migrationConfig.getMigrationInitPath());
+    return read(migrationConfig.getMigrationInitPath(), false);
   }
 
   /**
    * Read all the migration resources (SQL scripts) returning true if there are versions.
    */
   boolean readResources() {
-    if (readFromIndex()) {
-      // automatically enable earlyChecksumMode when using index file with pre-computed checksums
-      migrationConfig.setEarlyChecksumMode(true);
-      return true;
-    }
-    return readResourcesForPath(migrationConfig.getMigrationPath());
-  }
-
-  private boolean readFromIndex() {
-    final var base = "/" + migrationConfig.getMigrationPath() + "/";
-    final var basePlatform = migrationConfig.getBasePlatform();
-    final var indexName = "idx_" + basePlatform + ".migrations";
-    URL idx = resource(base + indexName);
-    if (idx != null) {
-      return loadFromIndexFile(idx, base);
-    }
-    idx = resource(base + basePlatform + '/' + indexName);
-    if (idx != null) {
-      return loadFromIndexFile(idx, base + basePlatform + '/');
-    }
-    final var platform = migrationConfig.getPlatform();
-    idx = resource(base + platform + indexName);
-    if (idx != null) {
-      return loadFromIndexFile(idx, base + platform + '/');
-    }
-    return false;
-  }
-
-  private URL resource(String base) {
-    return LocalMigrationResources.class.getResource(base);
+    return read(migrationConfig.getMigrationPath(), true);
   }
 
-  private boolean loadFromIndexFile(URL idx, String base) {
-    try (var reader = new LineNumberReader(new InputStreamReader(idx.openStream()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (!line.isEmpty()) {
-          final String[] pair = line.split(",");
-          if (pair.length == 2) {
-            final var checksum = Integer.parseInt(pair[0]);
-            final var location = pair[1].trim();
-            final var substring = location.substring(0, location.length() - 4);
-            final var version = MigrationVersion.parse(substring);
-            final var url = resource(base + location);
-            versions.add(new LocalUriMigrationResource(version, location, url, checksum));
-          }
-        }
+  /**
+   * Read the migrations of the first source supporting the path returning true if there are versions.
+   */
+  private boolean read(String path, boolean index) {
+    for (LocalMigrationSource source : sources()) {
+      final List<LocalMigrationResource> found = source.read(path, index);
+      if (found != null) {
+        versions.addAll(found);
+        return !versions.isEmpty();
       }
-
-      return !versions.isEmpty();
-
-    } catch (IOException e) {
-      throw new UncheckedIOException("Error reading idx file", e);
-    }
-  }
-
-  private boolean readResourcesForPath(String path) {
-    // try to load from base platform first
-    final String basePlatform = migrationConfig.getBasePlatform();
-    if (basePlatform != null && loadedFrom(path, basePlatform)) {
-      return true;
-    }
-    // try to load from specific platform
-    final String platform = migrationConfig.getPlatform();
-    if (platform != null && loadedFrom(path, platform)) {
-      return true;
     }
-    addResources(scanForBoth(path));
-    Collections.sort(versions);
-    return !versions.isEmpty();
+    return false;
   }
 
   /**
-   * Return true if migrations were loaded from platform specific location.
+   * Return the registered providers, the providers found via ServiceLoader and the built in
+   * archive, file system and classpath sources (the classpath supporting any path).
    */
-  private boolean loadedFrom(String path, String platform) {
-    addResources(scanForBoth(path + "/" + platform));
-    if (versions.isEmpty()) {
-      return false;
+  private List<LocalMigrationSource> sources() {
+    final List<LocalMigrationSource> sources = new ArrayList<>();
+    for (MigrationResourceProvider provider : migrationConfig.getResourceProviders()) {
+      sources.add(provided(provider));
     }
-    log.log(DEBUG, "platform migrations for {0}", platform);
-    if (searchForJdbcMigrations) {
-      addResources(scanForJdbcOnly(path));
+    for (MigrationResourceProvider provider : ServiceLoader.load(MigrationResourceProvider.class, classLoader)) {
+      sources.add(provided(provider));
     }
-    Collections.sort(versions);
-    return true;
+    sources.add(provided(new ArchiveMigrationProvider()));
+    sources.add(new FileSystemMigrations(migrationConfig, fingerprints));
+    sources.add(new ClasspathMigrations(migrationConfig, fingerprints));
+    return sources;
   }
 
   /**
-   * Scan only for JDBC migrations.
+   * Return the source of the scripts of a provider.
    */
-  private List<Resource> scanForJdbcOnly(String path) {
-    return new Scanner(classLoader).scanForResources(path, new JdbcOnly());
+  private LocalMigrationSource provided(MigrationResourceProvider provider) {
+    return (path, index) -> {
+      final List<MigrationResourceProvider.Script> scripts = provider.scripts(migrationConfig, path);
+      if (scripts == null) {
+        return null;
+      }
+      log.log(DEBUG, "provided migrations:{0} for {1}", scripts.size(), path);
+      final List<LocalMigrationResource> provided = new ArrayList<>(scripts.size());
+      for (MigrationResourceProvider.Script script : scripts) {
+        provided.add(new LocalDdlMigrationResource(script.version(), script.location(), new ProvidedResource(script), null));
+      }
+      Collections.sort(provided);
+      return provided;
+    };
   }
 
   /**
-   * Scan for both SQL and JDBC migrations.
+   * Compute and retain the checksums of the script migrations.
    */
-  private List<Resource> scanForBoth(String path) {
-    return new Scanner(classLoader).scanForResources(path, new Match(searchForJdbcMigrations));
-  }
-
-  private void addResources(List<Resource> resourceList) {
-    if (!resourceList.isEmpty()) {
-      log.log(DEBUG, "resources: {0}", resourceList);
-    }
-    for (Resource resource : resourceList) {
-      String filename = resource.name();
-      if (filename.endsWith(".sql")) {
-        versions.add(createScriptMigration(resource, filename));
-      } else if (searchForJdbcMigrations && filename.endsWith(".class")) {
-        versions.add(createJdbcMigration(resource, filename));
+  void prepareChecksums() {
+    for (LocalMigrationResource version : versions) {
+      if (version instanceof LocalDdlMigrationResource) {
+        ((LocalDdlMigrationResource) version).prepareChecksum();
       }
     }
   }
 
-  /**
-   * Return a programmatic JDBC migration.
-   */
-  private LocalMigrationResource createJdbcMigration(Resource resource, String filename) {
-    int pos = filename.lastIndexOf(".class");
-    String mainName = filename.substring(0, pos);
-    MigrationVersion migrationVersion = MigrationVersion.parse(mainName);
-    String className = resource.location().replace('/', '.');
-    className = className.substring(0, className.length() - 6);
-    JdbcMigration instance = migrationConfig.getJdbcMigrationFactory().createInstance(className);
-    return new LocalJdbcMigrationResource(migrationVersion, resource.location(), instance);
-  }
-
-  /**
-   * Create a script based migration.
-   */
-  private LocalMigrationResource createScriptMigration(Resource resource, String filename) {
-    int pos = filename.lastIndexOf(".sql");
-    String mainName = filename.substring(0, pos);
-    MigrationVersion migrationVersion = MigrationVersion.parse(mainName);
-    return new LocalDdlMigrationResource(migrationVersion, resource.location(), resource);
-  }
-
   /**
    * Return the list of migration resources in version order.
    */
   List<LocalMigrationResource> versions() {
     return versions;
   }
-
-  /**
-   * Filter used to find the migration scripts.
-   */
-  private static final class Match implements Predicate<String> {
-
-    private final boolean searchJdbc;
-
-    Match(boolean searchJdbc) {
-      this.searchJdbc = searchJdbc;
-    }
-
-    @Override
-    public boolean test(String name) {
-      return name.endsWith(".sql") || (searchJdbc && name.endsWith(".class") && !name.contains("$"));
-    }
-  }
-
-  /**
-   * Filter to find JDBC migrations only.
-   */
-  private static final class JdbcOnly implements Predicate<String> {
-    @Override
-    public boolean test(String name) {
-      return name.endsWith(".class") && !name.contains("$");
-    }
-  }
 }
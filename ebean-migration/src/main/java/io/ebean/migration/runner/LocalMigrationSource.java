@@ -0,0 +1,20 @@
+package io.ebean.migration.runner;
+
+import java.util.List;
+
+/**
+ * Reads the local migrations of a migration path.
+ * <p>
+ * The sources are asked in order (the custom and ServiceLoader providers then the built in archive,
+ * file system and classpath sources) and the migrations of the first source supporting the path are used.
+ */
+interface LocalMigrationSource {
+
+  /**
+   * Return the migrations of the path in execution order or null if the path is not supported.
+   *
+   * @param path  The migration path or migration init path
+   * @param index True to use the index file of the path when it exists (not used for the init path)
+   */
+  List<LocalMigrationResource> read(String path, boolean index);
+}
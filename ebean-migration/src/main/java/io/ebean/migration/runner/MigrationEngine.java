@@ -4,11 +4,14 @@ import io.avaje.applog.AppLog;
 import io.ebean.migration.MigrationConfig;
 import io.ebean.migration.MigrationContext;
 import io.ebean.migration.MigrationException;
+import io.ebean.migration.MigrationHistory;
+import io.ebean.migration.MigrationPlan;
 import io.ebean.migration.MigrationResource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static java.lang.System.Logger.Level.*;
 import static java.lang.System.Logger.Level.WARNING;
@@ -24,14 +27,52 @@ public class MigrationEngine {
   private final MigrationConfig migrationConfig;
   private final boolean checkStateOnly;
   private final boolean fastMode;
+  private final Supplier<Connection> connectionSupplier;
+  private Prepared prepared;
 
   /**
    * Create with the MigrationConfig.
    */
   public MigrationEngine(MigrationConfig migrationConfig, boolean checkStateOnly) {
+    this(migrationConfig, checkStateOnly, null);
+  }
+
+  /**
+   * Create with the MigrationConfig and a supplier of additional connections.
+   * <p>
+   * The additional connections are used to execute repeatable migrations in parallel
+   * when {@link MigrationConfig#getRepeatableThreads()} is greater than 1.
+   */
+  public MigrationEngine(MigrationConfig migrationConfig, boolean checkStateOnly, Supplier<Connection> connectionSupplier) {
     this.migrationConfig = migrationConfig;
     this.checkStateOnly = checkStateOnly;
     this.fastMode = !checkStateOnly && migrationConfig.isFastMode();
+    this.connectionSupplier = connectionSupplier;
+  }
+
+  /**
+   * Read the local migrations and compute their checksums ahead of running the migrations.
+   * <p>
+   * The result is used with {@link #prepared(Prepared)} such that running the migrations does not
+   * read the migration resources. For example, prepare before a CRaC checkpoint and run after restore.
+   */
+  public Prepared prepare() {
+    LocalMigrationResources resources = new LocalMigrationResources(migrationConfig);
+    final boolean found = resources.readResources() || resources.readInitResources();
+    resources.prepareChecksums();
+    final Prepared prepared = new Prepared(resources, found);
+    // read the init migrations now such that running after restore does not scan for them
+    prepared.initVersion(migrationConfig);
+    log.log(DEBUG, "prepared migrations:{0}", resources.versions().size());
+    return prepared;
+  }
+
+  /**
+   * Use the prepared local migrations when running.
+   */
+  public MigrationEngine prepared(Prepared prepared) {
+    this.prepared = prepared;
+    return this;
   }
 
   /**
@@ -51,10 +92,24 @@ public class MigrationEngine {
    * Run the migrations if there are any that need running. (Does not close connection)
    */
   public List<MigrationResource> run(MigrationContext context) {
+    return run(context, System.currentTimeMillis(), local());
+  }
 
-    long startMs = System.currentTimeMillis();
-    LocalMigrationResources resources = new LocalMigrationResources(migrationConfig);
-    if (!resources.readResources() && !resources.readInitResources()) {
+  /**
+   * Return the prepared local migrations or otherwise read them.
+   */
+  private Prepared local() {
+    if (prepared != null) {
+      return prepared;
+    }
+    final LocalMigrationResources resources = new LocalMigrationResources(migrationConfig);
+    final boolean found = resources.readResources() || resources.readInitResources();
+    return new Prepared(resources, found);
+  }
+
+  private List<MigrationResource> run(MigrationContext context, long startMs, Prepared local) {
+    final LocalMigrationResources resources = local.resources;
+    if (!local.found) {
       log.log(DEBUG, "no migrations to check");
       return emptyList();
     }
@@ -62,8 +117,13 @@ public class MigrationEngine {
     var connection = context.connection();
     long splitMs = System.currentTimeMillis() - startMs;
     final var platform = derivePlatform(migrationConfig, connection);
+    final var snapshot = H2Snapshot.of(migrationConfig, checkStateOnly, resources.versions());
+    if (snapshot != null) {
+      snapshot.restoreIfEmpty(connection);
+    }
     final var firstCheck = new FirstCheck(migrationConfig, context, platform);
     if (fastMode && firstCheck.fastModeCheck(resources.versions())) {
+      firstCheck.saveChecksumCache();
       long checkMs = System.currentTimeMillis() - startMs;
       log.log(INFO, "DB migrations completed in {0}ms - totalMigrations:{1} readResources:{2}ms", checkMs, firstCheck.count(), splitMs);
       return emptyList();
@@ -72,9 +132,11 @@ public class MigrationEngine {
     setAutoCommitFalse(connection);
 
     final MigrationTable table = initialiseMigrationTable(firstCheck, connection);
+    final List<MigrationResource> result;
     try {
-      List<MigrationResource> result = runMigrations(table, resources.versions());
+      result = runMigrations(table, resources.versions(), local);
       connection.commit();
+      firstCheck.saveChecksumCache();
       if (!checkStateOnly) {
         long commitMs = System.currentTimeMillis();
         log.log(INFO, "DB migrations completed in {0}ms - executed:{1} totalMigrations:{2} mode:{3}", (commitMs - startMs), table.count(), table.size(), table.mode());
@@ -83,7 +145,6 @@ public class MigrationEngine {
           log.log(INFO, "Non-transactional DB migrations completed in {0}ms - executed:{1}", (System.currentTimeMillis() - commitMs), countNonTransactional);
         }
       }
-      return result;
     } catch (MigrationException e) {
       rollback(connection);
       throw e;
@@ -94,6 +155,73 @@ public class MigrationEngine {
     } finally {
       table.unlockMigrationTable();
     }
+    if (snapshot != null) {
+      // after unlocking such that the snapshot does not hold the lock
+      snapshot.saveIfNeeded(connection);
+    }
+    return result;
+  }
+
+  /**
+   * Return the dry run plan of the migrations that would be applied.
+   *
+   * @param connection the connection to run on. Note the connection will be closed.
+   */
+  public MigrationPlan plan(Connection connection) {
+    try {
+      return plan(new DefaultMigrationContext(migrationConfig, connection));
+    } finally {
+      close(connection);
+    }
+  }
+
+  /**
+   * Return the dry run plan of the migrations that would be applied. (Does not close connection)
+   * <p>
+   * This is expected to be used with checkStateOnly true.
+   */
+  public MigrationPlan plan(MigrationContext context) {
+    final Prepared local = local();
+    final List<MigrationResource> pending = run(context, System.currentTimeMillis(), local);
+    final var connection = context.connection();
+    final var platform = derivePlatform(migrationConfig, connection);
+    final var firstCheck = new FirstCheck(migrationConfig, context, platform);
+    try {
+      return new MigrationPlanner(migrationConfig, platform, firstCheck.sqlTable).plan(connection, pending, local.resources.versions());
+    } catch (SQLException e) {
+      throw new MigrationException("Error reading migration history for plan", e);
+    } finally {
+      rollback(connection);
+    }
+  }
+
+  /**
+   * Read the migration history from the migration table.
+   *
+   * @param connection the connection to read the history with. Note the connection will be closed.
+   */
+  public MigrationHistory history(Connection connection) {
+    try {
+      final var context = new DefaultMigrationContext(migrationConfig, connection);
+      final var platform = derivePlatform(migrationConfig, connection);
+      final var firstCheck = new FirstCheck(migrationConfig, context, platform);
+      return DefaultMigrationHistory.read(platform, connection, firstCheck.sqlTable);
+    } catch (SQLException e) {
+      throw new MigrationException("Error reading migration history", e);
+    } finally {
+      close(connection);
+    }
+  }
+
+  /**
+   * Create the Postgres database by cloning a fully migrated template database if the database does not exist.
+   * <p>
+   * The template database is keyed by a hash of the migrations and is created and migrated when needed.
+   *
+   * @return True if the database was created from the template
+   */
+  public boolean createFromTemplate() {
+    return new PostgresTemplate(migrationConfig).createIfNeeded();
   }
 
   private static void setAutoCommitFalse(Connection connection) {
@@ -106,7 +234,7 @@ public class MigrationEngine {
 
   private MigrationTable initialiseMigrationTable(FirstCheck firstCheck, Connection connection) {
     try {
-      final MigrationTable table = firstCheck.initTable(checkStateOnly);
+      final MigrationTable table = firstCheck.initTable(checkStateOnly, connectionSupplier);
       table.createIfNeededAndLock();
       return table;
     } catch (Throwable e) {
@@ -118,10 +246,10 @@ public class MigrationEngine {
   /**
    * Run all the migrations as needed.
    */
-  private List<MigrationResource> runMigrations(MigrationTable table, List<LocalMigrationResource> localVersions) throws SQLException {
+  private List<MigrationResource> runMigrations(MigrationTable table, List<LocalMigrationResource> localVersions, Prepared local) throws SQLException {
     // get the migrations in version order
     if (table.isEmpty()) {
-      LocalMigrationResource initVersion = lastInitVersion();
+      LocalMigrationResource initVersion = local.initVersion(migrationConfig);
       if (initVersion != null) {
         // run using a dbinit script
         log.log(INFO, "dbinit migration version:{0}  local migrations:{1}  checkState:{2}", initVersion, localVersions.size(), checkStateOnly);
@@ -131,32 +259,18 @@ public class MigrationEngine {
     return table.runAll(localVersions);
   }
 
-  /**
-   * Return the last init migration.
-   */
-  private LocalMigrationResource lastInitVersion() {
-    LocalMigrationResources initResources = new LocalMigrationResources(migrationConfig);
-    if (initResources.readInitResources()) {
-      List<LocalMigrationResource> initVersions = initResources.versions();
-      if (!initVersions.isEmpty()) {
-        return initVersions.get(initVersions.size() - 1);
-      }
-    }
-    return null;
-  }
-
   /**
    * Return the platform deriving from connection if required.
    */
   private MigrationPlatform derivePlatform(MigrationConfig migrationConfig, Connection connection) {
     final String platform = migrationConfig.getPlatform();
     if (platform != null) {
-      return DbNameUtil.platform(platform);
+      return DbNameUtil.platform(platform).configure(migrationConfig);
     }
     // determine the platform from the db connection
     String derivedPlatformName = DbNameUtil.normalise(connection);
     migrationConfig.setPlatform(derivedPlatformName);
-    return DbNameUtil.platform(derivedPlatformName);
+    return DbNameUtil.platform(derivedPlatformName).configure(migrationConfig);
   }
 
   /**
@@ -184,4 +298,44 @@ public class MigrationEngine {
       log.log(WARNING, "Error on connection rollback", e);
     }
   }
+
+  /**
+   * Local migrations read with checksums computed ahead of running the migrations.
+   */
+  public static final class Prepared {
+
+    private final LocalMigrationResources resources;
+    private final boolean found;
+    private LocalMigrationResource initVersion;
+    private boolean initRead;
+
+    private Prepared(LocalMigrationResources resources, boolean found) {
+      this.resources = resources;
+      this.found = found;
+    }
+
+    /**
+     * Return the last init migration (reading the init migrations once).
+     */
+    private synchronized LocalMigrationResource initVersion(MigrationConfig config) {
+      if (!initRead) {
+        initRead = true;
+        LocalMigrationResources initResources = new LocalMigrationResources(config);
+        if (initResources.readInitResources()) {
+          List<LocalMigrationResource> initVersions = initResources.versions();
+          if (!initVersions.isEmpty()) {
+            initVersion = initVersions.get(initVersions.size() - 1);
+          }
+        }
+      }
+      return initVersion;
+    }
+
+    /**
+     * Return the number of local migrations.
+     */
+    public int size() {
+      return resources.versions().size();
+    }
+  }
 }
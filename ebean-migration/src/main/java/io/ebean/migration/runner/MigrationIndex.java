@@ -0,0 +1,127 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationVersion;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parsed entries of {@code idx_<platform>.migrations} index files.
+ * <p>
+ * For GraalVM native images this class is initialised at image build time (see
+ * {@code META-INF/native-image/.../native-image.properties}). The index files found in the migration
+ * paths are then parsed by the image builder and the entries (versions, checksums and locations) are
+ * part of the image heap such that the native image does not read or parse the index files at startup.
+ * <p>
+ * The migration paths read at build time default to {@code dbmigration} and can be set (comma delimited)
+ * using the {@code ebean.migration.nativePaths} system property of the image builder, for example
+ * {@code -Debean.migration.nativePaths=dbmigration,dbmigration-extra}.
+ */
+final class MigrationIndex {
+
+  private static final List<String> PLATFORMS = List.of(
+    DbPlatformNames.POSTGRES, DbPlatformNames.MYSQL, DbPlatformNames.MARIADB, DbPlatformNames.ORACLE,
+    DbPlatformNames.SQLSERVER, DbPlatformNames.DB2, DbPlatformNames.H2, DbPlatformNames.HSQL,
+    DbPlatformNames.SQLITE, DbPlatformNames.SQLANYWHERE, DbPlatformNames.COCKROACH);
+
+  /**
+   * Index entries keyed by resource path that were read at native image build time.
+   */
+  private static final Map<String, List<Entry>> BUILD_TIME = buildTimeEntries();
+
+  private MigrationIndex() {
+  }
+
+  private static Map<String, List<Entry>> buildTimeEntries() {
+    if (!"buildtime".equals(System.getProperty("org.graalvm.nativeimage.imagecode"))) {
+      return Collections.emptyMap();
+    }
+    return load(List.of(System.getProperty("ebean.migration.nativePaths", "dbmigration").split(",")));
+  }
+
+  /**
+   * Read the index files of the known platforms for the given migration paths.
+   */
+  static Map<String, List<Entry>> load(List<String> migrationPaths) {
+    Map<String, List<Entry>> map = new HashMap<>();
+    for (String migrationPath : migrationPaths) {
+      final String base = "/" + migrationPath.trim() + "/";
+      for (String platform : PLATFORMS) {
+        final String indexName = "idx_" + platform + ".migrations";
+        readInto(map, base + indexName);
+        readInto(map, base + platform + '/' + indexName);
+      }
+    }
+    return Collections.unmodifiableMap(map);
+  }
+
+  private static void readInto(Map<String, List<Entry>> map, String path) {
+    final URL idx = MigrationIndex.class.getResource(path);
+    if (idx != null) {
+      map.put(path, read(idx));
+    }
+  }
+
+  /**
+   * Return the entries of the index file at the given resource path or null if there is no such index file.
+   * <p>
+   * Entries read at native image build time are returned without reading the index file.
+   */
+  static List<Entry> entries(String path) {
+    final List<Entry> entries = BUILD_TIME.get(path);
+    if (entries != null) {
+      return entries;
+    }
+    final URL idx = MigrationIndex.class.getResource(path);
+    return idx == null ? null : read(idx);
+  }
+
+  /**
+   * Read and parse the entries of the index file.
+   */
+  static List<Entry> read(URL idx) {
+    try (var reader = new LineNumberReader(new InputStreamReader(idx.openStream()))) {
+      List<Entry> entries = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          final String[] pair = line.split(",");
+          if (pair.length == 2) {
+            final var checksum = Integer.parseInt(pair[0]);
+            final var location = pair[1].trim();
+            final var version = MigrationVersion.parse(location.substring(0, location.length() - 4));
+            entries.add(new Entry(version, location, checksum));
+          }
+        }
+      }
+      return Collections.unmodifiableList(entries);
+
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading idx file", e);
+    }
+  }
+
+  /**
+   * An entry of the index file.
+   */
+  static final class Entry {
+
+    final MigrationVersion version;
+    final String location;
+    final int checksum;
+
+    Entry(MigrationVersion version, String location, int checksum) {
+      this.version = version;
+      this.location = location;
+      this.checksum = checksum;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package io.ebean.migration.runner;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Compact open addressing map of migration version (key) to checksum and id.
+ * <p>
+ * Filled directly from the migration table ResultSet without creating a
+ * MigrationMetaRow per row. Uses linear probing over parallel arrays.
+ */
+final class MigrationMetaMap {
+
+  private String[] keys;
+  private int[] checksums;
+  private int[] ids;
+  private int size;
+  private int mask;
+  private boolean duplicateKeys;
+
+  MigrationMetaMap() {
+    this(64);
+  }
+
+  MigrationMetaMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+    init(capacity);
+  }
+
+  private void init(int capacity) {
+    this.keys = new String[capacity];
+    this.checksums = new int[capacity];
+    this.ids = new int[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Read the row with columns of id, checksum and version.
+   */
+  void read(ResultSet row) throws SQLException {
+    final int id = row.getInt(1);
+    final int checksum = row.getInt(2);
+    final String version = row.getString(3);
+    put(version, checksum, id);
+  }
+
+  /**
+   * Put the checksum and id for the given key (replacing any existing entry
+   * and noting the duplicate key).
+   */
+  void put(String key, int checksum, int id) {
+    if ((size + 1) * 2 > keys.length) {
+      resize();
+    }
+    int slot = slot(key);
+    if (keys[slot] == null) {
+      keys[slot] = key;
+      size++;
+    } else {
+      duplicateKeys = true;
+    }
+    checksums[slot] = checksum;
+    ids[slot] = id;
+  }
+
+  /**
+   * Return the slot index for the key or -1 if the key is not in the map.
+   */
+  int indexOf(String key) {
+    int slot = slot(key);
+    return keys[slot] == null ? -1 : slot;
+  }
+
+  /**
+   * Return the checksum at the given slot index.
+   */
+  int checksumAt(int index) {
+    return checksums[index];
+  }
+
+  /**
+   * Return the id at the given slot index.
+   */
+  int idAt(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Return true if the key is in the map.
+   */
+  boolean contains(String key) {
+    return indexOf(key) > -1;
+  }
+
+  /**
+   * Return true if a key was put more than once (duplicate version rows in the migration table).
+   */
+  boolean hasDuplicateKeys() {
+    return duplicateKeys;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  private int slot(String key) {
+    final int hash = key.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (keys[slot] != null && !keys[slot].equals(key)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize() {
+    final String[] oldKeys = keys;
+    final int[] oldChecksums = checksums;
+    final int[] oldIds = ids;
+    init(oldKeys.length << 1);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        checksums[slot] = oldChecksums[i];
+        ids[slot] = oldIds[i];
+      }
+    }
+  }
+}
@@ -45,17 +45,6 @@ final class MigrationMetaRow {
     checksum = row.getInt(4);
   }
 
-  private MigrationMetaRow(int checksum, String version) {
-    this.checksum = checksum;
-    this.version = version;
-  }
-
-  static MigrationMetaRow fastRead(ResultSet row) throws SQLException {
-    final var checksum = row.getInt(1);
-    final var version = row.getString(2);
-    return new MigrationMetaRow(checksum, version);
-  }
-
   @Override
   public String toString() {
     return "id:" + id + " type:" + type + " checksum:" + checksum + " version:" + version;
@@ -135,6 +124,13 @@ final class MigrationMetaRow {
     return "update " + table + " set mchecksum=? where id = ?";
   }
 
+  /**
+   * Set the execution time of a migration recorded after the row was created.
+   */
+  void setRunTime(long runTime) {
+    this.runTime = runTime;
+  }
+
   void rerun(int checksum, long exeMillis, String envUserName, Timestamp runOn) {
     this.checksum = checksum;
     this.runTime = exeMillis;
@@ -142,22 +138,22 @@ final class MigrationMetaRow {
     this.runOn = runOn;
   }
 
-  void executeUpdate(Connection connection, String updateSql) throws SQLException {
-    try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+  void executeUpdate(MigrationPlatform platform, Connection connection, String updateSql) throws SQLException {
+    try (PreparedStatement statement = platform.prepareStatement(connection, updateSql)) {
       bindUpdate(statement);
       statement.executeUpdate();
     }
   }
 
-  void executeInsert(Connection connection, String insertSql) throws SQLException {
-    try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+  void executeInsert(MigrationPlatform platform, Connection connection, String insertSql) throws SQLException {
+    try (PreparedStatement statement = platform.prepareStatement(connection, insertSql)) {
       bindInsert(statement);
       statement.executeUpdate();
     }
   }
 
-  void resetChecksum(int newChecksum, Connection connection, String updateChecksumSql) throws SQLException {
-    try (PreparedStatement statement = connection.prepareStatement(updateChecksumSql)) {
+  void resetChecksum(int newChecksum, MigrationPlatform platform, Connection connection, String updateChecksumSql) throws SQLException {
+    try (PreparedStatement statement = platform.prepareStatement(connection, updateChecksumSql)) {
       statement.setInt(1, newChecksum);
       statement.setInt(2, id);
       statement.executeUpdate();
@@ -0,0 +1,122 @@
+package io.ebean.migration.runner;
+
+import io.ebean.ddlrunner.DdlParser;
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationPlan;
+import io.ebean.migration.MigrationResource;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Builds the dry run MigrationPlan for the pending migrations.
+ */
+final class MigrationPlanner {
+
+  /**
+   * The maximum number of prior migrations used to determine the average run time per statement.
+   */
+  private static final int MAX_SAMPLE = 100;
+
+  private final MigrationPlatform platform;
+  private final String sqlTable;
+  private final PlaceholderTransform scriptTransform;
+  private final Map<String, Long> runTimes = new HashMap<>();
+
+  MigrationPlanner(MigrationConfig config, MigrationPlatform platform, String sqlTable) {
+    this.platform = platform;
+    this.sqlTable = sqlTable;
+    this.scriptTransform = PlaceholderTransform.build(config.getRunPlaceholders(), config.getRunPlaceholderMap());
+  }
+
+  /**
+   * Return the plan for the given pending migrations.
+   *
+   * @param versions The local migrations (already read) used to determine the average run time per statement
+   */
+  MigrationPlan plan(Connection connection, List<MigrationResource> pending, List<LocalMigrationResource> versions) throws SQLException {
+    if (pending.isEmpty()) {
+      return new DefaultMigrationPlan(Collections.emptyList());
+    }
+    readRunTimes(connection);
+    final double millisPerStatement = millisPerStatement(versions);
+    List<MigrationPlan.Migration> migrations = new ArrayList<>(pending.size());
+    for (MigrationResource resource : pending) {
+      List<MigrationPlan.Statement> statements = statements(resource);
+      migrations.add(new DefaultMigrationPlan.PlanMigration(resource, statements, estimate(resource, statements, millisPerStatement)));
+    }
+    return new DefaultMigrationPlan(migrations);
+  }
+
+  private void readRunTimes(Connection connection) throws SQLException {
+    platform.readRows(connection, "select mversion, run_time from " + sqlTable, row -> runTimes.put(row.getString(1), row.getLong(2)));
+  }
+
+  private long estimate(MigrationResource resource, List<MigrationPlan.Statement> statements, double millisPerStatement) {
+    final Long priorRunTime = runTimes.get(resource.key());
+    if (priorRunTime != null) {
+      // repeatable migration that has run before
+      return priorRunTime;
+    }
+    return Math.round(statements.size() * millisPerStatement);
+  }
+
+  /**
+   * Return the average run time per statement based on the most recent versioned migrations.
+   */
+  private double millisPerStatement(List<LocalMigrationResource> versions) {
+    long totalMillis = 0;
+    int totalStatements = 0;
+    int sampled = 0;
+    for (int i = versions.size() - 1; i >= 0 && sampled < MAX_SAMPLE; i--) {
+      final LocalMigrationResource local = versions.get(i);
+      final Long runTime = runTimes.get(local.key());
+      if (runTime != null && !local.isRepeatable() && !(local instanceof LocalJdbcMigrationResource)) {
+        totalMillis += runTime;
+        totalStatements += statements(local).size();
+        sampled++;
+      }
+    }
+    return totalStatements == 0 ? 0 : (double) totalMillis / totalStatements;
+  }
+
+  private List<MigrationPlan.Statement> statements(MigrationResource resource) {
+    if (resource instanceof LocalJdbcMigrationResource) {
+      return Collections.emptyList();
+    }
+    final DdlParser parser = new DdlParser(platform.ddlDetect());
+    final List<String> transactional = parser.parse(new StringReader(scriptTransform.transform(resource.content())));
+    final List<String> nonTransactional = parser.nonTransactional();
+    List<MigrationPlan.Statement> statements = new ArrayList<>(transactional.size() + nonTransactional.size());
+    for (String sql : transactional) {
+      statements.add(new DefaultMigrationPlan.PlanStatement(sql, true, lockingDdl(sql)));
+    }
+    for (String sql : nonTransactional) {
+      statements.add(new DefaultMigrationPlan.PlanStatement(sql, false, lockingDdl(sql)));
+    }
+    return statements;
+  }
+
+  /**
+   * Return true if the statement is DDL that typically takes a heavy (exclusive) lock on a table.
+   */
+  static boolean lockingDdl(String sql) {
+    final String lower = sql.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    if (lower.contains(" concurrently ")) {
+      return false;
+    }
+    return lower.startsWith("alter table")
+      || lower.startsWith("create index")
+      || lower.startsWith("create unique index")
+      || lower.startsWith("drop index")
+      || lower.startsWith("drop table")
+      || lower.startsWith("truncate")
+      || lower.startsWith("lock table")
+      || lower.startsWith("rename table")
+      || lower.startsWith("reindex")
+      || lower.startsWith("cluster")
+      || lower.startsWith("vacuum full");
+  }
+}
@@ -1,11 +1,12 @@
 package io.ebean.migration.runner;
 
 import io.ebean.ddlrunner.DdlDetect;
+import io.ebean.migration.MigrationConfig;
 import io.ebean.migration.MigrationException;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 import static java.lang.System.Logger.Level.*;
 
@@ -19,13 +20,75 @@ class MigrationPlatform {
 
   private static final String BASE_SELECT_ID = "select id from ";
   private static final String BASE_SELECT = "select id, mtype, mversion, mchecksum from ";
-  private static final String SELECT_FAST_READ = "select mchecksum, mversion from ";
+  private static final String SELECT_FAST_READ = "select id, mchecksum, mversion from ";
+  private static final String ORDER_BY_ID = " order by id";
 
   /**
    * Standard row locking for db migration table.
    */
   String forUpdateSuffix = " order by id for update";
 
+  /**
+   * Row locking of only the init row (id=0) of the db migration table.
+   */
+  String forUpdateInitRowSuffix = " where id = 0 for update";
+
+  /**
+   * When false DDL implicitly commits such that a failed migration can not be rolled back.
+   */
+  boolean transactionalDdl = true;
+
+  /**
+   * When true only lock the init row rather than all rows in the migration table.
+   */
+  boolean lockInitRowOnly;
+
+  /**
+   * The JDBC fetch size used when reading the migration table (0 for the driver default).
+   */
+  int fetchSize;
+
+  /**
+   * The JDBC query timeout in seconds for migration table queries (0 for no timeout).
+   */
+  int queryTimeout;
+
+  /**
+   * Callback for each row read from the migration table.
+   */
+  @FunctionalInterface
+  interface RowReader {
+
+    /**
+     * Read the current row of the ResultSet.
+     */
+    void read(ResultSet resultSet) throws SQLException;
+  }
+
+  /**
+   * Apply configuration options like the fetch size.
+   */
+  MigrationPlatform configure(MigrationConfig config) {
+    if (config.getFetchSize() > 0) {
+      this.fetchSize = config.getFetchSize();
+    }
+    if (config.getQueryTimeout() > 0) {
+      this.queryTimeout = config.getQueryTimeout();
+    }
+    this.lockInitRowOnly = config.isLockInitRowOnly();
+    return this;
+  }
+
+  /**
+   * Execute a statement of a migration script returning the update count.
+   */
+  int executeStatement(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+      return statement.getUpdateCount();
+    }
+  }
+
   /**
    * Return the DdlAutoCommit to use for this platform.
    */
@@ -37,6 +100,19 @@ class MigrationPlatform {
     // do nothing by default for select for update case
   }
 
+  /**
+   * Lock the migration table again after an intermediate commit returning true if the lock
+   * was released by the commit.
+   * <p>
+   * Transaction scoped locks are released by the commit so by default the lock is obtained again.
+   * As another process could have run migrations while the lock was released the migration table
+   * must then be read again.
+   */
+  boolean relockMigrationTable(String sqlTable, Connection connection) throws SQLException {
+    lockMigrationTable(sqlTable, connection);
+    return true;
+  }
+
   /**
    * Lock the migration table. The base implementation uses row locking but lock table would be preferred when available.
    */
@@ -48,6 +124,9 @@ class MigrationPlatform {
       }
       backoff(attempt);
     }
+    if (lockInitRowOnly) {
+      throw new IllegalStateException("Failed to obtain row lock on migration table due to missing <init> row with id 0?");
+    }
     throw new IllegalStateException("Failed to obtain row locks on migration table due to it being empty?");
   }
 
@@ -66,26 +145,21 @@ class MigrationPlatform {
   }
 
   private int lockRows(String sqlTable, Connection connection) throws SQLException {
-    int rowCount = 0;
-    try (Statement query = connection.createStatement()) {
-      try (ResultSet resultSet = query.executeQuery(sqlSelectForUpdate(sqlTable))) {
-        while (resultSet.next()) {
-          resultSet.getInt(1);
-          rowCount++;
-        }
-      }
-    }
-    return rowCount;
+    final int[] rowCount = {0};
+    readRows(connection, sqlSelectForUpdate(sqlTable), resultSet -> {
+      resultSet.getInt(1);
+      rowCount[0]++;
+    });
+    return rowCount[0];
   }
 
-  List<MigrationMetaRow> fastReadMigrations(String sqlTable, Connection connection) throws SQLException {
-    List<MigrationMetaRow> rows = new ArrayList<>();
-    try (Statement query = connection.createStatement()) {
-      try (ResultSet resultSet = query.executeQuery(sqlSelectForFastRead(sqlTable))) {
-        while (resultSet.next()) {
-          rows.add(MigrationMetaRow.fastRead(resultSet));
-        }
-      }
+  /**
+   * Read the migration table into a compact map of version to checksum and id.
+   */
+  MigrationMetaMap fastReadMigrations(String sqlTable, Connection connection) throws SQLException {
+    final MigrationMetaMap rows = new MigrationMetaMap();
+    try {
+      readRows(connection, sqlSelectForFastRead(sqlTable), rows::read);
     } finally {
       if (!connection.getAutoCommit()) {
         connection.rollback();
@@ -95,33 +169,64 @@ class MigrationPlatform {
   }
 
   /**
-   * Read the existing migrations from the db migration table.
+   * Read the existing migrations from the db migration table passing each row to the consumer.
+   */
+  void readExistingMigrations(String sqlTable, Connection connection, Consumer<MigrationMetaRow> consumer) throws SQLException {
+    readRows(connection, sqlSelectForReading(sqlTable), resultSet -> consumer.accept(new MigrationMetaRow(resultSet)));
+  }
+
+  /**
+   * Execute the query streaming each row to the reader.
    */
-  List<MigrationMetaRow> readExistingMigrations(String sqlTable, Connection connection) throws SQLException {
-    final String selectSql = sqlSelectForReading(sqlTable);
-    List<MigrationMetaRow> rows = new ArrayList<>();
-    try (Statement query = connection.createStatement()) {
-      try (ResultSet resultSet = query.executeQuery(selectSql)) {
+  void readRows(Connection connection, String sql, RowReader reader) throws SQLException {
+    try (Statement query = createStatement(connection)) {
+      if (fetchSize > 0) {
+        query.setFetchSize(fetchSize);
+      }
+      try (ResultSet resultSet = query.executeQuery(sql)) {
         while (resultSet.next()) {
-          rows.add(new MigrationMetaRow(resultSet));
+          reader.read(resultSet);
         }
       }
     }
-    return rows;
+  }
+
+  /**
+   * Create a statement for a migration table query applying the query timeout.
+   */
+  Statement createStatement(Connection connection) throws SQLException {
+    Statement statement = connection.createStatement();
+    if (queryTimeout > 0) {
+      statement.setQueryTimeout(queryTimeout);
+    }
+    return statement;
+  }
+
+  /**
+   * Prepare a statement for a migration table query applying the query timeout.
+   */
+  PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    if (queryTimeout > 0) {
+      statement.setQueryTimeout(queryTimeout);
+    }
+    return statement;
   }
 
   /**
    * Return the SQL to lock the rows in db migration table with row locking.
    */
   String sqlSelectForUpdate(String table) {
-    return BASE_SELECT_ID + table + forUpdateSuffix;
+    return BASE_SELECT_ID + table + (lockInitRowOnly ? forUpdateInitRowSuffix : forUpdateSuffix);
   }
 
   /**
    * Return the SQL to read the db migration table.
+   * <p>
+   * When only the init row is locked the read does not need to lock the rows.
    */
   String sqlSelectForReading(String table) {
-    return BASE_SELECT + table + forUpdateSuffix;
+    return BASE_SELECT + table + (lockInitRowOnly ? ORDER_BY_ID : forUpdateSuffix);
   }
 
   String sqlSelectForFastRead(String table) {
@@ -130,6 +235,14 @@ class MigrationPlatform {
 
   static final class LogicalLock extends MigrationPlatform {
 
+    LogicalLock() {
+    }
+
+    LogicalLock(int fetchSize, boolean transactionalDdl) {
+      this.fetchSize = fetchSize;
+      this.transactionalDdl = transactionalDdl;
+    }
+
     @Override
     void lockMigrationTable(String sqlTable, Connection connection) throws SQLException {
       int attempts = 0;
@@ -139,6 +252,12 @@ class MigrationPlatform {
       log.log(TRACE, "obtained logical lock");
     }
 
+    @Override
+    boolean relockMigrationTable(String sqlTable, Connection connection) {
+      // the logical lock is held across commits
+      return false;
+    }
+
     @Override
     void unlockMigrationTable(String sqlTable, Connection connection) {
       try {
@@ -151,7 +270,7 @@ class MigrationPlatform {
     }
 
     private boolean obtainLogicalLock(String sqlTable, Connection connection) throws SQLException {
-      try (PreparedStatement query = connection.prepareStatement("update " + sqlTable + " set mcomment=? where id=? and mcomment=?")) {
+      try (PreparedStatement query = prepareStatement(connection, "update " + sqlTable + " set mcomment=? where id=? and mcomment=?")) {
         query.setString(1, "locked");
         query.setInt(2, 0);
         query.setString(3, "<init>");
@@ -167,7 +286,7 @@ class MigrationPlatform {
 
     private void releaseLogicalLock(String sqlTable, Connection connection) throws SQLException {
       final String sql = "update " + sqlTable + " set mcomment='<init>' where id=0";
-      try (Statement query = connection.createStatement()) {
+      try (Statement query = createStatement(connection)) {
         if (query.executeUpdate(sql) != 1) {
           log.log(ERROR, "Failed to release logical lock. Please review why [" + sql + "] didn't update the row?");
         } else {
@@ -179,16 +298,153 @@ class MigrationPlatform {
 
   static final class Postgres extends MigrationPlatform {
 
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    int lockTimeoutMillis;
+    int statementTimeoutMillis;
+    int lockRetries;
+    int lockRetryDelayMillis;
+
+    @Override
+    MigrationPlatform configure(MigrationConfig config) {
+      super.configure(config);
+      this.lockTimeoutMillis = config.getLockTimeoutMillis();
+      this.statementTimeoutMillis = config.getStatementTimeoutMillis();
+      this.lockRetries = config.getLockRetries();
+      this.lockRetryDelayMillis = config.getLockRetryDelayMillis();
+      return this;
+    }
+
     @Override
     DdlDetect ddlDetect() {
       return DdlDetect.POSTGRES;
     }
 
+    /**
+     * Execute with the lock and statement timeouts set (local to the transaction) retrying
+     * the statement when it fails to obtain a lock within the lock timeout.
+     * <p>
+     * A savepoint is used such that a lock timeout only rolls back the failed statement. As
+     * the timeouts set local in a released savepoint remain for the rest of the transaction
+     * they are reset after the statement.
+     */
+    @Override
+    int executeStatement(Connection connection, String sql) throws SQLException {
+      if (lockTimeoutMillis <= 0 && statementTimeoutMillis <= 0) {
+        return super.executeStatement(connection, sql);
+      }
+      for (int attempt = 1; ; attempt++) {
+        final Savepoint savepoint = connection.setSavepoint();
+        try {
+          final String[] priorTimeouts = setTimeouts(connection);
+          final int updateCount = super.executeStatement(connection, sql);
+          resetTimeouts(connection, priorTimeouts);
+          connection.releaseSavepoint(savepoint);
+          return updateCount;
+        } catch (SQLException e) {
+          connection.rollback(savepoint);
+          if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt > lockRetries) {
+            throw e;
+          }
+          final long delay = retryDelay(attempt, lockRetryDelayMillis, ThreadLocalRandom.current().nextDouble());
+          log.log(WARNING, "Lock timeout executing migration statement, retry {0} of {1} in {2}ms", attempt, lockRetries, delay);
+          sleep(delay);
+        }
+      }
+    }
+
+    /**
+     * Set the timeouts returning the prior lock and statement timeouts.
+     */
+    private String[] setTimeouts(Connection connection) throws SQLException {
+      final String[] prior = new String[2];
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery("select current_setting('lock_timeout'), current_setting('statement_timeout')")) {
+        resultSet.next();
+        prior[0] = resultSet.getString(1);
+        prior[1] = resultSet.getString(2);
+      }
+      try (Statement statement = connection.createStatement()) {
+        if (lockTimeoutMillis > 0) {
+          statement.execute("set local lock_timeout = " + lockTimeoutMillis);
+        }
+        if (statementTimeoutMillis > 0) {
+          statement.execute("set local statement_timeout = " + statementTimeoutMillis);
+        }
+      }
+      return prior;
+    }
+
+    private static void resetTimeouts(Connection connection, String[] prior) throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement("select set_config('lock_timeout', ?, true), set_config('statement_timeout', ?, true)")) {
+        statement.setString(1, prior[0]);
+        statement.setString(2, prior[1]);
+        statement.execute();
+      }
+    }
+
+    /**
+     * Return the exponential backoff delay with jitter (between half and the full delay).
+     */
+    static long retryDelay(int attempt, long baseMillis, double random) {
+      final long delay = Math.min(MAX_RETRY_DELAY_MILLIS, baseMillis << Math.min(attempt - 1, 20));
+      return delay / 2 + (long) (delay / 2.0 * random);
+    }
+
+    private static void sleep(long millis) {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MigrationException("Interrupted waiting to retry migration statement", e);
+      }
+    }
+
+    /**
+     * Lock using a session level advisory lock that is held across commits.
+     * <p>
+     * The table lock in row share mode is held in addition such that runners that only lock the
+     * table (in access exclusive mode) are also excluded. This mode does not block inserts into
+     * the migration table from other connections.
+     */
     @Override
     void lockMigrationTable(String sqlTable, Connection connection) throws SQLException {
-      try (Statement query = connection.createStatement()) {
-        query.executeUpdate("lock table " + sqlTable);
+      try (PreparedStatement query = prepareStatement(connection, "select pg_advisory_lock(?)")) {
+        query.setLong(1, advisoryLockKey(sqlTable));
+        query.execute();
       }
+      lockTable(sqlTable, connection);
+    }
+
+    @Override
+    boolean relockMigrationTable(String sqlTable, Connection connection) throws SQLException {
+      // the advisory lock is held across commits
+      lockTable(sqlTable, connection);
+      return false;
+    }
+
+    private void lockTable(String sqlTable, Connection connection) throws SQLException {
+      try (Statement query = createStatement(connection)) {
+        query.executeUpdate("lock table " + sqlTable + " in row share mode");
+      }
+    }
+
+    @Override
+    void unlockMigrationTable(String sqlTable, Connection connection) {
+      try (PreparedStatement query = prepareStatement(connection, "select pg_advisory_unlock(?)")) {
+        query.setLong(1, advisoryLockKey(sqlTable));
+        query.execute();
+      } catch (SQLException e) {
+        throw new MigrationException("Error releasing lock for ebean_migration", e);
+      }
+    }
+
+    /**
+     * Return the advisory lock key for the migration table.
+     */
+    static long advisoryLockKey(String sqlTable) {
+      return ("ebean_migration-" + sqlTable).hashCode();
     }
   }
 
@@ -197,6 +453,10 @@ class MigrationPlatform {
    */
   static final class MySql extends MigrationPlatform {
 
+    MySql() {
+      this.transactionalDdl = false;
+    }
+
     @Override
     void lockMigrationTable(String sqlTable, Connection connection) throws SQLException {
       int attempts = 0;
@@ -205,9 +465,15 @@ class MigrationPlatform {
       }
     }
 
+    @Override
+    boolean relockMigrationTable(String sqlTable, Connection connection) {
+      // the named lock is held across commits
+      return false;
+    }
+
     private boolean obtainNamedLock(Connection connection) throws SQLException {
       String hash = Integer.toHexString(connection.getMetaData().getURL().hashCode());
-      try (Statement query = connection.createStatement()) {
+      try (Statement query = createStatement(connection)) {
         try (ResultSet resultSet = query.executeQuery("select get_lock('ebean_migration-" + hash + "', 10)")) {
           if (resultSet.next()) {
             return resultSet.getInt(1) == 1;
@@ -221,7 +487,7 @@ class MigrationPlatform {
     void unlockMigrationTable(String sqlTable, Connection connection) {
       try {
         String hash = Integer.toHexString(connection.getMetaData().getURL().hashCode());
-        try (Statement query = connection.createStatement()) {
+        try (Statement query = createStatement(connection)) {
           query.execute("select release_lock('ebean_migration-" + hash + "')");
         }
       } catch (SQLException e) {
@@ -234,13 +500,14 @@ class MigrationPlatform {
 
     SqlServer() {
       this.forUpdateSuffix = " with (updlock) order by id";
+      this.forUpdateInitRowSuffix = " with (updlock) where id = 0";
     }
   }
 
   static final class NoLocking extends MigrationPlatform {
 
     NoLocking() {
-      this.forUpdateSuffix = " order by id";
+      this.forUpdateSuffix = ORDER_BY_ID;
     }
 
     @Override
@@ -1,37 +1,132 @@
 package io.ebean.migration.runner;
 
+import io.ebean.ddlrunner.DdlParser;
 import io.ebean.ddlrunner.DdlRunner;
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationStatementListener;
 
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.INFO;
+
 /**
  * Runs the DDL migration scripts.
+ * <p>
+ * The statements of a script are executed one at a time notifying the configured
+ * {@link MigrationStatementListener} with the statement ordinal, elapsed time and update count.
  */
 final class MigrationScriptRunner {
 
+  private static final System.Logger log = MigrationTable.log;
+
   private final Connection connection;
 
   private final MigrationPlatform platform;
 
+  private final MigrationStatementListener listener;
+
+  private final int progressSeconds;
+
+  private final MySqlOnlineAlter onlineAlter;
+
   private final List<String> nonTransactional = new ArrayList<>();
 
   /**
    * Construct with a given connection.
    */
-  MigrationScriptRunner(Connection connection, MigrationPlatform platform) {
+  MigrationScriptRunner(Connection connection, MigrationPlatform platform, MigrationConfig config) {
     this.connection = connection;
     this.platform = platform;
+    this.listener = config.getStatementListener();
+    this.progressSeconds = config.getProgressSeconds();
+    this.onlineAlter = MySqlOnlineAlter.of(config, platform, connection);
   }
 
   /**
    * Execute all the DDL statements in the script.
    */
   void runScript(String content, String scriptName) throws SQLException {
-    DdlRunner runner = new DdlRunner(false, scriptName, platform.ddlDetect());
-    nonTransactional.addAll(runner.runAll(content, connection));
+    runScript(content, scriptName, null, null);
+  }
+
+  /**
+   * Execute the DDL statements in the script resuming from and recording the statement checkpoint.
+   *
+   * @param checkpoint The statement checkpoint (or null when not used)
+   * @param key        The key of the migration the checkpoint is recorded against
+   */
+  void runScript(String content, String scriptName, StatementCheckpoint checkpoint, String key) throws SQLException {
+    DdlParser parser = new DdlParser(platform.ddlDetect());
+    List<String> statements = parser.parse(new StringReader(content));
+    log.log(INFO, "Executing {0} - {1} statements", scriptName, statements.size());
+    final int from = checkpoint == null ? 0 : checkpoint.resumeFrom(key, statements);
+    StatementProgress progress = StatementProgress.start(scriptName, statements.size(), listener, progressSeconds);
+    try {
+      for (int i = from; i < statements.size(); i++) {
+        runStatement(scriptName, i + 1, statements.size(), statements.get(i), progress);
+        if (checkpoint != null) {
+          checkpoint.save(key, statements, i + 1);
+        }
+      }
+    } finally {
+      if (progress != null) {
+        progress.stop();
+      }
+    }
+    nonTransactional.addAll(parser.nonTransactional());
+  }
+
+  private void runStatement(String scriptName, int ordinal, int total, String statement, StatementProgress progress) throws SQLException {
+    final String sql = trimTerminator(statement.trim());
+    if (sql.isEmpty()) {
+      log.log(DEBUG, "skip empty statement at {0} of {1}", ordinal, total);
+      return;
+    }
+    if (listener != null) {
+      listener.statementStart(scriptName, ordinal, total, sql);
+    }
+    if (progress != null) {
+      progress.statementStart(ordinal, sql);
+    }
+    final long start = System.currentTimeMillis();
+    final int updateCount;
+    try {
+      updateCount = execute(sql);
+    } catch (SQLException e) {
+      throw new SQLException("Error executing [" + sql + "] error[" + e.getMessage() + "]", e);
+    } finally {
+      if (progress != null) {
+        progress.statementEnd();
+      }
+    }
+    final long elapsedMillis = System.currentTimeMillis() - start;
+    log.log(DEBUG, "executed {0} of {1} in {2}ms updateCount:{3}", ordinal, total, elapsedMillis, updateCount);
+    if (listener != null) {
+      listener.statementEnd(scriptName, ordinal, total, sql, elapsedMillis, updateCount);
+    }
+  }
+
+  private int execute(String sql) throws SQLException {
+    if (onlineAlter != null && onlineAlter.execute(sql)) {
+      return 0;
+    }
+    return platform.executeStatement(connection, sql);
+  }
+
+  private static String trimTerminator(String sql) {
+    return sql.endsWith(";") || sql.endsWith("/") ? sql.substring(0, sql.length() - 1) : sql;
+  }
+
+  /**
+   * Add the non-transactional statements collected by another script runner.
+   */
+  void addNonTransactional(MigrationScriptRunner other) {
+    nonTransactional.addAll(other.nonTransactional);
   }
 
   int runNonTransactional() {
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static io.ebean.migration.MigrationVersion.BOOTINIT_TYPE;
 import static io.ebean.migration.MigrationVersion.VERSION_TYPE;
@@ -41,7 +42,12 @@ final class MigrationTable {
 
   private final Timestamp runOn = new Timestamp(System.currentTimeMillis());
 
-  private final ScriptTransform scriptTransform;
+  private final PlaceholderTransform scriptTransform;
+  private final ChecksumCache checksumCache;
+  private final ParallelMigrations parallelVersions;
+  private final ParallelMigrations parallelRepeatables;
+  private final Supplier<Connection> connectionSupplier;
+  private final StatementCheckpoint checkpoint;
 
   private final String insertSql;
   private final String updateSql;
@@ -58,7 +64,6 @@ final class MigrationTable {
   private final MigrationVersion minVersion;
   private final String minVersionFailMessage;
 
-  private MigrationVersion currentVersion;
   private MigrationMetaRow lastMigration;
   private LocalMigrationResource priorVersion;
 
@@ -75,6 +80,13 @@ final class MigrationTable {
   private final boolean tableKnownToExist;
 
   public MigrationTable(FirstCheck firstCheck, boolean checkStateOnly) {
+    this(firstCheck, checkStateOnly, null);
+  }
+
+  /**
+   * Create with a supplier of additional connections used to execute migrations in parallel.
+   */
+  MigrationTable(FirstCheck firstCheck, boolean checkStateOnly, Supplier<Connection> connectionSupplier) {
     this.config = firstCheck.config;
     this.platform = firstCheck.platform;
     this.context = firstCheck.context;
@@ -82,8 +94,9 @@ final class MigrationTable {
     this.table = firstCheck.table;
     this.sqlTable = firstCheck.sqlTable;
     this.tableKnownToExist = firstCheck.tableKnownToExist;
+    this.connectionSupplier = connectionSupplier;
 
-    this.scriptRunner = new MigrationScriptRunner(context.connection(), platform);
+    this.scriptRunner = new MigrationScriptRunner(context.connection(), platform, config);
     this.checkStateOnly = checkStateOnly;
     this.earlyChecksumMode = config.isEarlyChecksumMode();
     this.migrations = new LinkedHashMap<>();
@@ -101,6 +114,11 @@ final class MigrationTable {
     this.updateSql = MigrationMetaRow.updateSql(sqlTable);
     this.updateChecksumSql = MigrationMetaRow.updateChecksumSql(sqlTable);
     this.scriptTransform = createScriptTransform(config);
+    this.checksumCache = firstCheck.checksumCache;
+    final boolean parallel = !checkStateOnly && !skipMigrationRun && connectionSupplier != null;
+    this.parallelVersions = parallel && config.getModuleThreads() > 1 ? ParallelMigrations.versions(config, platform, connectionSupplier, insertSql) : null;
+    this.parallelRepeatables = parallel && config.getRepeatableThreads() > 1 ? ParallelMigrations.repeatables(config, platform, connectionSupplier, insertSql) : null;
+    this.checkpoint = config.isStatementCheckpoint() && !checkStateOnly && !platform.transactionalDdl ? new StatementCheckpoint(platform, context.connection(), sqlTable) : null;
     this.envUserName = System.getProperty("user.name");
   }
 
@@ -127,10 +145,10 @@ final class MigrationTable {
   }
 
   /**
-   * Create the ScriptTransform for placeholder key/value replacement.
+   * Create the PlaceholderTransform for placeholder key/value replacement.
    */
-  private ScriptTransform createScriptTransform(MigrationConfig config) {
-    return ScriptTransform.build(config.getRunPlaceholders(), config.getRunPlaceholderMap());
+  private PlaceholderTransform createScriptTransform(MigrationConfig config) {
+    return PlaceholderTransform.build(config.getRunPlaceholders(), config.getRunPlaceholderMap());
   }
 
   /**
@@ -180,7 +198,7 @@ final class MigrationTable {
   }
 
   /**
-   * Release a lock on the migration table (MySql, MariaDB only).
+   * Release a lock on the migration table that is held across commits (MySql, MariaDB, Postgres and logical locks).
    */
   void unlockMigrationTable() {
     platform.unlockMigrationTable(sqlTable, context.connection());
@@ -193,16 +211,14 @@ final class MigrationTable {
    * executed during the wait for the lock.
    */
   private void readExistingMigrations() throws SQLException {
-    for (MigrationMetaRow metaRow : platform.readExistingMigrations(sqlTable, context.connection())) {
-      addMigration(metaRow.version(), metaRow);
-    }
+    platform.readExistingMigrations(sqlTable, context.connection(), metaRow -> addMigration(metaRow.version(), metaRow));
   }
 
   void createTable() throws IOException, SQLException {
     Connection connection = context.connection();
     try {
       scriptRunner.runScript(createTableDdl(), "create migration table");
-      createInitMetaRow().executeInsert(connection, insertSql);
+      createInitMetaRow().executeInsert(platform, connection, insertSql);
       connection.commit();
     } catch (SQLException e) {
       connection.rollback();
@@ -303,6 +319,7 @@ final class MigrationTable {
    */
   private boolean runMigration(LocalMigrationResource local, MigrationMetaRow existing) throws SQLException {
     String script = null;
+    String content = null;
     int checksum;
     int checksum2 = 0;
     if (local instanceof LocalUriMigrationResource) {
@@ -310,11 +327,22 @@ final class MigrationTable {
       checksum2 = patchLegacyChecksums ? AUTO_PATCH_CHECKSUM : 0;
       script = convertScript(local.content());
     } else if (local instanceof LocalDdlMigrationResource) {
-      final String content = local.content();
-      script = convertScript(content);
+      final var ddl = (LocalDdlMigrationResource) local;
+      if (existing != null && unchangedFingerprint(ddl, existing)) {
+        log.log(TRACE, "skip unchanged migration by fingerprint {0}", local.location());
+        return true;
+      }
+      content = local.content();
+      if (!earlyChecksumMode || patchLegacyChecksums) {
+        // converted script content is only needed for the checksum in LEGACY mode
+        script = convertScript(content);
+      }
       // checksum on original content (NEW) or converted script content (LEGACY)
       checksum = Checksum.calculate(earlyChecksumMode ? content : script);
       checksum2 = patchLegacyChecksums ? Checksum.calculate(script) : 0;
+      if (useChecksumCache()) {
+        checksumCache.put(local.location(), ddl.fingerprint(), checksum);
+      }
     } else {
       checksum = ((LocalJdbcMigrationResource) local).checksum();
     }
@@ -325,10 +353,32 @@ final class MigrationTable {
     if (existing != null && skipMigration(checksum, checksum2, local, existing)) {
       return true;
     }
+    if (script == null && content != null) {
+      script = convertScript(content);
+    }
     executeMigration(local, script, checksum, existing);
     return true;
   }
 
+  /**
+   * Return true if the checksum cached for the fingerprint of the script matches the existing
+   * migration such that the script is unchanged without reading its content.
+   */
+  private boolean unchangedFingerprint(LocalDdlMigrationResource local, MigrationMetaRow existing) {
+    if (!useChecksumCache()) {
+      return false;
+    }
+    final Integer cached = checksumCache.checksum(local.location(), local.fingerprint());
+    return cached != null && cached == existing.checksum();
+  }
+
+  /**
+   * The checksum cache is only used with early mode checksums (on the original script content).
+   */
+  private boolean useChecksumCache() {
+    return checksumCache != null && earlyChecksumMode && !patchLegacyChecksums;
+  }
+
   /**
    * Return true if we 'patch history' inserting a DB migration without running it.
    */
@@ -355,7 +405,7 @@ final class MigrationTable {
     } else if (patchLegacyChecksums && (existing.checksum() == checksum2 || checksum2 == AUTO_PATCH_CHECKSUM)) {
       if (!checkStateOnly) {
         log.log(INFO, "Auto patch migration, set early mode checksum on {0} to {1,number} from {2,number}", local.location(), checksum, existing.checksum());
-        existing.resetChecksum(checksum, context.connection(), updateChecksumSql);
+        existing.resetChecksum(checksum, platform, context.connection(), updateChecksumSql);
       }
       return true;
 
@@ -377,7 +427,7 @@ final class MigrationTable {
   private boolean patchResetChecksum(MigrationMetaRow existing, int newChecksum) throws SQLException {
     if (isResetOnVersion(existing.version())) {
       if (!checkStateOnly) {
-        existing.resetChecksum(newChecksum, context.connection(), updateChecksumSql);
+        existing.resetChecksum(newChecksum, platform, context.connection(), updateChecksumSql);
       }
       return true;
     } else {
@@ -396,7 +446,24 @@ final class MigrationTable {
     if (checkStateOnly) {
       checkMigrations.add(local);
       // simulate the migration being run such that following migrations also match
-      addMigration(local.key(), createMetaRow(local, checksum, 1));
+      addMigration(local.key(), createMetaRow(nextId(), local, checksum, 1));
+      return;
+    }
+
+    if (parallelRepeatables != null && script != null && local.isRepeatableLast()) {
+      // executed later in parallel with the other repeatable migrations
+      parallelRepeatables.add(local, script, checksum, existing);
+      return;
+    }
+    if (parallelVersions != null && script != null && VERSION_TYPE.equals(local.type()) && ParallelMigrations.hasModule(script)) {
+      // executed later in parallel with the versioned migrations of other modules
+      parallelVersions.add(local, script, checksum, existing);
+      return;
+    }
+    // the preceding versioned migrations execute first (e.g. for a jdbc migration)
+    runParallel(parallelVersions);
+    if (isChunked(local) && commitBeforeChunks(local, existing)) {
+      log.log(INFO, "Skip migration {0} already run by another process", local.location());
       return;
     }
 
@@ -407,11 +474,9 @@ final class MigrationTable {
       } else {
         exeMillis = executeMigration(local, script);
       }
-      if (existing != null) {
-        existing.rerun(checksum, exeMillis, envUserName, runOn);
-        existing.executeUpdate(context.connection(), updateSql);
-      } else {
-        insertIntoHistory(local, checksum, exeMillis);
+      recordMigration(local, checksum, exeMillis, existing);
+      if (checkpoint != null && VERSION_TYPE.equals(local.type())) {
+        checkpoint.clear(local.key());
       }
     } catch (SQLException e) {
       if (allowErrorInRepeatable && local.isRepeatableLast()) {
@@ -423,23 +488,142 @@ final class MigrationTable {
     }
   }
 
+  /**
+   * Record the executed migration in the migration table.
+   */
+  private void recordMigration(LocalMigrationResource local, int checksum, long exeMillis, MigrationMetaRow existing) throws SQLException {
+    if (existing != null) {
+      existing.rerun(checksum, exeMillis, envUserName, runOn);
+      existing.executeUpdate(platform, context.connection(), updateSql);
+    } else {
+      insertIntoHistory(local, checksum, exeMillis);
+    }
+  }
+
+  /**
+   * Execute the collected migrations in parallel (if any) and record them in the migration table.
+   * <p>
+   * The migrations executed earlier in this run are committed first such that they are visible
+   * to the other connections. The ids of the new migrations are assigned up front and each is
+   * inserted into the migration table in the transaction it executes in. Migrations that run
+   * again update their existing row using the main connection (as it holds the row locks). If a
+   * migration fails the rows updated for the migrations that executed successfully are committed
+   * before the error is thrown.
+   */
+  private void runParallel(ParallelMigrations parallel) throws SQLException {
+    if (parallel == null || parallel.isEmpty()) {
+      return;
+    }
+    final Connection connection = context.connection();
+    if (commitExecuted()) {
+      // skip the migrations run by another process while the lock was released
+      parallel.removeApplied(migrations);
+      if (parallel.isEmpty()) {
+        return;
+      }
+    }
+    int nextId = nextId();
+    for (ParallelMigrations.Task task : parallel.tasks()) {
+      if (task.existing == null) {
+        task.insert = createMetaRow(nextId++, task.local, task.checksum, 0);
+      }
+    }
+    final long start = System.currentTimeMillis();
+    final List<ParallelMigrations.Task> executed = parallel.run(scriptRunner);
+    for (ParallelMigrations.Task task : executed) {
+      if (task.insert != null) {
+        addMigration(task.local.key(), task.insert);
+      } else {
+        recordMigration(task.local, task.checksum, task.exeMillis, task.existing);
+      }
+      executionCount++;
+    }
+    if (parallel.failure() != null) {
+      connection.commit();
+      throw parallel.failure();
+    }
+    log.log(INFO, "Executed {0} migrations in parallel in {1}ms", executed.size(), System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Commit the migrations executed earlier in this run such that they are visible to other
+   * connections and lock the migration table again.
+   * <p>
+   * When the platform lock was released by the commit another process may have run migrations
+   * before the lock was obtained again so the migration table is read again.
+   *
+   * @return True if the migration table was read again
+   */
+  private boolean commitExecuted() throws SQLException {
+    if (executionCount == 0) {
+      return false;
+    }
+    final Connection connection = context.connection();
+    connection.commit();
+    if (!platform.relockMigrationTable(sqlTable, connection)) {
+      return false;
+    }
+    readExistingMigrations();
+    return true;
+  }
+
   private long executeMigration(LocalMigrationResource local, String script) throws SQLException {
     long start = System.currentTimeMillis();
     if (local instanceof LocalJdbcMigrationResource) {
       JdbcMigration migration = ((LocalJdbcMigrationResource) local).migration();
       log.log(INFO, "Executing jdbc migration version: {0} - {1}", local.version(), migration);
-      migration.migrate(context.connection());
+      if (migration instanceof ChunkedJdbcMigration && (connectionSupplier != null || config.getDbUrl() != null)) {
+        // chunks are processed and committed using a separate connection
+        ((ChunkedJdbcMigration) migration).migrate(context.connection(), this::chunkConnection);
+      } else {
+        migration.migrate(context.connection());
+      }
     } else {
       log.log(DEBUG, "run migration {0}", local.location());
-      scriptRunner.runScript(script, "run migration version: " + local.version());
+      // only versioned migrations resume from a checkpoint (repeatable migrations run again in full)
+      final StatementCheckpoint versionCheckpoint = VERSION_TYPE.equals(local.type()) ? checkpoint : null;
+      scriptRunner.runScript(script, "run migration version: " + local.version(), versionCheckpoint, local.key());
     }
     executionCount++;
     return System.currentTimeMillis() - start;
   }
 
+  /**
+   * Return true for a JDBC migration that processes chunks (committed using a separate connection).
+   */
+  private static boolean isChunked(LocalMigrationResource local) {
+    return local instanceof LocalJdbcMigrationResource && ((LocalJdbcMigrationResource) local).migration() instanceof ChunkedJdbcMigration;
+  }
+
+  /**
+   * Commit the migrations executed earlier such that they are visible to the connection processing
+   * the chunks returning true if the chunked migration was run by another process meanwhile.
+   */
+  private boolean commitBeforeChunks(LocalMigrationResource local, MigrationMetaRow existing) throws SQLException {
+    return commitExecuted() && existing == null && migrations.containsKey(local.key());
+  }
+
+  /**
+   * Return a connection to process chunks with (from the supplier or created using the db url).
+   */
+  private Connection chunkConnection() {
+    final Connection connection = connectionSupplier != null ? connectionSupplier.get() : config.createConnection();
+    try {
+      MigrationSchema.setIfNeeded(config, connection);
+      return connection;
+    } catch (SQLException e) {
+      try {
+        connection.close();
+      } catch (SQLException ex) {
+        e.addSuppressed(ex);
+      }
+      throw new MigrationException("Error setting schema on chunk connection", e);
+    }
+  }
+
   private void insertIntoHistory(LocalMigrationResource local, int checksum, long exeMillis) throws SQLException {
-    MigrationMetaRow metaRow = createMetaRow(local, checksum, exeMillis);
-    metaRow.executeInsert(context.connection(), insertSql);
+    MigrationMetaRow metaRow = createMetaRow(nextId(), local, checksum, exeMillis);
+    metaRow.executeInsert(platform, context.connection(), insertSql);
     addMigration(local.key(), metaRow);
   }
 
@@ -448,25 +632,29 @@ final class MigrationTable {
     return new MigrationMetaRow(0, "I", INIT_VER_0, "<init>", mode, envUserName, runOn, 0);
   }
 
+  /**
+   * Return the id of the next migration to insert into the migration table.
+   */
+  private int nextId() {
+    return lastMigration == null ? 1 : lastMigration.id() + 1;
+  }
+
   /**
    * Create the MigrationMetaRow for this migration.
    */
-  private MigrationMetaRow createMetaRow(LocalMigrationResource migration, int checksum, long exeMillis) {
-    int nextId = 1;
-    if (lastMigration != null) {
-      nextId = lastMigration.id() + 1;
-    }
+  private MigrationMetaRow createMetaRow(int id, LocalMigrationResource migration, int checksum, long exeMillis) {
     String type = migration.type();
     String runVersion = migration.key();
     String comment = migration.comment();
-    return new MigrationMetaRow(nextId, type, runVersion, comment, checksum, envUserName, runOn, exeMillis);
+    return new MigrationMetaRow(id, type, runVersion, comment, checksum, envUserName, runOn, exeMillis);
   }
 
   /**
    * Return true if the migration exists.
    */
   private boolean migrationExists(LocalMigrationResource priorVersion) {
-    return migrations.containsKey(priorVersion.key());
+    final String key = priorVersion.key();
+    return migrations.containsKey(key) || (parallelVersions != null && parallelVersions.contains(key));
   }
 
   /**
@@ -495,15 +683,27 @@ final class MigrationTable {
     }
 
     migrations.put(key, metaRow);
-    if (VERSION_TYPE.equals(metaRow.type()) || BOOTINIT_TYPE.equals(metaRow.type())) {
-      MigrationVersion rowVersion = MigrationVersion.parse(metaRow.version());
-      if (currentVersion == null || rowVersion.compareTo(currentVersion) > 0) {
-        currentVersion = rowVersion;
-      }
-      if (BOOTINIT_TYPE.equals(metaRow.type())) {
-        dbInitVersion = rowVersion;
+    if (BOOTINIT_TYPE.equals(metaRow.type())) {
+      dbInitVersion = MigrationVersion.parse(metaRow.version());
+    }
+  }
+
+  /**
+   * Return the maximum version of the migrations in the DB migration table.
+   * <p>
+   * This parses the versions lazily and is only required when checking the minVersion.
+   */
+  private MigrationVersion currentVersion() {
+    MigrationVersion currentVersion = null;
+    for (MigrationMetaRow metaRow : migrations.values()) {
+      if (VERSION_TYPE.equals(metaRow.type()) || BOOTINIT_TYPE.equals(metaRow.type())) {
+        MigrationVersion rowVersion = MigrationVersion.parse(metaRow.version());
+        if (currentVersion == null || rowVersion.compareTo(currentVersion) > 0) {
+          currentVersion = rowVersion;
+        }
       }
     }
+    return currentVersion;
   }
 
   /**
@@ -523,19 +723,36 @@ final class MigrationTable {
     for (LocalMigrationResource localVersion : localVersions) {
       if (!localVersion.isRepeatable() && dbInitVersion != null && dbInitVersion.compareTo(localVersion.version()) >= 0) {
         log.log(DEBUG, "migration skipped by dbInitVersion {0}", dbInitVersion);
-      } else if (!shouldRun(localVersion, priorVersion)) {
+      } else if (!shouldRunAfterVersions(localVersion)) {
         break;
       }
     }
+    runParallel(parallelVersions);
+    runParallel(parallelRepeatables);
     if (patchLegacyChecksums && !checkStateOnly) {
       // only patch the legacy checksums once
-      initMetaRow.resetChecksum(EARLY_MODE_CHECKSUM, context.connection(), updateChecksumSql);
+      initMetaRow.resetChecksum(EARLY_MODE_CHECKSUM, platform, context.connection(), updateChecksumSql);
     }
     return checkMigrations;
   }
 
+  /**
+   * Run the migration ensuring the versioned migrations executing in parallel complete before
+   * the repeatable migrations that run last.
+   */
+  private boolean shouldRunAfterVersions(LocalMigrationResource localVersion) throws SQLException {
+    if (localVersion.isRepeatableLast()) {
+      runParallel(parallelVersions);
+    }
+    return shouldRun(localVersion, priorVersion);
+  }
+
   private void checkMinVersion() {
-    if (minVersion != null && currentVersion != null && currentVersion.compareTo(minVersion) < 0) {
+    if (minVersion == null) {
+      return;
+    }
+    final MigrationVersion currentVersion = currentVersion();
+    if (currentVersion != null && currentVersion.compareTo(minVersion) < 0) {
       StringBuilder sb = new StringBuilder();
       if (minVersionFailMessage != null && !minVersionFailMessage.isEmpty()) {
         sb.append(minVersionFailMessage).append(' ');
@@ -559,10 +776,12 @@ final class MigrationTable {
 
     // run any migrations greater that the init migration
     for (LocalMigrationResource localVersion : localVersions) {
-      if (localVersion.compareTo(initVersion) > 0 && !shouldRun(localVersion, priorVersion)) {
+      if (localVersion.compareTo(initVersion) > 0 && !shouldRunAfterVersions(localVersion)) {
         break;
       }
     }
+    runParallel(parallelVersions);
+    runParallel(parallelRepeatables);
     return checkMigrations;
   }
 
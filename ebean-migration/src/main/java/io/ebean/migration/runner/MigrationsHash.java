@@ -0,0 +1,70 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hash of the local migrations (keys, checksums and placeholders) used to key a migrated database snapshot.
+ */
+final class MigrationsHash {
+
+  private MigrationsHash() {
+  }
+
+  /**
+   * Return the hash of the local migrations read using the given configuration.
+   */
+  static String of(MigrationConfig config) {
+    LocalMigrationResources resources = new LocalMigrationResources(config);
+    resources.readResources();
+    return of(config, resources.versions());
+  }
+
+  /**
+   * Return the hash of the given local migrations.
+   */
+  static String of(MigrationConfig config, List<LocalMigrationResource> versions) {
+    StringBuilder sb = new StringBuilder(1000);
+    for (LocalMigrationResource local : versions) {
+      sb.append(local.key()).append(':').append(checksum(local)).append('\n');
+    }
+    sb.append(config.getRunPlaceholders()).append('\n');
+    final Map<String, String> placeholders = config.getRunPlaceholderMap();
+    if (placeholders != null) {
+      sb.append(new TreeMap<>(placeholders));
+    }
+    return hash(sb.toString());
+  }
+
+  private static int checksum(LocalMigrationResource local) {
+    if (local instanceof LocalUriMigrationResource) {
+      return ((LocalUriMigrationResource) local).checksum();
+    } else if (local instanceof LocalJdbcMigrationResource) {
+      return ((LocalJdbcMigrationResource) local).checksum();
+    } else {
+      return Checksum.calculate(local.content());
+    }
+  }
+
+  /**
+   * Return the first 16 hex characters of the SHA-256 of the content.
+   */
+  static String hash(String content) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+      StringBuilder sb = new StringBuilder(16);
+      for (int i = 0; i < 8; i++) {
+        sb.append(String.format("%02x", digest[i]));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
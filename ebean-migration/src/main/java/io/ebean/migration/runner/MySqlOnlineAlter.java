@@ -0,0 +1,356 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Executes ALTER TABLE statements on large MySQL/MariaDB tables as an online schema change.
+ * <p>
+ * Rather than altering the table in place (blocking writes), a shadow table is created with the
+ * altered structure and the rows are copied across in chunks of primary key values. Triggers on the
+ * original table apply concurrent inserts, updates and deletes to the shadow table while the rows
+ * are copied. The tables are then swapped using an atomic {@code RENAME TABLE}.
+ * <p>
+ * This is only used for tables with at least the configured number of rows that have a single column
+ * integer primary key and that neither reference nor are referenced by foreign keys (which would not be
+ * copied to the shadow table or would follow the renamed original table). ALTER statements that rename,
+ * change the primary key, add unique constraints or foreign keys or that specify an ALGORITHM or LOCK
+ * are executed as normal. Copying a row that results in a warning (for example truncating a value)
+ * fails the online alter.
+ */
+final class MySqlOnlineAlter {
+
+  private static final System.Logger log = MigrationTable.log;
+
+  private static final Pattern ALTER_TABLE = Pattern.compile("^alter\\s+table\\s+([`\\w.$]+)\\s+(.+)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+  private static final Pattern UNSUPPORTED = Pattern.compile("\\b(rename|unique|primary|foreign|references|partition|algorithm|lock)\\b", Pattern.CASE_INSENSITIVE);
+  private static final Set<String> INTEGER_TYPES = Set.of("tinyint", "smallint", "mediumint", "int", "integer", "bigint");
+  private static final int MAX_NAME_LENGTH = 64;
+
+  private final Connection connection;
+  private final int minRows;
+  private final int chunkSize;
+
+  private MySqlOnlineAlter(Connection connection, int minRows, int chunkSize) {
+    this.connection = connection;
+    this.minRows = minRows;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Return the online alter for MySQL platforms when configured (otherwise null).
+   */
+  static MySqlOnlineAlter of(MigrationConfig config, MigrationPlatform platform, Connection connection) {
+    if (config.getOnlineAlterMinRows() <= 0 || !(platform instanceof MigrationPlatform.MySql)) {
+      return null;
+    }
+    return new MySqlOnlineAlter(connection, config.getOnlineAlterMinRows(), config.getOnlineAlterChunkSize());
+  }
+
+  /**
+   * Execute the statement as an online schema change if applicable.
+   *
+   * @return True if the statement was executed, false if it should be executed as normal
+   */
+  boolean execute(String sql) throws SQLException {
+    final Alter alter = Alter.parse(sql);
+    if (alter == null) {
+      return false;
+    }
+    final long rows = tableRows(alter);
+    if (rows < minRows) {
+      return false;
+    }
+    final String pk = integerPrimaryKey(alter);
+    if (pk == null) {
+      log.log(INFO, "Online alter not used for table {0} without a single column integer primary key", alter.table);
+      return false;
+    }
+    if (hasForeignKeys(alter)) {
+      log.log(INFO, "Online alter not used for table {0} with foreign keys (referencing or referenced by the table)", alter.table);
+      return false;
+    }
+    log.log(INFO, "Online alter of table {0} with approximately {1} rows - {2}", alter.table, rows, alter.alterations);
+    final long start = System.currentTimeMillis();
+    executeDdl("create table " + alter.shadow() + " like " + alter.qualified());
+    try {
+      executeDdl("alter table " + alter.shadow() + ' ' + alter.alterations);
+      final List<String> columns = commonColumns(alter);
+      if (!columns.contains(pk)) {
+        throw new SQLException("Online alter of " + alter.table + " can not drop the primary key column " + pk);
+      }
+      for (String trigger : alter.createTriggers(pk, columns)) {
+        executeDdl(trigger);
+      }
+      final long copied = copyRows(alter, pk, columns);
+      executeDdl("rename table " + alter.qualified() + " to " + alter.old() + ", " + alter.shadow() + " to " + alter.qualified());
+      dropTriggers(alter);
+      executeDdl("drop table " + alter.old());
+      log.log(INFO, "Online alter of table {0} completed in {1}ms - copied rows:{2}", alter.table, System.currentTimeMillis() - start, copied);
+      return true;
+    } catch (SQLException e) {
+      cleanup(alter);
+      throw e;
+    }
+  }
+
+  private long copyRows(Alter alter, String pk, List<String> columns) throws SQLException {
+    long minKey;
+    long maxKey;
+    try (Statement stmt = connection.createStatement();
+         ResultSet resultSet = stmt.executeQuery("select min(" + quote(pk) + "), max(" + quote(pk) + ") from " + alter.qualified())) {
+      resultSet.next();
+      minKey = resultSet.getLong(1);
+      maxKey = resultSet.getLong(2);
+    }
+    connection.commit();
+    long copied = 0;
+    try (PreparedStatement stmt = connection.prepareStatement(alter.copySql(pk, columns))) {
+      for (long fromKey = minKey; fromKey <= maxKey; fromKey += chunkSize) {
+        stmt.setLong(1, fromKey);
+        stmt.setLong(2, fromKey + chunkSize);
+        copied += stmt.executeUpdate();
+        final SQLWarning warning = stmt.getWarnings();
+        if (warning != null) {
+          throw new SQLException("Online alter of " + alter.table + " copying rows from key " + fromKey + " - " + warning.getMessage(), warning);
+        }
+        connection.commit();
+      }
+    }
+    return copied;
+  }
+
+  private long tableRows(Alter alter) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("select table_rows from information_schema.tables where table_schema = " + alter.schemaExpression() + " and table_name = ?")) {
+      alter.bindSchema(stmt);
+      stmt.setString(alter.schemaParams() + 1, alter.table);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : 0;
+      }
+    }
+  }
+
+  /**
+   * Return true if the table references or is referenced by foreign keys.
+   */
+  private boolean hasForeignKeys(Alter alter) throws SQLException {
+    final String schema = alter.schemaExpression();
+    final String sql = "select count(*) from information_schema.referential_constraints"
+      + " where (constraint_schema = " + schema + " and table_name = ?)"
+      + " or (unique_constraint_schema = " + schema + " and referenced_table_name = ?)";
+    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+      int index = 0;
+      if (alter.schema != null) {
+        stmt.setString(++index, alter.schema);
+      }
+      stmt.setString(++index, alter.table);
+      if (alter.schema != null) {
+        stmt.setString(++index, alter.schema);
+      }
+      stmt.setString(++index, alter.table);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        return resultSet.next() && resultSet.getLong(1) > 0;
+      }
+    }
+  }
+
+  private String integerPrimaryKey(Alter alter) throws SQLException {
+    final String sql = "select k.column_name, c.data_type from information_schema.key_column_usage k"
+      + " join information_schema.columns c on c.table_schema = k.table_schema and c.table_name = k.table_name and c.column_name = k.column_name"
+      + " where k.table_schema = " + alter.schemaExpression() + " and k.table_name = ? and k.constraint_name = 'PRIMARY'";
+    List<String> keys = new ArrayList<>();
+    String dataType = null;
+    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+      alter.bindSchema(stmt);
+      stmt.setString(alter.schemaParams() + 1, alter.table);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          keys.add(resultSet.getString(1));
+          dataType = resultSet.getString(2);
+        }
+      }
+    }
+    if (keys.size() != 1 || !INTEGER_TYPES.contains(dataType.toLowerCase(Locale.ROOT))) {
+      return null;
+    }
+    return keys.get(0);
+  }
+
+  private List<String> commonColumns(Alter alter) throws SQLException {
+    final List<String> original = columns(alter, alter.table);
+    final List<String> common = new ArrayList<>();
+    for (String column : columns(alter, alter.shadowName())) {
+      for (String originalColumn : original) {
+        if (originalColumn.equalsIgnoreCase(column)) {
+          common.add(originalColumn);
+        }
+      }
+    }
+    return common;
+  }
+
+  private List<String> columns(Alter alter, String table) throws SQLException {
+    List<String> columns = new ArrayList<>();
+    try (PreparedStatement stmt = connection.prepareStatement("select column_name from information_schema.columns where table_schema = "
+      + alter.schemaExpression() + " and table_name = ? order by ordinal_position")) {
+      alter.bindSchema(stmt);
+      stmt.setString(alter.schemaParams() + 1, table);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          columns.add(resultSet.getString(1));
+        }
+      }
+    }
+    return columns;
+  }
+
+  private void dropTriggers(Alter alter) throws SQLException {
+    for (String trigger : alter.triggerNames()) {
+      executeDdl("drop trigger if exists " + alter.qualify(trigger));
+    }
+  }
+
+  private void cleanup(Alter alter) {
+    try {
+      connection.rollback();
+      dropTriggers(alter);
+      executeDdl("drop table if exists " + alter.shadow());
+    } catch (SQLException e) {
+      log.log(WARNING, "Error cleaning up online alter of table " + alter.table, e);
+    }
+  }
+
+  private void executeDdl(String sql) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+
+  static String quote(String name) {
+    return '`' + name.replace("`", "``") + '`';
+  }
+
+  /**
+   * A parsed ALTER TABLE statement.
+   */
+  static final class Alter {
+
+    final String schema;
+    final String table;
+    final String alterations;
+
+    private Alter(String schema, String table, String alterations) {
+      this.schema = schema;
+      this.table = table;
+      this.alterations = alterations;
+    }
+
+    /**
+     * Return the parsed ALTER TABLE statement or null if it is not supported as an online alter.
+     */
+    static Alter parse(String sql) {
+      final Matcher matcher = ALTER_TABLE.matcher(sql.trim());
+      if (!matcher.matches()) {
+        return null;
+      }
+      final String alterations = matcher.group(2).trim();
+      if (UNSUPPORTED.matcher(alterations).find()) {
+        return null;
+      }
+      final String name = matcher.group(1).replace("`", "");
+      final int dot = name.indexOf('.');
+      return dot < 0 ? new Alter(null, name, alterations) : new Alter(name.substring(0, dot), name.substring(dot + 1), alterations);
+    }
+
+    String qualify(String name) {
+      return schema == null ? quote(name) : quote(schema) + '.' + quote(name);
+    }
+
+    String qualified() {
+      return qualify(table);
+    }
+
+    String shadowName() {
+      return name("_", table, "_new");
+    }
+
+    String shadow() {
+      return qualify(shadowName());
+    }
+
+    String old() {
+      return qualify(name("_", table, "_old"));
+    }
+
+    List<String> triggerNames() {
+      return List.of(name("", table, "_osc_ins"), name("", table, "_osc_upd"), name("", table, "_osc_del"));
+    }
+
+    /**
+     * Return the triggers that apply changes to the original table to the shadow table.
+     */
+    List<String> createTriggers(String pk, List<String> columns) {
+      final List<String> names = triggerNames();
+      final String replace = "replace into " + shadow() + " (" + columnList("", columns) + ") values (" + columnList("NEW.", columns) + ")";
+      final String delete = "delete ignore from " + shadow() + " where " + quote(pk) + " = OLD." + quote(pk);
+      return List.of(
+        "create trigger " + qualify(names.get(0)) + " after insert on " + qualified() + " for each row " + replace,
+        "create trigger " + qualify(names.get(1)) + " after update on " + qualified() + " for each row begin " + delete + "; " + replace + "; end",
+        "create trigger " + qualify(names.get(2)) + " after delete on " + qualified() + " for each row " + delete);
+    }
+
+    /**
+     * Return the statement copying a chunk of rows (bound with the from and to key) to the shadow table.
+     * <p>
+     * Rows already applied to the shadow table by the triggers are replaced with the locked current row.
+     */
+    String copySql(String pk, List<String> columns) {
+      final String columnList = columnList("", columns);
+      return "replace into " + shadow() + " (" + columnList + ") select " + columnList + " from " + qualified()
+        + " where " + quote(pk) + " >= ? and " + quote(pk) + " < ? lock in share mode";
+    }
+
+    String schemaExpression() {
+      return schema == null ? "database()" : "?";
+    }
+
+    int schemaParams() {
+      return schema == null ? 0 : 1;
+    }
+
+    void bindSchema(PreparedStatement stmt) throws SQLException {
+      if (schema != null) {
+        stmt.setString(1, schema);
+      }
+    }
+
+    private static String columnList(String prefix, List<String> columns) {
+      StringJoiner joiner = new StringJoiner(", ");
+      for (String column : columns) {
+        joiner.add(prefix + quote(column));
+      }
+      return joiner.toString();
+    }
+
+    private static String name(String prefix, String table, String suffix) {
+      final String name = prefix + table + suffix;
+      return name.length() > MAX_NAME_LENGTH ? prefix + table.substring(0, MAX_NAME_LENGTH - prefix.length() - suffix.length()) + suffix : name;
+    }
+  }
+}
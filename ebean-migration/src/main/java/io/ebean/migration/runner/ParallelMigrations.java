@@ -0,0 +1,435 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.System.Logger.Level.*;
+
+/**
+ * Executes migrations in parallel across multiple connections in dependency order.
+ * <p>
+ * For repeatable migrations the dependencies are declared with a header comment like
+ * {@code -- depends: R__base_views}.
+ * <p>
+ * For versioned migrations the module is declared with a header comment like
+ * {@code -- module: billing} and dependencies on other modules with {@code -- depends: core}.
+ * Migrations of a module execute in version order after the preceding migrations of the
+ * modules it depends on. Only migrations with a module are executed here.
+ * <p>
+ * A migration given the row to insert is recorded in the migration table in the same
+ * transaction as it executes. Otherwise (the rerun of an existing migration) it is recorded
+ * by the caller using the main migration connection.
+ */
+final class ParallelMigrations {
+
+  private static final System.Logger log = MigrationTable.log;
+
+  private static final String DEPENDS = "-- depends:";
+  private static final String MODULE = "-- module:";
+
+  private final MigrationConfig config;
+  private final MigrationPlatform platform;
+  private final Supplier<Connection> connectionSupplier;
+  private final int threads;
+  private final boolean versioned;
+  private final boolean allowError;
+  private final String insertSql;
+  private final List<Task> tasks = new ArrayList<>();
+  private final Set<String> keys = new HashSet<>();
+  private SQLException failure;
+
+  private ParallelMigrations(MigrationConfig config, MigrationPlatform platform, Supplier<Connection> connectionSupplier,
+                             int threads, boolean versioned, boolean allowError, String insertSql) {
+    this.config = config;
+    this.platform = platform;
+    this.connectionSupplier = connectionSupplier;
+    this.threads = threads;
+    this.versioned = versioned;
+    this.allowError = allowError;
+    this.insertSql = insertSql;
+  }
+
+  /**
+   * Create for repeatable migrations with dependencies declared by {@code -- depends:} header comments.
+   */
+  static ParallelMigrations repeatables(MigrationConfig config, MigrationPlatform platform, Supplier<Connection> connectionSupplier, String insertSql) {
+    return new ParallelMigrations(config, platform, connectionSupplier, config.getRepeatableThreads(), false, config.isAllowErrorInRepeatable(), insertSql);
+  }
+
+  /**
+   * Create for versioned migrations with modules declared by {@code -- module:} header comments.
+   */
+  static ParallelMigrations versions(MigrationConfig config, MigrationPlatform platform, Supplier<Connection> connectionSupplier, String insertSql) {
+    return new ParallelMigrations(config, platform, connectionSupplier, config.getModuleThreads(), true, false, insertSql);
+  }
+
+  /**
+   * Add a migration to be executed (in version order).
+   */
+  void add(LocalMigrationResource local, String script, int checksum, MigrationMetaRow existing) {
+    tasks.add(new Task(local, script, checksum, existing));
+    keys.add(local.key());
+  }
+
+  /**
+   * Return the migrations to execute (in version order).
+   */
+  List<Task> tasks() {
+    return tasks;
+  }
+
+  /**
+   * Return true if the migration has been added to be executed.
+   */
+  boolean contains(String key) {
+    return keys.contains(key);
+  }
+
+  /**
+   * Remove the migrations that are already applied according to the (re-read) migration table.
+   * <p>
+   * This is the case when another process ran the migrations while the lock on the migration
+   * table was released by an intermediate commit.
+   */
+  void removeApplied(Map<String, MigrationMetaRow> migrations) {
+    for (Iterator<Task> iterator = tasks.iterator(); iterator.hasNext(); ) {
+      final Task task = iterator.next();
+      final MigrationMetaRow row = migrations.get(task.local.key());
+      if (row != null && (task.existing == null || row.checksum() == task.checksum)) {
+        log.log(INFO, "Skip migration {0} already run by another process", task.local.location());
+        iterator.remove();
+        keys.remove(task.local.key());
+      }
+    }
+  }
+
+  /**
+   * Return true if there are no migrations to execute.
+   */
+  boolean isEmpty() {
+    return tasks.isEmpty();
+  }
+
+  /**
+   * Return the error that stopped the execution of the migrations (or null).
+   * <p>
+   * The migrations that executed successfully before the failure are still returned
+   * by {@link #run(MigrationScriptRunner)} to be recorded in the migration table.
+   */
+  SQLException failure() {
+    return failure;
+  }
+
+  /**
+   * Execute the migrations in dependency order.
+   *
+   * @param mainRunner The script runner of the main connection that collects the non-transactional statements
+   * @return The successfully executed migrations in their original order
+   */
+  List<Task> run(MigrationScriptRunner mainRunner) throws SQLException {
+    if (versioned) {
+      initModuleDependencies();
+    } else {
+      initRepeatableDependencies();
+    }
+    final int threadCount = Math.min(threads, tasks.size());
+    log.log(DEBUG, "run {0} migrations in parallel using {1} connections", tasks.size(), threadCount);
+    final BlockingQueue<Connection> connections = new ArrayBlockingQueue<>(threadCount);
+    // all the worker connections, including those taken by migrations still executing
+    final List<Connection> opened = new ArrayList<>(threadCount);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount, new WorkerFactory());
+    try {
+      for (int i = 0; i < threadCount; i++) {
+        connections.add(workerConnection(opened));
+      }
+      execute(new ExecutorCompletionService<>(executor), connections, mainRunner);
+    } finally {
+      shutdown(executor);
+      for (Connection connection : opened) {
+        close(connection);
+      }
+    }
+    List<Task> executed = new ArrayList<>(tasks.size());
+    for (Task task : tasks) {
+      if (task.executed) {
+        executed.add(task);
+      }
+    }
+    tasks.clear();
+    keys.clear();
+    return executed;
+  }
+
+  private void execute(CompletionService<Task> completion, BlockingQueue<Connection> connections, MigrationScriptRunner mainRunner) {
+    int submitted = 0;
+    for (Task task : tasks) {
+      if (task.remaining == 0) {
+        completion.submit(() -> task.execute(connections));
+        submitted++;
+      }
+    }
+    try {
+      for (int done = 0; done < submitted; done++) {
+        final Task task = completion.take().get();
+        if (task.error != null) {
+          if (!allowError) {
+            // stop submitting migrations and wait for the ones executing to complete
+            failure = task.error;
+            continue;
+          }
+          log.log(ERROR, "Continue migration with error executing repeatable migration " + task.local.version(), task.error);
+        } else {
+          mainRunner.addNonTransactional(task.runner);
+        }
+        if (failure == null) {
+          for (Task dependent : task.dependents) {
+            if (--dependent.remaining == 0) {
+              completion.submit(() -> dependent.execute(connections));
+              submitted++;
+            }
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MigrationException("Interrupted executing migrations", e);
+    } catch (ExecutionException e) {
+      throw new MigrationException("Error executing migrations", e.getCause());
+    }
+  }
+
+  /**
+   * Resolve the declared dependencies between the repeatable migrations to execute.
+   * <p>
+   * Dependencies on repeatable migrations that do not need to execute are already satisfied.
+   */
+  private void initRepeatableDependencies() {
+    Map<String, Task> byKey = new HashMap<>();
+    for (Task task : tasks) {
+      byKey.put(task.local.key(), task);
+    }
+    for (Task task : tasks) {
+      for (String key : dependsOn(task.script)) {
+        task.dependsOn(byKey.get(key));
+      }
+    }
+    checkNoCycle();
+  }
+
+  /**
+   * Resolve the dependencies between the versioned migrations based on their modules.
+   * <p>
+   * Dependencies are only on preceding migrations (in version order) so there are no cycles.
+   * The migrations without a module have executed on the main connection before these.
+   */
+  private void initModuleDependencies() {
+    Map<String, Task> lastByModule = new HashMap<>();
+    for (Task task : tasks) {
+      final String module = module(task.script);
+      task.dependsOn(lastByModule.get(module));
+      for (String dependency : dependsOn(task.script)) {
+        task.dependsOn(lastByModule.get(dependency));
+      }
+      lastByModule.put(module, task);
+    }
+  }
+
+  private void checkNoCycle() {
+    Map<Task, Integer> remaining = new HashMap<>();
+    Deque<Task> ready = new ArrayDeque<>();
+    for (Task task : tasks) {
+      remaining.put(task, task.remaining);
+      if (task.remaining == 0) {
+        ready.add(task);
+      }
+    }
+    int count = 0;
+    while (!ready.isEmpty()) {
+      count++;
+      for (Task dependent : ready.poll().dependents) {
+        if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+    if (count < tasks.size()) {
+      StringJoiner cycle = new StringJoiner(", ");
+      remaining.forEach((task, value) -> {
+        if (value > 0) {
+          cycle.add(task.local.location());
+        }
+      });
+      throw new MigrationException("Cyclic dependency between " + (versioned ? "migration modules " : "repeatable migrations ") + cycle);
+    }
+  }
+
+  /**
+   * Return the module declared in a {@code -- module:} header comment (or empty when there is no module).
+   */
+  static String module(String script) {
+    final List<String> values = header(script, MODULE);
+    return values.isEmpty() ? "" : values.get(0).toLowerCase();
+  }
+
+  /**
+   * Return true if the versioned migration declares a module such that it can execute in parallel.
+   */
+  static boolean hasModule(String script) {
+    return !module(script).isEmpty();
+  }
+
+  /**
+   * Return the keys of the repeatable migrations (or modules) declared in {@code -- depends:} header comments.
+   */
+  static Set<String> dependsOn(String script) {
+    Set<String> keys = new LinkedHashSet<>();
+    for (String name : header(script, DEPENDS)) {
+      keys.add(key(name));
+    }
+    return keys;
+  }
+
+  /**
+   * Return the values of the header comments with the given prefix.
+   */
+  private static List<String> header(String script, String prefix) {
+    List<String> values = new ArrayList<>();
+    for (String line : script.split("\n")) {
+      final String trimmed = line.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      if (!trimmed.startsWith("--")) {
+        // end of header comments
+        break;
+      }
+      if (trimmed.regionMatches(true, 0, prefix, 0, prefix.length())) {
+        for (String value : trimmed.substring(prefix.length()).split("[,\\s]+")) {
+          if (!value.isEmpty()) {
+            values.add(value);
+          }
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Return the key of the repeatable migration (the lower case comment) given the declared name.
+   */
+  private static String key(String name) {
+    String key = name.endsWith(".sql") ? name.substring(0, name.length() - 4) : name;
+    if (key.length() > 3 && key.regionMatches(true, 0, "R__", 0, 3)) {
+      key = key.substring(3);
+    }
+    return key.toLowerCase();
+  }
+
+  private Connection workerConnection(List<Connection> opened) throws SQLException {
+    final Connection connection = connectionSupplier.get();
+    opened.add(connection);
+    connection.setAutoCommit(false);
+    MigrationSchema.setIfNeeded(config, connection);
+    return connection;
+  }
+
+  private static void shutdown(ExecutorService executor) {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.log(WARNING, "Timeout waiting for migrations to complete");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void close(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      log.log(WARNING, "Error closing connection", e);
+    }
+  }
+
+  /**
+   * A migration to execute.
+   */
+  final class Task {
+
+    final LocalMigrationResource local;
+    final String script;
+    final int checksum;
+    final MigrationMetaRow existing;
+    MigrationMetaRow insert;
+    private final List<Task> dependents = new ArrayList<>();
+    private int remaining;
+    private MigrationScriptRunner runner;
+    private SQLException error;
+    private boolean executed;
+    long exeMillis;
+
+    Task(LocalMigrationResource local, String script, int checksum, MigrationMetaRow existing) {
+      this.local = local;
+      this.script = script;
+      this.checksum = checksum;
+      this.existing = existing;
+    }
+
+    /**
+     * Add a dependency such that this migration executes after the given migration.
+     */
+    void dependsOn(Task dependency) {
+      if (dependency != null && dependency != this && !dependency.dependents.contains(this)) {
+        dependency.dependents.add(this);
+        remaining++;
+      }
+    }
+
+    /**
+     * Execute the script on a worker connection and commit (with the insert of its row).
+     */
+    Task execute(BlockingQueue<Connection> connections) throws InterruptedException {
+      final Connection connection = connections.take();
+      try {
+        log.log(DEBUG, "run migration {0}", local.location());
+        final long start = System.currentTimeMillis();
+        runner = new MigrationScriptRunner(connection, platform, config);
+        runner.runScript(script, "run migration version: " + local.version());
+        exeMillis = System.currentTimeMillis() - start;
+        if (insert != null) {
+          // recorded in the same transaction as the migration
+          insert.setRunTime(exeMillis);
+          insert.executeInsert(platform, connection, insertSql);
+        }
+        connection.commit();
+        executed = true;
+      } catch (SQLException e) {
+        error = e;
+        MigrationEngine.rollback(connection);
+      } finally {
+        connections.add(connection);
+      }
+      return this;
+    }
+  }
+
+  private static final class WorkerFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "ebean-migration-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
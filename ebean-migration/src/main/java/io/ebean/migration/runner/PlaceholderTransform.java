@@ -0,0 +1,91 @@
+package io.ebean.migration.runner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces <code>${key}</code> placeholders in migration scripts with their configured values.
+ * <p>
+ * The script is scanned once for placeholders (rather than a full string replace pass per
+ * placeholder) using a reusable per thread builder. Scripts without placeholders, which is most
+ * of them, are returned as is without allocating.
+ * <p>
+ * Placeholders without a configured value are left as is and replaced values are not scanned
+ * for further placeholders.
+ */
+final class PlaceholderTransform {
+
+  private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+  private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+  private final Map<String, String> placeholders;
+
+  PlaceholderTransform(Map<String, String> placeholders) {
+    this.placeholders = placeholders;
+  }
+
+  /**
+   * Build given the comma (or semicolon) delimited key=value pairs and a map of placeholders.
+   */
+  static PlaceholderTransform build(String keyValuePairs, Map<String, String> map) {
+    Map<String, String> placeholders = new HashMap<>();
+    if (keyValuePairs != null) {
+      for (String pair : keyValuePairs.split("[,;]")) {
+        final String[] keyValue = pair.split("=");
+        if (keyValue.length == 2) {
+          placeholders.put(keyValue[0].trim(), keyValue[1].trim());
+        }
+      }
+    }
+    if (map != null) {
+      placeholders.putAll(map);
+    }
+    return new PlaceholderTransform(placeholders);
+  }
+
+  /**
+   * Return the script with the placeholders replaced.
+   */
+  String transform(String script) {
+    if (placeholders.isEmpty()) {
+      return script;
+    }
+    int start = script.indexOf("${");
+    if (start < 0) {
+      return script;
+    }
+    final StringBuilder sb = builder(script.length());
+    int copied = 0;
+    boolean replaced = false;
+    while (start >= 0) {
+      final int end = script.indexOf('}', start + 2);
+      if (end < 0) {
+        break;
+      }
+      final String value = placeholders.get(script.substring(start + 2, end));
+      if (value != null) {
+        sb.append(script, copied, start).append(value);
+        copied = end + 1;
+        replaced = true;
+      }
+      start = script.indexOf("${", value != null ? end + 1 : start + 2);
+    }
+    if (!replaced) {
+      return script;
+    }
+    sb.append(script, copied, script.length());
+    return sb.toString();
+  }
+
+  private static StringBuilder builder(int length) {
+    StringBuilder sb = BUILDER.get();
+    if (sb.capacity() > MAX_RETAINED_CAPACITY && length < MAX_RETAINED_CAPACITY) {
+      // do not retain a large builder used for a large script
+      sb = new StringBuilder(length + 256);
+      BUILDER.set(sb);
+    }
+    sb.setLength(0);
+    return sb;
+  }
+}
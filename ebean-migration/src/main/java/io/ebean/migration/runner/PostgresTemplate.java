@@ -0,0 +1,234 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Creates a new Postgres database by cloning a fully migrated template database.
+ * <p>
+ * The template database is keyed by a hash of the migrations such that a new template is created
+ * (and migrated) when the migrations change. Creating a database {@code WITH TEMPLATE} is much
+ * faster than running all the migrations. When a new template is created and
+ * {@link MigrationConfig#isTemplateDropPrior()} is set, the prior template databases (of the same
+ * prefix) that are not in use are dropped.
+ */
+final class PostgresTemplate {
+
+  private static final System.Logger log = MigrationEngine.log;
+
+  private static final String URL_PREFIX = "jdbc:postgresql://";
+  private static final String ADMIN_DATABASE = "postgres";
+  private static final int MAX_NAME_LENGTH = 63;
+
+  private final MigrationConfig config;
+  private final String serverUrl;
+  private final String database;
+  private final String urlSuffix;
+
+  /**
+   * Create for the database given by the configured url.
+   */
+  PostgresTemplate(MigrationConfig config) {
+    this.config = config;
+    final String url = config.getDbUrl();
+    if (url == null || !url.startsWith(URL_PREFIX)) {
+      throw new MigrationException("Template mode requires a Postgres url but was " + url);
+    }
+    final int slash = url.indexOf('/', URL_PREFIX.length());
+    if (slash < 0) {
+      throw new MigrationException("No database name in url " + url);
+    }
+    final int query = url.indexOf('?', slash);
+    this.serverUrl = url.substring(0, slash + 1);
+    this.database = query < 0 ? url.substring(slash + 1) : url.substring(slash + 1, query);
+    this.urlSuffix = query < 0 ? "" : url.substring(query);
+  }
+
+  /**
+   * Create the database by cloning the template database if the database does not exist.
+   * <p>
+   * The template database is created and migrated first if needed.
+   *
+   * @return True if the database was created from the template
+   */
+  boolean createIfNeeded() {
+    try (Connection admin = connection(ADMIN_DATABASE)) {
+      admin.setAutoCommit(true);
+      if (databaseExists(admin, database)) {
+        return false;
+      }
+      // only hash the migrations when the database needs to be created
+      return createFromTemplate(admin, templateName(config.getTemplatePrefix(), migrationsHash()));
+    } catch (SQLException e) {
+      throw new MigrationException("Error creating database " + database + " from template", e);
+    }
+  }
+
+  /**
+   * Create the database from the template (creating the template first if needed).
+   */
+  private boolean createFromTemplate(Connection admin, String template) throws SQLException {
+    lock(admin, template);
+    try {
+      if (!databaseExists(admin, template)) {
+        createTemplate(admin, template);
+        if (config.isTemplateDropPrior()) {
+          dropPriorTemplates(admin, template);
+        }
+      }
+      if (databaseExists(admin, database)) {
+        // created by another process while waiting for the lock
+        return false;
+      }
+      long start = System.currentTimeMillis();
+      execute(admin, "create database " + quote(database) + " template " + quote(template));
+      log.log(INFO, "Created database {0} from template {1} in {2}ms", database, template, System.currentTimeMillis() - start);
+      return true;
+    } finally {
+      unlock(admin, template);
+    }
+  }
+
+  private void createTemplate(Connection admin, String template) throws SQLException {
+    log.log(INFO, "Creating template database {0}", template);
+    execute(admin, "create database " + quote(template));
+    try {
+      // the connection is closed by the engine
+      new MigrationEngine(config, false).run(connection(template));
+    } catch (RuntimeException e) {
+      execute(admin, "drop database " + quote(template));
+      throw e;
+    }
+  }
+
+  /**
+   * Drop the template databases of prior migrations (skipping those in use).
+   */
+  private void dropPriorTemplates(Connection admin, String template) throws SQLException {
+    final String stem = template.substring(0, template.lastIndexOf('_') + 1);
+    final List<String> priorTemplates = new ArrayList<>();
+    try (PreparedStatement statement = admin.prepareStatement("select datname from pg_database where datname like ? escape '!'")) {
+      statement.setString(1, stem.replace("!", "!!").replace("_", "!_").replace("%", "!%") + '%');
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          final String name = resultSet.getString(1);
+          if (isPriorTemplate(template, name)) {
+            priorTemplates.add(name);
+          }
+        }
+      }
+    }
+    for (String name : priorTemplates) {
+      try {
+        execute(admin, "drop database " + quote(name));
+        log.log(INFO, "Dropped prior template database {0}", name);
+      } catch (SQLException e) {
+        log.log(WARNING, "Unable to drop prior template database {0} - {1}", name, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Return true if the name is that of another template database with the same prefix.
+   */
+  static boolean isPriorTemplate(String template, String name) {
+    final int hashStart = template.lastIndexOf('_') + 1;
+    if (name.equals(template) || name.length() != template.length() || !name.regionMatches(0, template, 0, hashStart)) {
+      return false;
+    }
+    for (int i = hashStart; i < name.length(); i++) {
+      if (Character.digit(name.charAt(i), 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the hash of the local migrations used to key the template database.
+   */
+  String migrationsHash() {
+    return MigrationsHash.of(config);
+  }
+
+  /**
+   * Return the name of the template database for the given prefix and migrations hash.
+   */
+  static String templateName(String prefix, String hash) {
+    final String name = (prefix + '_' + hash).toLowerCase();
+    return name.length() > MAX_NAME_LENGTH ? name.substring(name.length() - MAX_NAME_LENGTH) : name;
+  }
+
+  /**
+   * Return the database name parsed from the url.
+   */
+  String database() {
+    return database;
+  }
+
+  /**
+   * Return the url for the given database (on the same server).
+   */
+  String url(String databaseName) {
+    return serverUrl + databaseName + urlSuffix;
+  }
+
+  private Connection connection(String databaseName) throws SQLException {
+    Properties props = new Properties();
+    final String username = config.getDbUsername();
+    if (username != null) {
+      props.setProperty("user", username);
+    }
+    final String password = config.getDbPassword();
+    if (password != null) {
+      props.setProperty("password", password);
+    }
+    return DriverManager.getConnection(url(databaseName), props);
+  }
+
+  private static boolean databaseExists(Connection admin, String name) throws SQLException {
+    try (PreparedStatement statement = admin.prepareStatement("select 1 from pg_database where datname = ?")) {
+      statement.setString(1, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next();
+      }
+    }
+  }
+
+  private static void lock(Connection admin, String template) throws SQLException {
+    try (PreparedStatement statement = admin.prepareStatement("select pg_advisory_lock(?)")) {
+      statement.setLong(1, template.hashCode());
+      statement.execute();
+    }
+  }
+
+  private static void unlock(Connection admin, String template) throws SQLException {
+    try (PreparedStatement statement = admin.prepareStatement("select pg_advisory_unlock(?)")) {
+      statement.setLong(1, template.hashCode());
+      statement.execute();
+    }
+  }
+
+  private static void execute(Connection admin, String sql) throws SQLException {
+    try (Statement statement = admin.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static String quote(String name) {
+    return '"' + name.replace("\"", "\"\"") + '"';
+  }
+}
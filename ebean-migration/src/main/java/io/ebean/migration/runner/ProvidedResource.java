@@ -0,0 +1,73 @@
+package io.ebean.migration.runner;
+
+import io.avaje.classpath.scanner.Resource;
+import io.ebean.migration.MigrationResourceProvider;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A migration script of a {@link MigrationResourceProvider}.
+ */
+final class ProvidedResource implements Resource {
+
+  private final MigrationResourceProvider.Script script;
+
+  ProvidedResource(MigrationResourceProvider.Script script) {
+    this.script = script;
+  }
+
+  @Override
+  public String location() {
+    return script.location();
+  }
+
+  @Override
+  public String name() {
+    final String location = script.location();
+    return location.substring(Math.max(location.lastIndexOf('/'), location.lastIndexOf('!')) + 1);
+  }
+
+  @Override
+  public String toString() {
+    return location();
+  }
+
+  @Override
+  public InputStream inputStream() {
+    try {
+      return script.open();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + location(), e);
+    }
+  }
+
+  @Override
+  public List<String> loadAsLines(Charset charset) {
+    return new BufferedReader(new StringReader(loadAsString(charset))).lines().collect(Collectors.toList());
+  }
+
+  @Override
+  public String loadAsString(Charset charset) {
+    try (InputStream in = script.open()) {
+      return new String(in.readAllBytes(), charset);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + location(), e);
+    }
+  }
+
+  /**
+   * Return the checksum provided with the script or otherwise calculated from the content.
+   */
+  int checksum() {
+    final Integer checksum = script.checksum();
+    return checksum != null ? checksum : Checksum.calculate(loadAsString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,76 @@
+package io.ebean.migration.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.zip.ZipEntry;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+/**
+ * Cheap fingerprint of a migration resource that does not read the resource content.
+ * <p>
+ * For a resource in a jar this is the entry size plus CRC32 from the jar central directory.
+ * For a resource on the file system this is the file size plus last modified time.
+ */
+final class ResourceFingerprint {
+
+  /**
+   * Fingerprint value when the fingerprint can not be determined.
+   */
+  static final long UNKNOWN = 0;
+
+  private ResourceFingerprint() {
+  }
+
+  /**
+   * Return the fingerprint of the resource at the given URL or {@link #UNKNOWN}.
+   */
+  static long of(URL url) {
+    try {
+      switch (url.getProtocol()) {
+        case "jar":
+          URLConnection connection = url.openConnection();
+          if (connection instanceof JarURLConnection) {
+            return of(((JarURLConnection) connection).getJarEntry());
+          }
+          return UNKNOWN;
+        case "file":
+          return of(new File(url.toURI()));
+        default:
+          return UNKNOWN;
+      }
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      MigrationTable.log.log(TRACE, "unable to fingerprint {0} {1}", url, e);
+      return UNKNOWN;
+    }
+  }
+
+  /**
+   * Return the fingerprint of the zip entry using the CRC32 and size from the central directory.
+   */
+  static long of(ZipEntry entry) {
+    if (entry == null || entry.getCrc() == -1 || entry.getSize() == -1) {
+      return UNKNOWN;
+    }
+    return combine(entry.getCrc(), entry.getSize());
+  }
+
+  /**
+   * Return the fingerprint of the file using the last modified time and size.
+   */
+  static long of(File file) {
+    if (!file.isFile()) {
+      return UNKNOWN;
+    }
+    return combine(file.lastModified(), file.length());
+  }
+
+  private static long combine(long value, long size) {
+    final long fingerprint = value * 1_000_003L + size;
+    return fingerprint == UNKNOWN ? 1 : fingerprint;
+  }
+}
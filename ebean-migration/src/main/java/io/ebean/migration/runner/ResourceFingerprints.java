@@ -0,0 +1,81 @@
+package io.ebean.migration.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+/**
+ * Fingerprints of the migration resources of a scan.
+ * <p>
+ * For resources in a jar file the CRC32 and size of all the entries under the migration
+ * path are read once from the zip central directory (without inflating any entry).
+ */
+final class ResourceFingerprints {
+
+  private static final String JAR_FILE_PREFIX = "jar:file:";
+  private static final String JAR_SEPARATOR = "!/";
+
+  private final ClassLoader classLoader;
+  private final Map<String, Map<String, Long>> jars = new HashMap<>();
+
+  ResourceFingerprints(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Return the fingerprint of the resource at the given location or {@link ResourceFingerprint#UNKNOWN}.
+   *
+   * @param location The classpath location or file system path of the resource
+   */
+  long of(String location) {
+    final URL url = classLoader == null ? null : classLoader.getResource(location);
+    if (url == null) {
+      return ResourceFingerprint.of(new File(location));
+    }
+    final String externalForm = url.toExternalForm();
+    final int pos = externalForm.indexOf(JAR_SEPARATOR);
+    if (externalForm.startsWith(JAR_FILE_PREFIX) && pos > 0 && externalForm.indexOf(JAR_SEPARATOR, pos + 2) < 0) {
+      // entry of a jar file (not nested)
+      final String entryName = externalForm.substring(pos + 2);
+      final Long fingerprint = centralDirectory(externalForm.substring(4, pos), entryName).get(entryName);
+      if (fingerprint != null) {
+        return fingerprint;
+      }
+    }
+    return ResourceFingerprint.of(url);
+  }
+
+  private Map<String, Long> centralDirectory(String jarUrl, String entryName) {
+    final int dir = entryName.lastIndexOf('/');
+    final String directory = dir < 0 ? "" : entryName.substring(0, dir + 1);
+    return jars.computeIfAbsent(jarUrl + JAR_SEPARATOR + directory, key -> readCentralDirectory(jarUrl, directory));
+  }
+
+  /**
+   * Read the fingerprints of the entries in the given directory of the jar from the central directory.
+   */
+  private static Map<String, Long> readCentralDirectory(String jarUrl, String directory) {
+    Map<String, Long> fingerprints = new HashMap<>();
+    try (ZipFile zipFile = new ZipFile(new File(new URL(jarUrl).toURI()))) {
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        final String name = entry.getName();
+        if (name.startsWith(directory) && name.indexOf('/', directory.length()) < 0) {
+          fingerprints.put(name, ResourceFingerprint.of(entry));
+        }
+      }
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      MigrationTable.log.log(TRACE, "unable to read central directory of {0} {1}", jarUrl, e);
+    }
+    return fingerprints;
+  }
+}
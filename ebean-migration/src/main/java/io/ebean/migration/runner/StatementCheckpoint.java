@@ -0,0 +1,158 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationException;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.System.Logger.Level.INFO;
+
+/**
+ * Records the number of statements of the in-flight migration that have executed such that
+ * a migration that failed part way through resumes from the failed statement.
+ * <p>
+ * This is only used for platforms where DDL implicitly commits (MySQL, Oracle, H2) and hence the
+ * statements executed before the failure can not be rolled back. The checkpoint is recorded in a
+ * side table (the migration table name with a {@code _checkpoint} suffix) and committed after each
+ * statement. The checkpoint is removed when the migration is recorded in the migration table.
+ * <p>
+ * A checkpoint is only used to resume when the statements it covers are unchanged, otherwise the
+ * migration fails requiring a manual repair.
+ */
+final class StatementCheckpoint {
+
+  private static final System.Logger log = MigrationTable.log;
+
+  private final MigrationPlatform platform;
+  private final Connection connection;
+  private final String migrationTable;
+  private final String sqlTable;
+  private final Set<String> active = new HashSet<>();
+  private Map<String, int[]> checkpoints;
+
+  StatementCheckpoint(MigrationPlatform platform, Connection connection, String migrationTable) {
+    this.platform = platform;
+    this.connection = connection;
+    this.migrationTable = migrationTable;
+    this.sqlTable = migrationTable + "_checkpoint";
+  }
+
+  /**
+   * Return the number of statements of the migration already executed (0 when starting).
+   */
+  int resumeFrom(String key, List<String> statements) throws SQLException {
+    if (checkpoints == null) {
+      checkpoints = readCheckpoints();
+    }
+    final int[] checkpoint = checkpoints.remove(key);
+    if (checkpoint == null) {
+      return 0;
+    }
+    active.add(key);
+    final int count = checkpoint[0];
+    if (count > statements.size() || checkpoint[1] != checksum(statements, count)) {
+      throw new MigrationException("Migration " + key + " failed after " + count + " statements and the executed statements"
+        + " have since changed. Repair the database and delete the row from " + sqlTable + " to run the migration again");
+    }
+    log.log(INFO, "Resume migration {0} from statement {1} of {2}", key, count + 1, statements.size());
+    return count;
+  }
+
+  /**
+   * Record that the given number of statements have executed and commit.
+   */
+  void save(String key, List<String> statements, int count) throws SQLException {
+    final int checksum = checksum(statements, count);
+    final int rows;
+    try (PreparedStatement stmt = connection.prepareStatement("update " + sqlTable + " set mstatement = ?, mchecksum = ? where mkey = ?")) {
+      stmt.setInt(1, count);
+      stmt.setInt(2, checksum);
+      stmt.setString(3, key);
+      rows = stmt.executeUpdate();
+    }
+    if (rows == 0) {
+      try (PreparedStatement stmt = connection.prepareStatement("insert into " + sqlTable + " (mkey, mstatement, mchecksum) values (?, ?, ?)")) {
+        stmt.setString(1, key);
+        stmt.setInt(2, count);
+        stmt.setInt(3, checksum);
+        stmt.executeUpdate();
+      }
+    }
+    active.add(key);
+    connection.commit();
+    platform.relockMigrationTable(migrationTable, connection);
+  }
+
+  /**
+   * Remove the checkpoint of the completed migration (in the migration transaction).
+   */
+  void clear(String key) throws SQLException {
+    if (active.remove(key)) {
+      try (PreparedStatement stmt = connection.prepareStatement("delete from " + sqlTable + " where mkey = ?")) {
+        stmt.setString(1, key);
+        stmt.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * Return the checksum of the first count statements.
+   */
+  static int checksum(List<String> statements, int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append(statements.get(i)).append('\n');
+    }
+    return Checksum.calculate(sb.toString());
+  }
+
+  /**
+   * Read the checkpoints of failed migrations (creating the table if needed).
+   */
+  private Map<String, int[]> readCheckpoints() throws SQLException {
+    Map<String, int[]> map = new HashMap<>();
+    if (!createTableIfNeeded()) {
+      try (Statement stmt = connection.createStatement();
+           ResultSet resultSet = stmt.executeQuery("select mkey, mstatement, mchecksum from " + sqlTable)) {
+        while (resultSet.next()) {
+          map.put(resultSet.getString(1), new int[]{resultSet.getInt(2), resultSet.getInt(3)});
+        }
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Create the table if it does not exist returning true if it was created.
+   */
+  private boolean createTableIfNeeded() throws SQLException {
+    final int dot = sqlTable.lastIndexOf('.');
+    String schema = dot < 0 ? connection.getSchema() : sqlTable.substring(0, dot);
+    String table = sqlTable.substring(dot + 1);
+    DatabaseMetaData metaData = connection.getMetaData();
+    if (metaData.storesUpperCaseIdentifiers()) {
+      table = table.toUpperCase();
+      schema = schema == null ? null : schema.toUpperCase();
+    }
+    try (ResultSet tables = metaData.getTables(connection.getCatalog(), schema, table, null)) {
+      if (tables.next()) {
+        return false;
+      }
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("create table " + sqlTable + " (mkey varchar(255) not null, mstatement integer not null, mchecksum integer not null, constraint pk_" + table.toLowerCase() + " primary key (mkey))");
+    }
+    connection.commit();
+    platform.relockMigrationTable(migrationTable, connection);
+    return true;
+  }
+}
@@ -0,0 +1,96 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationStatementListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.System.Logger.Level.INFO;
+
+/**
+ * Periodically reports the statement that is executing such that a long-running
+ * migration can be told apart from one that has stalled.
+ * <p>
+ * The listener progress callback is invoked from the (shared) progress thread.
+ */
+final class StatementProgress implements Runnable {
+
+  private static final System.Logger log = MigrationTable.log;
+
+  private final String scriptName;
+  private final int total;
+  private final MigrationStatementListener listener;
+  private final ScheduledFuture<?> future;
+  private volatile int ordinal;
+  private volatile String sql;
+  private volatile long startMillis;
+
+  private StatementProgress(String scriptName, int total, MigrationStatementListener listener, int seconds) {
+    this.scriptName = scriptName;
+    this.total = total;
+    this.listener = listener;
+    this.future = Scheduler.INSTANCE.scheduleAtFixedRate(this, seconds, seconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Start reporting the progress of the script or return null if progress reporting is disabled.
+   */
+  static StatementProgress start(String scriptName, int total, MigrationStatementListener listener, int seconds) {
+    return seconds > 0 ? new StatementProgress(scriptName, total, listener, seconds) : null;
+  }
+
+  /**
+   * The statement with the given ordinal is starting.
+   */
+  void statementStart(int ordinal, String sql) {
+    this.ordinal = ordinal;
+    this.startMillis = System.currentTimeMillis();
+    this.sql = sql;
+  }
+
+  /**
+   * The current statement has completed.
+   */
+  void statementEnd() {
+    this.sql = null;
+  }
+
+  /**
+   * Stop reporting the progress of the script.
+   */
+  void stop() {
+    future.cancel(false);
+  }
+
+  @Override
+  public void run() {
+    final String current = sql;
+    if (current == null) {
+      return;
+    }
+    final long elapsedMillis = System.currentTimeMillis() - startMillis;
+    log.log(INFO, "Executing {0} - statement {1} of {2} running for {3}s - {4}", scriptName, ordinal, total, elapsedMillis / 1000, summary(current));
+    if (listener != null) {
+      listener.statementProgress(scriptName, ordinal, total, current, elapsedMillis);
+    }
+  }
+
+  private static String summary(String sql) {
+    final String summary = sql.length() > 80 ? sql.substring(0, 80).trim() + "..." : sql;
+    return summary.replace('\n', ' ');
+  }
+
+  /**
+   * Lazily created daemon thread shared by all the scripts.
+   */
+  private static final class Scheduler {
+
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ebean-migration-progress");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
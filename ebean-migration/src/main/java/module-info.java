@@ -7,6 +7,9 @@ open module io.ebean.migration {
   requires transitive io.avaje.classpath.scanner;
   requires transitive io.ebean.ddl.runner;
   requires io.ebean.migration.auto;
+  requires static org.crac;
+
+  uses io.ebean.migration.MigrationResourceProvider;
 
   provides io.ebean.migration.auto.AutoMigrationRunner with io.ebean.migration.AutoRunner;
 }
@@ -0,0 +1,32 @@
+package dbmig_chunked;
+
+import io.ebean.migration.ChunkedJdbcMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Chunked backfill of the table created (and filled) by the preceding migration.
+ */
+public class V1_1__backfill extends ChunkedJdbcMigration {
+
+  @Override
+  protected String keyQuery() {
+    return "select id from chunk_orders where id >= ? order by id";
+  }
+
+  @Override
+  protected int chunkSize() {
+    return 10;
+  }
+
+  @Override
+  protected int processChunk(Connection connection, long fromKey, long toKey) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("update chunk_orders set status = 'N' where id between ? and ?")) {
+      stmt.setLong(1, fromKey);
+      stmt.setLong(2, toKey);
+      return stmt.executeUpdate();
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package dbmig_modules_jdbc;
+
+import io.ebean.migration.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Jdbc migration using the tables of the preceding (parallel module) migrations.
+ */
+public class V1_2__seed implements JdbcMigration {
+
+  @Override
+  public void migrate(Connection connection) {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("insert into jm_core (id, name) values (1, 'core')");
+      statement.executeUpdate("insert into jm_invoice (id, core_id) values (1, 1)");
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package io.ebean.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkedJdbcMigrationTest {
+
+  static class Backfill extends ChunkedJdbcMigration {
+
+    final List<String> chunks = new ArrayList<>();
+    long failFromKey = -1;
+
+    @Override
+    protected String keyQuery() {
+      return "select id from orders where id >= ? order by id";
+    }
+
+    @Override
+    protected int chunkSize() {
+      return 10;
+    }
+
+    @Override
+    protected int processChunk(Connection connection, long fromKey, long toKey) throws SQLException {
+      chunks.add(fromKey + "-" + toKey);
+      try (PreparedStatement stmt = connection.prepareStatement("update orders set status = 'N' where id between ? and ?")) {
+        stmt.setLong(1, fromKey);
+        stmt.setLong(2, toKey);
+        int rows = stmt.executeUpdate();
+        if (fromKey == failFromKey) {
+          throw new SQLException("Simulated failure");
+        }
+        return rows;
+      }
+    }
+  }
+
+  private static MigrationConfig config(String db) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1");
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    return config;
+  }
+
+  private static void createOrders(MigrationConfig config, int count) throws SQLException {
+    try (Connection connection = config.createConnection(); Statement stmt = connection.createStatement()) {
+      stmt.execute("create table orders (id bigint primary key, status varchar(1))");
+      stmt.execute("insert into orders (id) select x from system_range(1, " + count + ")");
+    }
+  }
+
+  private static long count(MigrationConfig config, String sql) throws SQLException {
+    try (Connection connection = config.createConnection()) {
+      return ChunkedJdbcMigration.queryLong(connection, sql);
+    }
+  }
+
+  @Test
+  void migrate_inChunks() throws SQLException {
+    MigrationConfig config = config("chunked");
+    createOrders(config, 25);
+
+    Backfill backfill = new Backfill();
+    backfill.setMigrationConfig(config);
+    try (Connection connection = config.createConnection()) {
+      connection.setAutoCommit(false);
+      backfill.migrate(connection, config::createConnection);
+      assertThat(backfill.chunks).containsExactly("1-10", "11-20", "21-25");
+      assertThat(count(config, "select count(*) from orders where status = 'N'")).isEqualTo(25);
+      // the progress is removed in the migration transaction
+      assertThat(count(config, "select mrows from db_migration_chunk")).isEqualTo(25);
+      connection.commit();
+    }
+    assertThat(count(config, "select count(*) from db_migration_chunk")).isEqualTo(0);
+  }
+
+  @Test
+  void migrate_resumeAfterFailure() throws SQLException {
+    MigrationConfig config = config("chunkedResume");
+    createOrders(config, 25);
+
+    Backfill failing = new Backfill();
+    failing.setMigrationConfig(config);
+    failing.failFromKey = 11;
+    try (Connection connection = config.createConnection()) {
+      assertThatThrownBy(() -> failing.migrate(connection, config::createConnection))
+        .isInstanceOf(MigrationException.class);
+    }
+    assertThat(failing.chunks).containsExactly("1-10", "11-20");
+    // the failed chunk was rolled back
+    assertThat(count(config, "select count(*) from orders where status = 'N'")).isEqualTo(10);
+    assertThat(count(config, "select mnext_key from db_migration_chunk")).isEqualTo(11);
+
+    Backfill resumed = new Backfill();
+    resumed.setMigrationConfig(config);
+    try (Connection connection = config.createConnection()) {
+      connection.setAutoCommit(false);
+      resumed.migrate(connection, config::createConnection);
+      // the migration transaction (that records the migration) fails
+      connection.rollback();
+    }
+    assertThat(resumed.chunks).containsExactly("11-20", "21-25");
+    assertThat(count(config, "select count(*) from orders where status = 'N'")).isEqualTo(25);
+    assertThat(count(config, "select mrows from db_migration_chunk")).isEqualTo(25);
+
+    // running again after completing the chunks only removes the progress
+    Backfill again = new Backfill();
+    again.setMigrationConfig(config);
+    try (Connection connection = config.createConnection()) {
+      again.migrate(connection, config::createConnection);
+    }
+    assertThat(again.chunks).isEmpty();
+    assertThat(count(config, "select count(*) from db_migration_chunk")).isEqualTo(0);
+  }
+
+  @Test
+  void migrate_sparseKeys() throws SQLException {
+    MigrationConfig config = config("chunkedSparse");
+    try (Connection connection = config.createConnection(); Statement stmt = connection.createStatement()) {
+      stmt.execute("create table orders (id bigint primary key, status varchar(1))");
+      stmt.execute("insert into orders (id) values (1), (5000000), (" + (Long.MAX_VALUE - 1) + "), (" + Long.MAX_VALUE + ")");
+    }
+    Backfill backfill = new Backfill() {
+      @Override
+      protected int chunkSize() {
+        return 2;
+      }
+    };
+    backfill.setMigrationConfig(config);
+    try (Connection connection = config.createConnection()) {
+      backfill.migrate(connection, config::createConnection);
+    }
+    // no empty chunks for the gaps between the keys and no overflow at the maximum key
+    assertThat(backfill.chunks).containsExactly("1-5000000", (Long.MAX_VALUE - 1) + "-" + Long.MAX_VALUE);
+    assertThat(count(config, "select count(*) from orders where status = 'N'")).isEqualTo(4);
+  }
+
+  @Test
+  void run_afterPrecedingMigration() throws SQLException {
+    MigrationConfig config = config("chunkedRunner");
+    config.setPlatform("h2");
+    config.setMigrationPath("dbmig_chunked");
+
+    // 1.0 creates and fills the table, 1.1 backfills it in chunks on another connection
+    new MigrationRunner(config).run();
+
+    assertThat(count(config, "select count(*) from chunk_orders where status = 'N'")).isEqualTo(25);
+    // the progress is removed when the migration is recorded
+    assertThat(count(config, "select count(*) from db_migration_chunk")).isEqualTo(0);
+    assertThat(count(config, "select count(*) from db_migration where mversion in ('1.0', '1.1')")).isEqualTo(2);
+  }
+
+  @Test
+  void run_withConnectionOnly_expect_chunksInMigrationTransaction() throws SQLException {
+    MigrationConfig config = config("chunkedConnectionOnly");
+    config.setPlatform("h2");
+    config.setMigrationPath("dbmig_chunked");
+
+    // no DataSource or db url to obtain a connection for the chunks
+    MigrationConfig runConfig = config("chunkedConnectionOnly");
+    runConfig.setDbUrl(null);
+    runConfig.setPlatform("h2");
+    runConfig.setMigrationPath("dbmig_chunked");
+    new MigrationRunner(runConfig).run(config.createConnection());
+
+    assertThat(count(config, "select count(*) from chunk_orders where status = 'N'")).isEqualTo(25);
+    assertThat(count(config, "select count(*) from db_migration where mversion in ('1.0', '1.1')")).isEqualTo(2);
+  }
+
+  @Test
+  void migrate_throttled() throws SQLException {
+    MigrationConfig config = config("chunkedThrottle");
+    createOrders(config, 30);
+
+    Backfill throttled = new Backfill() {
+      @Override
+      protected int maxRowsPerSecond() {
+        return 100;
+      }
+    };
+    throttled.setMigrationConfig(config);
+    long start = System.currentTimeMillis();
+    try (Connection connection = config.createConnection()) {
+      throttled.migrate(connection, config::createConnection);
+    }
+    // 30 rows at 100 rows per second
+    assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+  }
+
+  @Test
+  void migrate_withoutConnectionSupplier_expect_inMigrationTransaction() throws SQLException {
+    MigrationConfig config = config("chunkedInTransaction");
+    createOrders(config, 25);
+
+    Backfill backfill = new Backfill();
+    backfill.setMigrationConfig(new MigrationConfig());
+    try (Connection connection = config.createConnection()) {
+      connection.setAutoCommit(false);
+      backfill.migrate(connection);
+      assertThat(backfill.chunks).containsExactly("1-10", "11-20", "21-25");
+      assertThat(ChunkedJdbcMigration.queryLong(connection, "select count(*) from orders where status = 'N'")).isEqualTo(25);
+      connection.rollback();
+    }
+    // not committed per chunk and no progress table
+    assertThat(count(config, "select count(*) from orders where status = 'N'")).isEqualTo(0);
+    assertThat(count(config, "select count(*) from information_schema.tables where table_name = 'DB_MIGRATION_CHUNK'")).isEqualTo(0);
+  }
+}
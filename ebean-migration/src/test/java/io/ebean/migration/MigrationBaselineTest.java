@@ -0,0 +1,83 @@
+package io.ebean.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationBaselineTest {
+
+  private static MigrationConfig config(String url) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    config.setDbUrl(url);
+    config.setPlatform("h2");
+    config.setMigrationPath("dbmig");
+    return config;
+  }
+
+  @Test
+  void generate_and_bootstrap() throws Exception {
+    MigrationConfig config = config("jdbc:h2:mem:baselineGenerate");
+    Path directory = Files.createTempDirectory("dbinit");
+
+    MigrationBaseline.Baseline baseline;
+    try (Connection connection = config.createConnection()) {
+      // the side tables of the migration table (statement checkpoints and chunk progress) are excluded
+      try (var statement = connection.createStatement()) {
+        statement.execute("create table db_migration_checkpoint (mkey varchar(255) not null, constraint pk_db_migration_checkpoint primary key (mkey))");
+        statement.execute("insert into db_migration_checkpoint (mkey) values ('1.0')");
+        statement.execute("create table db_migration_chunk (mname varchar(255) not null, constraint pk_db_migration_chunk primary key (mname))");
+      }
+      baseline = new MigrationBaseline(config).generate(connection);
+    }
+    // includes the V1_2_1__test jdbc migration
+    assertThat(baseline.version().raw()).isEqualTo("1.2.1");
+    assertThat(baseline.fileName()).isEqualTo("1.2.1__baseline.sql");
+    assertThat(baseline.script()).contains("\"M1\"", "\"M3\"", "\"M2_VW\"");
+    assertThat(baseline.script()).doesNotContain("DB_MIGRATION", "CREATE USER");
+    // includes the data inserted by the migrations
+    assertThat(baseline.script()).contains("'text with ; sign'");
+    Path path = baseline.write(directory);
+    assertThat(path).exists();
+
+    // bootstrap a new database using the baseline as the dbinit script
+    MigrationConfig initConfig = config("jdbc:h2:mem:baselineBootstrap;DB_CLOSE_DELAY=-1");
+    initConfig.setMigrationInitPath("filesystem:" + directory);
+    new MigrationRunner(initConfig).run();
+
+    try (Connection connection = initConfig.createConnection()) {
+      assertThat(rows(connection)).containsExactly("I hello", "B 1.2.1", "R m2_view");
+      try (PreparedStatement stmt = connection.prepareStatement("select acol from m3");
+           ResultSet rset = stmt.executeQuery()) {
+        assertThat(rset.next()).isTrue();
+        assertThat(rset.getString(1)).isEqualTo("text with ; sign");
+      }
+    }
+    // subsequent runs have nothing to do
+    assertThat(new MigrationRunner(initConfig).checkState()).isEmpty();
+
+    Files.delete(path);
+    Files.delete(directory);
+  }
+
+  private static List<String> rows(Connection connection) throws SQLException {
+    List<String> rows = new ArrayList<>();
+    try (PreparedStatement stmt = connection.prepareStatement("select mtype, mversion from db_migration where id > 0 order by id");
+         ResultSet rset = stmt.executeQuery()) {
+      while (rset.next()) {
+        rows.add(rset.getString(1) + " " + rset.getString(2));
+      }
+    }
+    return rows;
+  }
+}
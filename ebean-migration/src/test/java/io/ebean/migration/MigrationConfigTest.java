@@ -55,6 +55,22 @@ public class MigrationConfigTest {
     assertLoadedProperties(props);
   }
 
+  @Test
+  public void loadProperties_fetchSize_queryTimeout() {
+
+    Properties props = new Properties();
+    props.setProperty("ebean.migration.fetchSize", "500");
+    props.setProperty("ebean.migration.queryTimeout", "30");
+
+    MigrationConfig config = new MigrationConfig();
+    assertEquals(config.getFetchSize(), 0);
+    assertEquals(config.getQueryTimeout(), 0);
+
+    config.load(props);
+    assertEquals(config.getFetchSize(), 500);
+    assertEquals(config.getQueryTimeout(), 30);
+  }
+
   @Test
   public void loadProperties() {
 
@@ -0,0 +1,119 @@
+package io.ebean.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MigrationResourceProviderTest {
+
+  private static MigrationConfig config(String db) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    config.setDbUrl("jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1");
+    config.setPlatform("h2");
+    return config;
+  }
+
+  @Test
+  void run_withProvider() {
+    AtomicInteger reads = new AtomicInteger();
+    MigrationConfig config = config("provider");
+    config.setMigrationPath("memory:tenant");
+    config.addResourceProvider((cfg, path) -> {
+      if (!"memory:tenant".equals(path)) {
+        return null;
+      }
+      return List.of(
+        new MemoryScript("1.1__second.sql", "alter table mem_a add column name varchar(10);", reads),
+        new MemoryScript("1.0__initial.sql", "create table mem_a (id integer);", reads));
+    });
+
+    MigrationRunner runner = new MigrationRunner(config);
+    List<MigrationResource> pending = runner.checkState();
+    assertThat(pending).extracting(MigrationResource::key).containsExactly("1.0", "1.1");
+    runner.run();
+    assertThat(runner.checkState()).isEmpty();
+
+    // the fast mode check uses the provided checksums without reading the content
+    reads.set(0);
+    runner.run();
+    assertThat(reads.get()).isZero();
+  }
+
+  @Test
+  void run_withArchive() throws Exception {
+    Path archive = Files.createTempFile("migrations", ".zip");
+    try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+      entry(zip, "dbmigration/1.0__other.sql", "create table arc_other (id integer);");
+      entry(zip, "dbmigration/h2/1.0__initial.sql", "create table arc_a (id integer);");
+      entry(zip, "dbmigration/h2/1.1__second.sql", "create table arc_b (id integer);");
+    }
+    MigrationConfig config = config("archive");
+    config.setMigrationPath("archive:" + archive + "!dbmigration");
+
+    MigrationRunner runner = new MigrationRunner(config);
+    List<MigrationResource> pending = runner.checkState();
+    assertThat(pending).extracting(MigrationResource::key).containsExactly("1.0", "1.1");
+    assertThat(pending.get(0).content()).isEqualTo("create table arc_a (id integer);");
+    runner.run();
+    assertThat(runner.checkState()).isEmpty();
+
+    config.setMigrationPath("archive:" + archive.resolveSibling("doesNotExist.zip"));
+    assertThatThrownBy(() -> new MigrationRunner(config).checkState())
+      .isInstanceOf(MigrationException.class)
+      .hasMessageContaining("doesNotExist.zip");
+    Files.delete(archive);
+  }
+
+  private static void entry(ZipOutputStream zip, String name, String content) throws Exception {
+    zip.putNextEntry(new ZipEntry(name));
+    zip.write(content.getBytes(StandardCharsets.UTF_8));
+    zip.closeEntry();
+  }
+
+  private static final class MemoryScript implements MigrationResourceProvider.Script {
+
+    private final String name;
+    private final String content;
+    private final AtomicInteger reads;
+
+    MemoryScript(String name, String content, AtomicInteger reads) {
+      this.name = name;
+      this.content = content;
+      this.reads = reads;
+    }
+
+    @Override
+    public MigrationVersion version() {
+      return MigrationVersion.parse(name.substring(0, name.length() - 4));
+    }
+
+    @Override
+    public String location() {
+      return "memory:tenant/" + name;
+    }
+
+    @Override
+    public Integer checksum() {
+      return MigrationResourceProvider.checksum(content);
+    }
+
+    @Override
+    public InputStream open() {
+      reads.incrementAndGet();
+      return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -6,12 +6,16 @@ import io.ebean.datasource.DataSourcePool;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,6 +50,176 @@ public class MigrationRunnerTest {
     runner.run();
   }
 
+  @Test
+  public void run_when_lockInitRowOnly() {
+
+    MigrationConfig config = createMigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:lockInitRowOnly;DB_CLOSE_DELAY=-1");
+    // use the default row locking platform
+    config.setPlatform("generic");
+    config.setFastMode(false);
+    config.setLockInitRowOnly(true);
+    config.setMigrationPath("dbmig");
+
+    MigrationRunner runner = new MigrationRunner(config);
+    runner.run();
+    // run again with the table and init row existing
+    assertThat(runner.checkState()).isEmpty();
+    runner.run();
+  }
+
+  @Test
+  public void run_with_checksumCacheFile() throws Exception {
+
+    MigrationConfig config = createMigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:checksumCache;DB_CLOSE_DELAY=-1");
+    config.setEarlyChecksumMode(true);
+    config.setFastMode(false);
+    config.setMigrationPath("dbmig");
+    Path cacheFile = Files.createTempFile("checksum", ".cache");
+    Files.delete(cacheFile);
+    config.setChecksumCacheFile(cacheFile.toString());
+
+    MigrationRunner runner = new MigrationRunner(config);
+    runner.run();
+
+    List<String> lines = Files.readAllLines(cacheFile);
+    assertThat(lines).hasSize(4);
+    assertThat(lines).anyMatch(line -> line.endsWith("dbmig/R__m2_view.sql"));
+
+    // change the checksum in both the cache and migration table such that the content checksum no longer
+    // matches, the repeatable migration is still skipped as the fingerprint matches the cached entry
+    List<String> modified = new ArrayList<>();
+    for (String line : lines) {
+      if (line.endsWith("dbmig/R__m2_view.sql")) {
+        String[] parts = line.split(",");
+        line = parts[0] + ",42," + parts[2];
+      }
+      modified.add(line);
+    }
+    Files.write(cacheFile, modified);
+    try (Connection connection = config.createConnection()) {
+      try (PreparedStatement stmt = connection.prepareStatement("update db_migration set mchecksum = 42 where mversion = 'm2_view'")) {
+        stmt.executeUpdate();
+      }
+    }
+    assertThat(runner.checkState()).isEmpty();
+    // fast mode check also uses the cache
+    config.setFastMode(true);
+    runner.run();
+    assertThat(checksumOf(config, "m2_view")).isEqualTo(42);
+
+    // without the cache the content checksum is used and the repeatable migration re-runs
+    config.setChecksumCacheFile(null);
+    assertThat(runner.checkState()).hasSize(1);
+    runner.run();
+    assertThat(checksumOf(config, "m2_view")).isNotEqualTo(42);
+    Files.delete(cacheFile);
+  }
+
+  @Test
+  public void run_with_snapshotDir() throws Exception {
+
+    Path snapshotDir = Files.createTempDirectory("snapshot");
+    MigrationConfig config = createMigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:snapshot1;DB_CLOSE_DELAY=-1");
+    config.setMigrationPath("dbmig");
+    config.setSnapshotDir(snapshotDir.toString());
+
+    new MigrationRunner(config).run();
+    List<Path> snapshots;
+    try (var files = Files.list(snapshotDir)) {
+      snapshots = files.collect(Collectors.toList());
+    }
+    assertThat(snapshots).hasSize(1);
+    assertThat(snapshots.get(0).getFileName().toString()).startsWith("migration-snapshot-").endsWith(".sql");
+
+    // mark the snapshot such that restoring it is detectable
+    Files.writeString(snapshots.get(0), "create table snapshot_marker (id integer);\n", StandardOpenOption.APPEND);
+
+    // a new empty database is restored from the snapshot with nothing left to run
+    config.setDbUrl("jdbc:h2:mem:snapshot2;DB_CLOSE_DELAY=-1");
+    MigrationRunner runner = new MigrationRunner(config);
+    runner.run();
+    assertThat(runner.checkState()).isEmpty();
+    try (Connection connection = config.createConnection();
+         PreparedStatement stmt = connection.prepareStatement("select count(*) from snapshot_marker");
+         ResultSet rset = stmt.executeQuery()) {
+      assertThat(rset.next()).isTrue();
+    }
+
+    // a database that is not empty is migrated as normal
+    runner.run();
+    try (var files = Files.list(snapshotDir)) {
+      assertThat(files.count()).isEqualTo(1);
+    }
+    Files.delete(snapshots.get(0));
+    Files.delete(snapshotDir);
+  }
+
+  @Test
+  public void run_when_prepared() throws SQLException {
+
+    MigrationConfig config = createMigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:prepared;DB_CLOSE_DELAY=-1");
+    config.setMigrationPath("dbmig");
+
+    MigrationRunner runner = new MigrationRunner(config);
+    runner.prepare();
+    // the prepared migrations are used rather than reading the migration resources
+    config.setMigrationPath("doesNotExist");
+    assertThat(runner.checkState()).hasSize(5);
+    runner.run();
+    assertThat(runner.checkState()).isEmpty();
+    assertThat(checksumOf(config, "m2_view")).isNotZero();
+
+    // fast mode check against the prepared checksums
+    runner.run();
+    config.setMigrationPath("dbmig");
+    assertThat(new MigrationRunner(config).checkState()).isEmpty();
+  }
+
+  @Test
+  public void run_when_cracRestore_expect_preparedInitUsed() throws SQLException {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig();
+    dataSourceConfig.setDriver("org.h2.Driver");
+    dataSourceConfig.setUrl("jdbc:h2:mem:cracRestore");
+    dataSourceConfig.setUsername("sa");
+    dataSourceConfig.setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("test", dataSourceConfig);
+    try {
+      MigrationConfig config = createMigrationConfig();
+      config.setDbUrl("jdbc:h2:mem:cracRestore");
+      config.setMigrationPath("dbmig5_base");
+      config.setMigrationInitPath("dbmig5_init");
+
+      MigrationCracResource resource = new MigrationCracResource(new MigrationRunner(config), dataSource);
+      resource.beforeCheckpoint(null);
+      // the prepared migrations and init migration are used after restore
+      config.setMigrationPath("doesNotExist");
+      config.setMigrationInitPath("doesNotExist");
+      resource.afterRestore(null);
+
+      try (final Connection connection = dataSource.getConnection()) {
+        assertThat(migrationNames(connection)).containsExactly("<init>", "some_i", "m4", "some_r");
+      }
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  private static int checksumOf(MigrationConfig config, String version) throws SQLException {
+    try (Connection connection = config.createConnection();
+         PreparedStatement stmt = connection.prepareStatement("select mchecksum from db_migration where mversion = ?")) {
+      stmt.setString(1, version);
+      try (ResultSet rset = stmt.executeQuery()) {
+        assertThat(rset.next()).isTrue();
+        return rset.getInt(1);
+      }
+    }
+  }
+
   @Test
   public void run_when_fileSystemResources() {
 
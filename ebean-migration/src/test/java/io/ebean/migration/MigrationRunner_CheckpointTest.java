@@ -0,0 +1,90 @@
+package io.ebean.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MigrationRunner_CheckpointTest {
+
+  private static MigrationConfig config(String db, Path dir) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1");
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    config.setMigrationPath("filesystem:" + dir);
+    config.setStatementCheckpoint(true);
+    return config;
+  }
+
+  private static void write(Path dir, String statement1, String statement3) throws Exception {
+    Files.writeString(dir.resolve("1.0__initial.sql"), "create table cp_a (id integer);\n");
+    Files.writeString(dir.resolve("1.1__more.sql"), statement1 + ";\ncreate table cp_c (id integer);\n" + statement3 + ";\ncreate table cp_e (id integer);\n");
+  }
+
+  @Test
+  void run_resumeFromCheckpoint() throws Exception {
+    Path dir = Files.createTempDirectory("checkpoint");
+    write(dir, "create table cp_b (id integer)", "insert into cp_missing values (1)");
+    MigrationConfig config = config("checkpoint", dir);
+
+    assertThatThrownBy(() -> new MigrationRunner(config).run()).isInstanceOf(MigrationException.class);
+    try (Connection connection = config.createConnection()) {
+      assertThat(queryInt(connection, "select mstatement from db_migration_checkpoint where mkey = '1.1'")).isEqualTo(2);
+      assertThat(queryInt(connection, "select count(*) from db_migration where mversion = '1.1'")).isEqualTo(0);
+    }
+
+    // fix the failed statement, the first 2 statements (creating tables) are not executed again
+    write(dir, "create table cp_b (id integer)", "create table cp_d (id integer)");
+    MigrationRunner runner = new MigrationRunner(config);
+    runner.run();
+    try (Connection connection = config.createConnection()) {
+      assertThat(queryInt(connection, "select count(*) from db_migration where mversion = '1.1'")).isEqualTo(1);
+      assertThat(queryInt(connection, "select count(*) from db_migration_checkpoint")).isEqualTo(0);
+      assertThat(queryInt(connection, "select count(*) from cp_e")).isEqualTo(0);
+    }
+    assertThat(runner.checkState()).isEmpty();
+  }
+
+  @Test
+  void run_checkpointStatementsChanged() throws Exception {
+    Path dir = Files.createTempDirectory("checkpoint");
+    write(dir, "create table cp_b (id integer)", "insert into cp_missing values (1)");
+    MigrationConfig config = config("checkpointChanged", dir);
+
+    assertThatThrownBy(() -> new MigrationRunner(config).run()).isInstanceOf(MigrationException.class);
+
+    // a statement before the checkpoint changed
+    write(dir, "create table cp_b (id bigint)", "create table cp_d (id integer)");
+    assertThatThrownBy(() -> new MigrationRunner(config).run())
+      .isInstanceOf(MigrationException.class)
+      .hasMessageContaining("failed after 2 statements");
+  }
+
+  @Test
+  void run_repeatable_expect_noCheckpoint() throws Exception {
+    Path dir = Files.createTempDirectory("checkpoint");
+    Files.writeString(dir.resolve("1.0__initial.sql"), "create table cp_a (id integer);\n");
+    Files.writeString(dir.resolve("R__cp_view.sql"), "create or replace view cp_v1 as select id from cp_a;\ninsert into cp_missing values (1);\n");
+    MigrationConfig config = config("checkpointRepeatable", dir);
+
+    assertThatThrownBy(() -> new MigrationRunner(config).run()).isInstanceOf(MigrationException.class);
+    try (Connection connection = config.createConnection()) {
+      assertThat(queryInt(connection, "select count(*) from db_migration_checkpoint")).isEqualTo(0);
+    }
+  }
+
+  private static int queryInt(Connection connection, String sql) throws SQLException {
+    try (Statement stmt = connection.createStatement(); ResultSet resultSet = stmt.executeQuery(sql)) {
+      assertThat(resultSet.next()).isTrue();
+      return resultSet.getInt(1);
+    }
+  }
+}
@@ -5,6 +5,10 @@ import io.ebean.datasource.DataSourceFactory;
 import io.ebean.datasource.DataSourcePool;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
 
@@ -47,6 +51,45 @@ public class MigrationRunner_FastCheckTest {
     runner.run();
   }
 
+  @Test
+  public void run_when_duplicateVersionRows_expect_fullCheck() throws SQLException {
+
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:dbMxFastCheckDuplicates")
+      .setUsername("sa")
+      .setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("test", dataSourceConfig);
+    try {
+      MigrationConfig config = new MigrationConfig();
+      config.setPlatform("h2");
+      config.setMigrationPath("fastcheckdup");
+      new MigrationRunner(config).run(dataSource);
+
+      try (Connection connection = dataSource.getConnection();
+           Statement statement = connection.createStatement()) {
+        // a duplicate 1.0 row and a missing 1.1 row
+        statement.executeUpdate("insert into db_migration (id, mchecksum, mtype, mversion, mcomment, mstatus, run_on, run_by, run_time)"
+          + " select 100, mchecksum, mtype, mversion, mcomment, mstatus, run_on, run_by, run_time from db_migration where mversion = '1.0'");
+        statement.executeUpdate("delete from db_migration where mversion = '1.1'");
+        statement.executeUpdate("drop table dup_b");
+        connection.commit();
+      }
+
+      // fast check does not pass, full check runs 1.1 again
+      new MigrationRunner(config).run(dataSource);
+
+      try (Connection connection = dataSource.getConnection();
+           Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery("select count(*) from db_migration where mversion = '1.1'")) {
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getInt(1)).isEqualTo(1);
+      }
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
   @Test
   public void autoEnableEarlyMode_when_indexFileAddedToExistingMigrations() {
 
@@ -0,0 +1,59 @@
+package io.ebean.migration;
+
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourceFactory;
+import io.ebean.datasource.DataSourcePool;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationRunner_HistoryTest {
+
+  @Test
+  void history() throws InterruptedException {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:historyTest")
+      .setUsername("sa")
+      .setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("historyTest", dataSourceConfig);
+    try {
+      MigrationConfig config = new MigrationConfig();
+      config.setPlatform("h2");
+      config.setMigrationPath("dbmig");
+      MigrationRunner runner = new MigrationRunner(config);
+      runner.run(dataSource);
+
+      // change to the repeatable migrations
+      Thread.sleep(10);
+      config.setMigrationPath("dbmig3");
+      runner.run(dataSource);
+
+      MigrationHistory history = runner.history(dataSource);
+      List<MigrationHistory.Entry> entries = history.entries();
+      assertThat(entries).hasSize(5);
+      assertThat(entries.get(0).type()).isEqualTo("I");
+      assertThat(entries.get(1).version()).isEqualTo("1.1");
+      assertThat(entries.get(1).runBy()).isNotNull();
+
+      assertThat(history.slowest(2)).hasSize(2);
+      assertThat(history.slowest(2).get(0).runTime()).isGreaterThanOrEqualTo(history.slowest(2).get(1).runTime());
+
+      List<MigrationHistory.Run> runs = history.runs();
+      assertThat(runs).hasSize(2);
+      assertThat(runs.get(0).count()).isEqualTo(3);
+      assertThat(runs.get(1).count()).isEqualTo(2);
+
+      List<MigrationHistory.Entry> rerun = history.rerunRepeatables();
+      // m2_view is also re-run but is not detected as it has no following migration
+      assertThat(rerun).extracting(MigrationHistory.Entry::version).containsOnly("hello");
+
+      assertThat(history.outliers()).isEmpty();
+      assertThat(history.report(10)).contains("Slowest migrations:", "Re-run repeatable migrations:", "I hello");
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+}
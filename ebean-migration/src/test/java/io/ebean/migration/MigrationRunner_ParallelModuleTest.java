@@ -0,0 +1,93 @@
+package io.ebean.migration;
+
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourceFactory;
+import io.ebean.datasource.DataSourcePool;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationRunner_ParallelModuleTest {
+
+  @Test
+  void run_modulesInParallel() throws SQLException {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:parallelModules")
+      .setUsername("sa")
+      .setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("parallelModules", dataSourceConfig);
+    try {
+      MigrationConfig config = new MigrationConfig();
+      config.setPlatform("h2");
+      config.setMigrationPath("dbmig_modules");
+      config.setModuleThreads(3);
+      config.setRepeatableThreads(2);
+
+      MigrationRunner runner = new MigrationRunner(config);
+      runner.run(dataSource);
+
+      try (Connection connection = dataSource.getConnection()) {
+        // recorded in version order
+        assertThat(versions(connection)).containsExactly("1.0", "1.1", "1.2", "1.3", "1.4", "mod_summary");
+        try (PreparedStatement stmt = connection.prepareStatement("select total from mod_summary_vw");
+             ResultSet rset = stmt.executeQuery()) {
+          assertThat(rset.next()).isTrue();
+          assertThat(rset.getInt(1)).isEqualTo(0);
+        }
+      }
+      // run again with nothing to execute
+      assertThat(runner.checkState(dataSource)).isEmpty();
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  @Test
+  void run_jdbcMigration_afterModules() throws SQLException {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:parallelModulesJdbc")
+      .setUsername("sa")
+      .setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("parallelModulesJdbc", dataSourceConfig);
+    try {
+      MigrationConfig config = new MigrationConfig();
+      config.setPlatform("h2");
+      config.setMigrationPath("dbmig_modules_jdbc");
+      config.setModuleThreads(2);
+
+      new MigrationRunner(config).run(dataSource);
+
+      try (Connection connection = dataSource.getConnection()) {
+        // the jdbc migration 1.2 runs after the modules 1.0 and 1.1
+        assertThat(versions(connection)).containsExactly("1.0", "1.1", "1.2");
+        try (PreparedStatement stmt = connection.prepareStatement("select count(*) from jm_invoice");
+             ResultSet rset = stmt.executeQuery()) {
+          assertThat(rset.next()).isTrue();
+          assertThat(rset.getInt(1)).isEqualTo(1);
+        }
+      }
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  private static List<String> versions(Connection connection) throws SQLException {
+    List<String> versions = new ArrayList<>();
+    try (PreparedStatement stmt = connection.prepareStatement("select mversion from db_migration where id > 0 order by id");
+         ResultSet rset = stmt.executeQuery()) {
+      while (rset.next()) {
+        versions.add(rset.getString(1));
+      }
+    }
+    return versions;
+  }
+}
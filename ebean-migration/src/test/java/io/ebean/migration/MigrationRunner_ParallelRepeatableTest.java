@@ -0,0 +1,86 @@
+package io.ebean.migration;
+
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourceFactory;
+import io.ebean.datasource.DataSourcePool;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MigrationRunner_ParallelRepeatableTest {
+
+  private static DataSourcePool dataSource(String name) {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:" + name)
+      .setUsername("sa")
+      .setPassword("");
+    return DataSourceFactory.create(name, dataSourceConfig);
+  }
+
+  private static MigrationConfig config(int repeatableThreads) {
+    MigrationConfig config = new MigrationConfig();
+    config.setPlatform("h2");
+    config.setMigrationPath("dbmig_parallel");
+    config.setRepeatableThreads(repeatableThreads);
+    return config;
+  }
+
+  @Test
+  void run_parallel_inDependencyOrder() throws SQLException {
+    DataSourcePool dataSource = dataSource("parallelRepeatable");
+    try {
+      MigrationRunner runner = new MigrationRunner(config(4));
+      runner.run(dataSource);
+
+      try (Connection connection = dataSource.getConnection()) {
+        assertThat(versions(connection)).containsExactly("1.0", "a_dependent", "m_other", "z_base");
+        assertThat(count(connection, "p_dependent_vw")).isEqualTo(0);
+        assertThat(count(connection, "p_other_vw")).isEqualTo(0);
+      }
+      // run again with nothing to execute
+      assertThat(runner.checkState(dataSource)).isEmpty();
+      runner.run(dataSource);
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  @Test
+  void run_serial_failsOnUndeclaredOrder() {
+    DataSourcePool dataSource = dataSource("serialRepeatable");
+    try {
+      MigrationRunner runner = new MigrationRunner(config(0));
+      // executed in name order the dependent view is created before the base view
+      assertThatThrownBy(() -> runner.run(dataSource)).isInstanceOf(MigrationException.class);
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  private static List<String> versions(Connection connection) throws SQLException {
+    List<String> versions = new ArrayList<>();
+    try (PreparedStatement stmt = connection.prepareStatement("select mversion from db_migration where id > 0 order by mversion");
+         ResultSet rset = stmt.executeQuery()) {
+      while (rset.next()) {
+        versions.add(rset.getString(1));
+      }
+    }
+    return versions;
+  }
+
+  private static int count(Connection connection, String view) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement("select count(*) from " + view);
+         ResultSet rset = stmt.executeQuery()) {
+      rset.next();
+      return rset.getInt(1);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package io.ebean.migration;
+
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourceFactory;
+import io.ebean.datasource.DataSourcePool;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationRunner_PlanTest {
+
+  @Test
+  void plan() throws SQLException {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:planTest")
+      .setUsername("sa")
+      .setPassword("");
+
+    DataSourcePool dataSource = DataSourceFactory.create("planTest", dataSourceConfig);
+    try {
+      MigrationConfig config = new MigrationConfig();
+      config.setPlatform("h2");
+      config.setMigrationPath("dbmig");
+      MigrationRunner runner = new MigrationRunner(config);
+
+      MigrationPlan plan = runner.plan(dataSource);
+      List<MigrationPlan.Migration> migrations = plan.migrations();
+      assertThat(migrations).hasSize(5);
+      assertThat(plan.estimatedMillis()).isEqualTo(0);
+
+      MigrationPlan.Migration initial = migrations.get(1);
+      assertThat(initial.resource().key()).isEqualTo("1.1");
+      assertThat(initial.statements()).hasSize(2);
+      assertThat(initial.statements().get(0).transactional()).isTrue();
+      assertThat(initial.lockingDdl()).isFalse();
+
+      MigrationPlan.Migration addM3 = migrations.get(2);
+      assertThat(addM3.resource().key()).isEqualTo("1.2");
+      assertThat(addM3.statements()).hasSize(3);
+      assertThat(addM3.statements().get(1).lockingDdl()).isTrue();
+      assertThat(addM3.lockingDdl()).isTrue();
+
+      MigrationPlan.Migration jdbc = migrations.get(3);
+      assertThat(jdbc.resource().key()).isEqualTo("1.2.1");
+      assertThat(jdbc.statements()).isEmpty();
+
+      runner.run(dataSource);
+      assertThat(runner.plan(dataSource).isEmpty()).isTrue();
+
+      config.setMigrationPath("dbmig4");
+      config.setPatchResetChecksumOn("m2_view,1.2");
+      plan = runner.plan(dataSource);
+      assertThat(plan.migrations()).hasSize(1);
+      MigrationPlan.Migration m4 = plan.migrations().get(0);
+      assertThat(m4.resource().key()).isEqualTo("1.3");
+      assertThat(m4.statements()).hasSize(1);
+      assertThat(m4.estimatedMillis()).isGreaterThanOrEqualTo(0);
+
+      // known history of 500 millis over the 5 statements of 1.1 and 1.2
+      try (Connection connection = dataSource.getConnection();
+           Statement statement = connection.createStatement()) {
+        statement.executeUpdate("update db_migration set run_time = 0");
+        statement.executeUpdate("update db_migration set run_time = 100 where mversion = '1.1'");
+        statement.executeUpdate("update db_migration set run_time = 400 where mversion = '1.2'");
+        connection.commit();
+      }
+      plan = runner.plan(dataSource);
+      assertThat(plan.migrations()).hasSize(1);
+      assertThat(plan.migrations().get(0).estimatedMillis()).isEqualTo(100);
+      assertThat(plan.estimatedMillis()).isEqualTo(100);
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+}
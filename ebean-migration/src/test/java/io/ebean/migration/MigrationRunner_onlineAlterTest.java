@@ -0,0 +1,95 @@
+package io.ebean.migration;
+
+import io.ebean.test.containers.MySqlContainer;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationRunner_onlineAlterTest {
+
+  private final MySqlContainer mysqlContainer = MySqlContainer.builder("8.0")
+    .port(14307)
+    .containerName("test_ebean_migration_mysql_online")
+    .user("mig_test")
+    .dbName("mig_test")
+    .build();
+
+  private MigrationConfig config(String migrationPath) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl(mysqlContainer.jdbcUrl());
+    config.setDbUsername("mig_test");
+    config.setDbPassword("test");
+    config.setMigrationPath(migrationPath);
+    config.setOnlineAlterMinRows(1000);
+    config.setOnlineAlterChunkSize(50);
+    return config;
+  }
+
+  @Test
+  void run_onlineAlter_copyTriggersAndSwap() throws Exception {
+    mysqlContainer.startWithDropCreate();
+    try {
+      new MigrationRunner(config("dbmig_online0")).run();
+      try (Connection connection = mysqlContainer.createConnection(); Statement stmt = connection.createStatement()) {
+        for (int i = 0; i < 2000; i++) {
+          stmt.addBatch("insert into online_orders (name) values ('order " + i + "')");
+        }
+        stmt.executeBatch();
+        stmt.execute("insert into online_customer (id) values (1)");
+        stmt.execute("insert into online_invoice (id, customer_id) values (1, 1)");
+        stmt.execute("analyze table online_orders, online_customer");
+      }
+
+      // concurrent inserts and updates applied to the shadow table by the triggers
+      AtomicBoolean running = new AtomicBoolean(true);
+      AtomicInteger inserted = new AtomicInteger();
+      Thread writer = new Thread(() -> {
+        try (Connection connection = mysqlContainer.createConnection(); Statement stmt = connection.createStatement()) {
+          while (running.get()) {
+            stmt.execute("insert into online_orders (name) values ('concurrent')");
+            inserted.incrementAndGet();
+            stmt.execute("update online_orders set name = 'updated' where id = " + inserted.get());
+          }
+        } catch (SQLException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      writer.start();
+      try {
+        new MigrationRunner(config("dbmig_online1")).run();
+      } finally {
+        running.set(false);
+        writer.join();
+      }
+
+      try (Connection connection = mysqlContainer.createConnection()) {
+        assertThat(queryLong(connection, "select count(*) from online_orders")).isEqualTo(2000 + inserted.get());
+        assertThat(queryLong(connection, "select count(*) from online_orders where status = 'N'")).isEqualTo(2000 + inserted.get());
+        assertThat(queryLong(connection, "select count(*) from online_orders where name = 'updated'")).isEqualTo(inserted.get());
+        // swapped with the shadow table and the triggers dropped
+        assertThat(queryLong(connection, "select count(*) from information_schema.tables where table_schema = database() and table_name like '\\_online\\_orders\\_%'")).isEqualTo(0);
+        assertThat(queryLong(connection, "select count(*) from information_schema.triggers where trigger_schema = database() and trigger_name like 'online\\_orders\\_osc%'")).isEqualTo(0);
+        // the table referenced by a foreign key is altered in place keeping the foreign key
+        assertThat(queryLong(connection, "select count(*) from information_schema.referential_constraints where constraint_schema = database() and referenced_table_name = 'online_customer'")).isEqualTo(1);
+        assertThat(queryLong(connection, "select count(*) from online_customer where cname is null")).isEqualTo(1);
+      }
+    } finally {
+      mysqlContainer.stopRemove();
+    }
+  }
+
+  private static long queryLong(Connection connection, String sql) throws SQLException {
+    try (PreparedStatement stmt = connection.prepareStatement(sql); ResultSet resultSet = stmt.executeQuery()) {
+      assertThat(resultSet.next()).isTrue();
+      return resultSet.getLong(1);
+    }
+  }
+}
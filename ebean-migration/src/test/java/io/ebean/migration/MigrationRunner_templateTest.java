@@ -0,0 +1,81 @@
+package io.ebean.migration;
+
+import io.ebean.test.containers.PostgresContainer;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationRunner_templateTest {
+
+  private static final int PORT = 9824;
+
+  private final PostgresContainer postgresContainer = PostgresContainer.builder("15")
+    .port(PORT)
+    .containerName("test_ebean_migration_pg15_template")
+    .user("mig_test")
+    .dbName("mig_test")
+    .build();
+
+  private static MigrationConfig config(String database, String migrationPath) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl("jdbc:postgresql://localhost:" + PORT + "/" + database);
+    // the admin user to create databases
+    config.setDbUsername("postgres");
+    config.setDbPassword("admin");
+    config.setTemplateMode(true);
+    config.setTemplatePrefix("mig_tmpl");
+    config.setMigrationPath(migrationPath);
+    return config;
+  }
+
+  @Test
+  void run_createFromTemplate_expect_priorTemplateDroppedWhenEnabled() throws SQLException {
+    postgresContainer.startWithDropCreate();
+    try {
+      new MigrationRunner(config("tmpl_app1", "dbmig")).run();
+      new MigrationRunner(config("tmpl_app2", "dbmig")).run();
+      try (Connection connection = postgresContainer.createConnection()) {
+        assertThat(databases(connection, "tmpl_app%")).containsExactly("tmpl_app1", "tmpl_app2");
+        assertThat(databases(connection, "mig_tmpl_%")).hasSize(1);
+      }
+
+      // changed migrations create a new template keeping the prior one by default
+      new MigrationRunner(config("tmpl_app3", "dbmig2")).run();
+      try (Connection connection = postgresContainer.createConnection()) {
+        assertThat(databases(connection, "tmpl_app%")).containsExactly("tmpl_app1", "tmpl_app2", "tmpl_app3");
+        assertThat(databases(connection, "mig_tmpl_%")).hasSize(2);
+      }
+
+      // with templateDropPrior a new template drops the prior ones
+      MigrationConfig dropPrior = config("tmpl_app4", "dbmig3");
+      dropPrior.setTemplateDropPrior(true);
+      new MigrationRunner(dropPrior).run();
+      try (Connection connection = postgresContainer.createConnection()) {
+        assertThat(databases(connection, "tmpl_app%")).containsExactly("tmpl_app1", "tmpl_app2", "tmpl_app3", "tmpl_app4");
+        assertThat(databases(connection, "mig_tmpl_%")).hasSize(1);
+      }
+    } finally {
+      postgresContainer.stopRemove();
+    }
+  }
+
+  private static List<String> databases(Connection connection, String pattern) throws SQLException {
+    List<String> names = new ArrayList<>();
+    try (PreparedStatement stmt = connection.prepareStatement("select datname from pg_database where datname like ? order by datname")) {
+      stmt.setString(1, pattern);
+      try (ResultSet rset = stmt.executeQuery()) {
+        while (rset.next()) {
+          names.add(rset.getString(1));
+        }
+      }
+    }
+    return names;
+  }
+}
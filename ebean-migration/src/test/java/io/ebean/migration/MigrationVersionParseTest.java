@@ -0,0 +1,218 @@
+package io.ebean.migration;
+
+import io.avaje.simplelogger.LoggerContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Differential test of MigrationVersion.parse() against the prior regex based parser.
+ */
+class MigrationVersionParseTest {
+
+  @BeforeAll
+  static void quietNonNumericWarnings() {
+    // the random versions mostly have non numeric parts which are each logged as a warning
+    LoggerContext.get().putAll(Map.of("io.ebean.migration", "error"));
+  }
+
+  @AfterAll
+  static void restoreLogLevel() {
+    // as per avaje-logger.properties
+    LoggerContext.get().putAll(Map.of("io.ebean.migration", "trace"));
+  }
+
+  private static final String[] KNOWN = {
+    "1", "1.0", "1.1__point", "V1.4.1__comment", "v1_0__Foo", "v1_0__Foo.sql", "0.1.1-SNAPSHOT",
+    "0_1_1-SNAPSHOT__Foo", "R__Foo", "r__Foo", "R1__Foo", "I__Foo", "i__hello", "2.0.b34", "1.1.1_2__Foo",
+    "1.1.1.2_junk", "1.1_1.2_foo", "1.1_1.2_", "1_2.3_4_", "1_2_3_4__Foo", "1.2.", "1..2", ".1", "1-2-3",
+    "+1.2", "1.+", "2147483647.1", "2147483648.1", "99999999999", "00012.0003", "1.2__", "1__", "__foo", "V",
+    "v.sql", "", "1.2.3.4.5.6.7.8.9__a__b", "1.٣", "1.2x", "x", "1_", "1-", "1._", "1.2.sql.sql"
+  };
+
+  @Test
+  void parse_matchesLegacy_knownVersions() {
+    for (String raw : KNOWN) {
+      assertSame(raw);
+    }
+  }
+
+  @Test
+  void parse_matchesLegacy_randomVersions() {
+    final Random random = new Random(42);
+    final String alphabet = "0123456789012345678901234567890123456789..__--+RrIiVvxb";
+    for (int i = 0; i < 10_000; i++) {
+      String raw = randomVersion(random, alphabet);
+      if (!Legacy.delimitersOnly(raw)) {
+        assertSame(raw);
+      }
+    }
+  }
+
+  @Test
+  void parse_delimitersOnly_expect_emptyVersion() {
+    // the legacy parser failed with ArrayIndexOutOfBoundsException here
+    MigrationVersion version = MigrationVersion.parse("._-");
+    assertThat(version.type()).isEqualTo("V");
+    assertThat(version.normalised()).isEqualTo("");
+  }
+
+  @Test
+  void parse_compareTo_matchesLegacy() {
+    final Random random = new Random(7);
+    final String alphabet = "0123456789..__";
+    List<String> raws = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      String raw = randomVersion(random, alphabet);
+      if (!Legacy.delimitersOnly(raw)) {
+        raws.add(raw);
+      }
+    }
+    for (String a : raws) {
+      for (String b : raws) {
+        int expected = Integer.signum(Legacy.compare(Legacy.parse(a), Legacy.parse(b)));
+        assertThat(Integer.signum(MigrationVersion.parse(a).compareTo(MigrationVersion.parse(b))))
+          .describedAs("compare %s %s", a, b)
+          .isEqualTo(expected);
+      }
+    }
+  }
+
+  private static String randomVersion(Random random, String alphabet) {
+    StringBuilder sb = new StringBuilder();
+    int len = random.nextInt(12);
+    for (int j = 0; j < len; j++) {
+      sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    if (random.nextInt(4) == 0) {
+      sb.append("__comment");
+    }
+    if (random.nextInt(4) == 0) {
+      sb.append(".sql");
+    }
+    return sb.toString();
+  }
+
+  private static void assertSame(String raw) {
+    Legacy expected = Legacy.parse(raw);
+    MigrationVersion actual = MigrationVersion.parse(raw);
+    assertThat(actual.raw()).describedAs(raw).isEqualTo(expected.raw);
+    assertThat(actual.comment()).describedAs(raw).isEqualTo(expected.comment);
+    assertThat(actual.type()).describedAs(raw).isEqualTo(expected.type);
+    assertThat(actual.asString()).describedAs(raw).isEqualTo(expected.format(false, false));
+    assertThat(actual.normalised()).describedAs(raw).isEqualTo(expected.format(true, false));
+    if (!expected.repeatable && expected.ordering.length > 0) {
+      assertThat(actual.nextVersion()).describedAs(raw).isEqualTo(expected.format(false, true));
+    }
+  }
+
+  /**
+   * The prior String.split() and Integer.parseInt() based parser.
+   */
+  static final class Legacy {
+
+    String raw;
+    String comment;
+    String type = "V";
+    boolean repeatable;
+    int[] ordering;
+    boolean[] underscores;
+
+    static boolean delimitersOnly(String input) {
+      String raw = input.endsWith(".sql") ? input.substring(0, input.length() - 4) : input;
+      if (raw.startsWith("V") || raw.startsWith("v")) {
+        raw = raw.substring(1);
+      }
+      int commentStart = raw.indexOf("__");
+      String value = commentStart > -1 ? raw.substring(0, commentStart) : raw;
+      return !value.isEmpty() && value.replaceAll("[._-]", "").isEmpty();
+    }
+
+    static Legacy parse(String raw) {
+      Legacy legacy = new Legacy();
+      if (raw.endsWith(".sql")) {
+        raw = raw.substring(0, raw.length() - 4);
+      }
+      if (raw.startsWith("V") || raw.startsWith("v")) {
+        raw = raw.substring(1);
+      }
+      legacy.raw = raw;
+      String comment = "";
+      String value = raw;
+      int commentStart = raw.indexOf("__");
+      if (commentStart > -1) {
+        comment = raw.substring(commentStart + 2);
+        value = value.substring(0, commentStart);
+      }
+      legacy.comment = comment;
+
+      value = value.replace('_', '.');
+      String[] sections = value.split("[\\.-]");
+      if (sections[0].startsWith("R") || sections[0].startsWith("r")) {
+        legacy.type = "R";
+        legacy.repeatable = true;
+        return legacy;
+      }
+      if (sections[0].startsWith("I") || sections[0].startsWith("i")) {
+        legacy.type = "I";
+        legacy.repeatable = true;
+        return legacy;
+      }
+
+      boolean[] underscores = new boolean[sections.length];
+      int[] ordering = new int[sections.length];
+      int delimiterPos = 0;
+      int stopIndex = 0;
+      for (int i = 0; i < sections.length; i++) {
+        try {
+          ordering[i] = Integer.parseInt(sections[i]);
+          stopIndex++;
+          delimiterPos += sections[i].length();
+          underscores[i] = (delimiterPos < raw.length() - 1 && raw.charAt(delimiterPos) == '_');
+          delimiterPos++;
+        } catch (NumberFormatException e) {
+          break;
+        }
+      }
+      legacy.ordering = Arrays.copyOf(ordering, stopIndex);
+      legacy.underscores = Arrays.copyOf(underscores, stopIndex);
+      return legacy;
+    }
+
+    static int compare(Legacy a, Legacy b) {
+      for (int i = 0; i < a.ordering.length; i++) {
+        if (i >= b.ordering.length) {
+          return 1;
+        }
+        if (a.ordering[i] != b.ordering[i]) {
+          return (a.ordering[i] > b.ordering[i]) ? 1 : -1;
+        }
+      }
+      return a.ordering.length < b.ordering.length ? -1 : 0;
+    }
+
+    String format(boolean normalised, boolean nextVersion) {
+      if (repeatable) {
+        return type;
+      }
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < ordering.length; i++) {
+        if (i < ordering.length - 1) {
+          sb.append(ordering[i]);
+          sb.append(normalised || !underscores[i] ? '.' : '_');
+        } else {
+          sb.append(nextVersion ? ordering[i] + 1 : ordering[i]);
+        }
+      }
+      return sb.toString();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChecksumCacheTest {
+
+  @Test
+  void checksum_saveAndLoad() throws Exception {
+    Path path = Files.createTempFile("checksum", ".cache");
+    ChecksumCache cache = new ChecksumCache(path.toFile());
+    cache.put("dbmig/1.1__initial.sql", 100, 42);
+    cache.put("dbmig/R__m2_view.sql", 200, -7);
+    cache.put("dbmig/unknown.sql", ResourceFingerprint.UNKNOWN, 9);
+    assertThat(cache.size()).isEqualTo(2);
+    cache.save();
+
+    ChecksumCache loaded = ChecksumCache.of(path.toString());
+    assertThat(loaded.size()).isEqualTo(2);
+    assertThat(loaded.checksum("dbmig/1.1__initial.sql", 100)).isEqualTo(42);
+    assertThat(loaded.checksum("dbmig/R__m2_view.sql", 200)).isEqualTo(-7);
+    // fingerprint differs
+    assertThat(loaded.checksum("dbmig/R__m2_view.sql", 201)).isNull();
+    assertThat(loaded.checksum("dbmig/other.sql", 200)).isNull();
+    assertThat(loaded.checksum("dbmig/1.1__initial.sql", ResourceFingerprint.UNKNOWN)).isNull();
+    Files.delete(path);
+  }
+
+  @Test
+  void of_notConfigured() {
+    assertThat(ChecksumCache.of(null)).isNull();
+    assertThat(ChecksumCache.of("")).isNull();
+  }
+
+  @Test
+  void of_invalidFile_ignored() throws Exception {
+    Path path = Files.createTempFile("checksum", ".cache");
+    Files.writeString(path, "notANumber,1,dbmig/1.1__initial.sql\n");
+    assertThat(ChecksumCache.of(path.toString()).size()).isEqualTo(0);
+    Files.delete(path);
+  }
+}
@@ -2,6 +2,9 @@ package io.ebean.migration.runner;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 public class ChecksumTest {
@@ -15,4 +18,14 @@ public class ChecksumTest {
     assertThat(Checksum.calculate("Foo")).isNotEqualTo(checkFoo);
   }
 
-}
\ No newline at end of file
+  @Test
+  void test_calculate_bytes_matchesString() {
+    String[] contents = {"", "\n", "foo", "foo\n", "foo\nbar", "foo\r\nbar\r\n", "foo\rbar\n\n\nbaz", "créer ✓ 表\r\n-- end"};
+    for (String content : contents) {
+      ByteBuffer bytes = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+      assertThat(Checksum.calculate(bytes)).as(content).isEqualTo(Checksum.calculate(content));
+      assertThat(bytes.position()).isZero();
+    }
+  }
+
+}
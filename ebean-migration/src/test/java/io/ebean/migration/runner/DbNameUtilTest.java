@@ -59,4 +59,17 @@ public class DbNameUtilTest {
     config.setDbPassword("unit");
     return config;
   }
+
+  @Test
+  public void platform_fetchSize() {
+    assertThat(DbNameUtil.platform("oracle").fetchSize).isEqualTo(1000);
+    assertThat(DbNameUtil.platform("h2").fetchSize).isEqualTo(0);
+
+    MigrationConfig config = new MigrationConfig();
+    config.setFetchSize(200);
+    config.setQueryTimeout(20);
+    MigrationPlatform platform = DbNameUtil.platform("oracle").configure(config);
+    assertThat(platform.fetchSize).isEqualTo(200);
+    assertThat(platform.queryTimeout).isEqualTo(20);
+  }
 }
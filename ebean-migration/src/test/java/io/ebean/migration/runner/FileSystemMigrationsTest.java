@@ -0,0 +1,106 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationRunner;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemMigrationsTest {
+
+  private final FileSystemMigrations fileSystem = new FileSystemMigrations(new MigrationConfig(), null);
+
+  @Test
+  void walk() throws Exception {
+    Path dir = Files.createTempDirectory("fsmig");
+    Files.writeString(dir.resolve("1.0__initial.sql"), "create table fs_a (id integer);\r\n");
+    Files.createDirectories(dir.resolve("sub/deeper"));
+    Files.writeString(dir.resolve("sub/1.1__second.sql"), "create table fs_b (id integer);\n");
+    Files.writeString(dir.resolve("sub/deeper/1.2__third.sql"), "create table fs_c (id integer);");
+    Files.writeString(dir.resolve("sub/readme.txt"), "ignored");
+
+    List<LocalMigrationResource> versions = fileSystem.walk(dir);
+    assertThat(versions.stream().map(LocalMigrationResource::key).sorted().collect(Collectors.toList())).containsExactly("1.0", "1.1", "1.2");
+    for (LocalMigrationResource version : versions) {
+      LocalDdlMigrationResource ddl = (LocalDdlMigrationResource) version;
+      assertThat(ddl.location()).startsWith(dir.toString());
+      assertThat(ddl.contentChecksum()).isEqualTo(Checksum.calculate(ddl.content()));
+    }
+    assertThat(fileSystem.walk(dir.resolve("doesNotExist"))).isEmpty();
+    delete(dir);
+  }
+
+  @Test
+  void walk_symbolicLinkLoop() throws Exception {
+    Path dir = Files.createTempDirectory("fsloop");
+    Files.writeString(dir.resolve("1.0__initial.sql"), "create table fs_loop (id integer);");
+    Files.createDirectories(dir.resolve("sub"));
+    Files.writeString(dir.resolve("sub/1.1__second.sql"), "create table fs_loop2 (id integer);");
+    Files.createSymbolicLink(dir.resolve("sub/loop"), dir);
+
+    List<LocalMigrationResource> versions = fileSystem.walk(dir);
+    assertThat(versions.stream().map(LocalMigrationResource::key).sorted().collect(Collectors.toList())).containsExactly("1.0", "1.1");
+    Files.delete(dir.resolve("sub/loop"));
+    delete(dir);
+  }
+
+  @Test
+  void index() throws Exception {
+    Path dir = Files.createTempDirectory("fsidx");
+    Files.writeString(dir.resolve("1.0__initial.sql"), "create table fs_idx (id integer);", StandardCharsets.UTF_8);
+    Files.writeString(dir.resolve("idx_h2.migrations"), "42, 1.0__initial.sql\n");
+
+    assertThat(fileSystem.index(dir.resolve("idx_postgres.migrations"))).isNull();
+    List<LocalMigrationResource> versions = fileSystem.index(dir.resolve("idx_h2.migrations"));
+    assertThat(versions).hasSize(1);
+    LocalDdlMigrationResource version = (LocalDdlMigrationResource) versions.get(0);
+    assertThat(version.key()).isEqualTo("1.0");
+    assertThat(version.contentChecksum()).isEqualTo(42);
+    assertThat(version.content()).isEqualTo("create table fs_idx (id integer);");
+    delete(dir);
+  }
+
+  @Test
+  void run_withIndex() throws Exception {
+    Path dir = Files.createTempDirectory("fsrun");
+    Path platformDir = Files.createDirectories(dir.resolve("h2"));
+    String initial = "create table fs_run (id integer);\n";
+    String second = "alter table fs_run add column name varchar(10);\n";
+    Files.writeString(platformDir.resolve("1.0__initial.sql"), initial);
+    Files.writeString(platformDir.resolve("1.1__second.sql"), second);
+    Files.writeString(platformDir.resolve("idx_h2.migrations"),
+      Checksum.calculate(initial) + ", 1.0__initial.sql\n" + Checksum.calculate(second) + ", 1.1__second.sql\n");
+
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    config.setDbUrl("jdbc:h2:mem:fsIndex;DB_CLOSE_DELAY=-1");
+    config.setPlatform("h2");
+    config.setMigrationPath("filesystem:" + dir);
+
+    MigrationRunner runner = new MigrationRunner(config);
+    assertThat(runner.checkState()).hasSize(2);
+    runner.run();
+    assertThat(config.isEarlyChecksumMode()).isTrue();
+    assertThat(runner.checkState()).isEmpty();
+    // fast mode check using the index checksums
+    runner.run();
+    delete(dir);
+  }
+
+  private static void delete(Path dir) throws Exception {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationVersion;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class H2SnapshotTest {
+
+  @Test
+  void restoreIfEmpty_notEmpty_expect_migrationsNotRead() throws SQLException {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl("jdbc:h2:mem:snapshotNotEmpty");
+    config.setDbUsername("sa");
+    config.setDbPassword("");
+    config.setPlatform("h2");
+    config.setSnapshotDir("target/snapshots");
+
+    // the content of the migration can not be read (null resource)
+    var local = new LocalDdlMigrationResource(MigrationVersion.parse("1.0"), "1.0__initial.sql", null, null);
+    H2Snapshot snapshot = H2Snapshot.of(config, false, List.of(local));
+    assertThat(snapshot).isNotNull();
+
+    try (Connection connection = config.createConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("create table snapshot_existing (id integer)");
+      }
+      assertThat(snapshot.restoreIfEmpty(connection)).isFalse();
+    }
+  }
+}
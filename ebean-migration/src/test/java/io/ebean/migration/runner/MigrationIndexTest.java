@@ -0,0 +1,38 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationIndexTest {
+
+  @Test
+  void read() {
+    List<MigrationIndex.Entry> entries = MigrationIndex.read(MigrationIndex.class.getResource("/index0/idx_h2.migrations"));
+
+    assertThat(entries).hasSize(5);
+    MigrationIndex.Entry first = entries.get(0);
+    assertThat(first.location).isEqualTo("1.0__initial.sql");
+    assertThat(first.checksum).isEqualTo(-745768926);
+    assertThat(first.version.normalised()).isEqualTo("1.0");
+    assertThat(first.version.comment()).isEqualTo("initial");
+    assertThat(entries.get(4).location).isEqualTo("1.4__dropsFor_1.3.sql");
+  }
+
+  @Test
+  void entries() {
+    assertThat(MigrationIndex.entries("/index0/idx_h2.migrations")).hasSize(5);
+    assertThat(MigrationIndex.entries("/index0/idx_postgres.migrations")).isNull();
+  }
+
+  @Test
+  void load() {
+    Map<String, List<MigrationIndex.Entry>> map = MigrationIndex.load(List.of("index0", "indexB_1", "doesNotExist"));
+
+    assertThat(map).containsOnlyKeys("/index0/idx_h2.migrations", "/indexB_1/idx_h2.migrations");
+    assertThat(map.get("/index0/idx_h2.migrations")).hasSize(5);
+  }
+}
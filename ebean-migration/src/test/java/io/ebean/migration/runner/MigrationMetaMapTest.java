@@ -0,0 +1,54 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationMetaMapTest {
+
+  @Test
+  void put_indexOf() {
+    MigrationMetaMap map = new MigrationMetaMap();
+    assertThat(map.isEmpty()).isTrue();
+
+    map.put("0", 1, 0);
+    map.put("1.1", 42, 1);
+    map.put("m2_view", 43, 2);
+
+    assertThat(map.size()).isEqualTo(3);
+    int index = map.indexOf("1.1");
+    assertThat(map.checksumAt(index)).isEqualTo(42);
+    assertThat(map.idAt(index)).isEqualTo(1);
+    assertThat(map.contains("m2_view")).isTrue();
+    assertThat(map.indexOf("1.2")).isEqualTo(-1);
+  }
+
+  @Test
+  void put_replace() {
+    MigrationMetaMap map = new MigrationMetaMap();
+    map.put("1.1", 42, 1);
+    assertThat(map.hasDuplicateKeys()).isFalse();
+    map.put("1.1", 50, 7);
+
+    assertThat(map.hasDuplicateKeys()).isTrue();
+    assertThat(map.size()).isEqualTo(1);
+    int index = map.indexOf("1.1");
+    assertThat(map.checksumAt(index)).isEqualTo(50);
+    assertThat(map.idAt(index)).isEqualTo(7);
+  }
+
+  @Test
+  void put_expect_resize() {
+    MigrationMetaMap map = new MigrationMetaMap(2);
+    for (int i = 0; i < 5000; i++) {
+      map.put("1." + i, i * 31, i);
+    }
+    assertThat(map.size()).isEqualTo(5000);
+    for (int i = 0; i < 5000; i++) {
+      int index = map.indexOf("1." + i);
+      assertThat(map.checksumAt(index)).isEqualTo(i * 31);
+      assertThat(map.idAt(index)).isEqualTo(i);
+    }
+    assertThat(map.contains("2.0")).isFalse();
+  }
+}
@@ -1,7 +1,15 @@
 package io.ebean.migration.runner;
 
+import io.ebean.migration.MigrationConfig;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -27,4 +35,40 @@ class MigrationMetaRowTest {
     assertThat(sql).isEqualTo("select id, mtype, mversion, mchecksum from someTable order by id for update");
   }
 
+  @Test
+  void testSelectSql_lockInitRowOnly() {
+    MigrationConfig config = new MigrationConfig();
+    config.setLockInitRowOnly(true);
+
+    final MigrationPlatform defaultPlatform = new MigrationPlatform().configure(config);
+    assertThat(defaultPlatform.sqlSelectForUpdate("someTable")).isEqualTo("select id from someTable where id = 0 for update");
+    assertThat(defaultPlatform.sqlSelectForReading("someTable")).isEqualTo("select id, mtype, mversion, mchecksum from someTable order by id");
+
+    final MigrationPlatform sqlServer = new MigrationPlatform.SqlServer().configure(config);
+    assertThat(sqlServer.sqlSelectForUpdate("someTable")).isEqualTo("select id from someTable with (updlock) where id = 0");
+    assertThat(sqlServer.sqlSelectForReading("someTable")).isEqualTo("select id, mtype, mversion, mchecksum from someTable order by id");
+  }
+
+  @Test
+  void executeInsertUpdate_expect_queryTimeout() throws Exception {
+    MigrationConfig config = new MigrationConfig();
+    config.setQueryTimeout(20);
+    final MigrationPlatform platform = new MigrationPlatform().configure(config);
+
+    List<Object> timeouts = new ArrayList<>();
+    PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+      if (method.getName().equals("setQueryTimeout")) {
+        timeouts.add(args[0]);
+      }
+      return method.getName().equals("executeUpdate") ? 1 : null;
+    });
+    Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+      (proxy, method, args) -> method.getName().equals("prepareStatement") ? statement : null);
+
+    MigrationMetaRow row = new MigrationMetaRow(1, "V", "1.0", "initial", 42, "me", new Timestamp(0), 10);
+    row.executeInsert(platform, connection, MigrationMetaRow.insertSql("someTable"));
+    row.executeUpdate(platform, connection, MigrationMetaRow.updateSql("someTable"));
+    row.resetChecksum(43, platform, connection, MigrationMetaRow.updateChecksumSql("someTable"));
+    assertThat(timeouts).containsExactly(20, 20, 20);
+  }
 }
@@ -0,0 +1,27 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationPlannerTest {
+
+  @Test
+  void lockingDdl() {
+    assertThat(MigrationPlanner.lockingDdl("alter table m1 add column addcol varchar(10)")).isTrue();
+    assertThat(MigrationPlanner.lockingDdl("ALTER  TABLE m1 drop column addcol")).isTrue();
+    assertThat(MigrationPlanner.lockingDdl("create index ix_m1 on m1 (acol)")).isTrue();
+    assertThat(MigrationPlanner.lockingDdl("create unique index ix_m1 on m1 (acol)")).isTrue();
+    assertThat(MigrationPlanner.lockingDdl("drop table m1")).isTrue();
+    assertThat(MigrationPlanner.lockingDdl("truncate table m1")).isTrue();
+  }
+
+  @Test
+  void lockingDdl_false() {
+    assertThat(MigrationPlanner.lockingDdl("create index concurrently ix_m1 on m1 (acol)")).isFalse();
+    assertThat(MigrationPlanner.lockingDdl("drop index concurrently ix_m1")).isFalse();
+    assertThat(MigrationPlanner.lockingDdl("create table m1 (id integer)")).isFalse();
+    assertThat(MigrationPlanner.lockingDdl("insert into m3 (id, acol) VALUES (1, 'text')")).isFalse();
+    assertThat(MigrationPlanner.lockingDdl("create or replace view m2_vw as select id, acol from m2")).isFalse();
+  }
+}
@@ -0,0 +1,65 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.test.containers.PostgresContainer;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationPlatformPostgresTest {
+
+  private static PostgresContainer createPostgres() {
+    return PostgresContainer.builder("17")
+      .port(0) // random port
+      .containerName("pg17_timeouts")
+      .user("mig_timeouts")
+      .password("mig_timeouts")
+      .dbName("mig_timeouts")
+      .build();
+  }
+
+  @Test
+  void executeStatement_expect_timeoutsReset() throws SQLException {
+    PostgresContainer postgresContainer = createPostgres();
+    postgresContainer.stopRemove();
+    postgresContainer.start();
+
+    MigrationConfig config = new MigrationConfig();
+    config.setLockTimeoutMillis(1000);
+    config.setStatementTimeoutMillis(5000);
+    MigrationPlatform platform = new MigrationPlatform.Postgres().configure(config);
+
+    try (Connection connection = postgresContainer.createConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        // a session level setting (for example by the connection pool) is restored
+        statement.execute("set lock_timeout = '2s'");
+      }
+      final String lockTimeout = show(connection, "lock_timeout");
+      final String statementTimeout = show(connection, "statement_timeout");
+
+      platform.executeStatement(connection, "create table mig_timeouts_a (id integer)");
+      platform.executeStatement(connection, "insert into mig_timeouts_a (id) values (1)");
+
+      // the timeouts only apply to the guarded statements, not the rest of the transaction
+      assertThat(lockTimeout).isEqualTo("2s");
+      assertThat(show(connection, "lock_timeout")).isEqualTo(lockTimeout);
+      assertThat(show(connection, "statement_timeout")).isEqualTo(statementTimeout);
+      connection.rollback();
+    } finally {
+      postgresContainer.stopRemove();
+    }
+  }
+
+  private static String show(Connection connection, String setting) throws SQLException {
+    try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("show " + setting)) {
+      assertThat(resultSet.next()).isTrue();
+      return resultSet.getString(1);
+    }
+  }
+}
@@ -1,8 +1,21 @@
 package io.ebean.migration.runner;
 
 import io.ebean.ddlrunner.DdlDetect;
+import io.ebean.migration.MigrationConfig;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -25,4 +38,130 @@ public class MigrationPlatformTest {
     assertTrue(pg.transactional("CREATE INDEX foo"));
     assertTrue(pg.transactional("DROP INDEX foo"));
   }
+
+  @Test
+  void postgres_retryDelay() {
+    assertThat(MigrationPlatform.Postgres.retryDelay(1, 500, 0)).isEqualTo(250);
+    assertThat(MigrationPlatform.Postgres.retryDelay(1, 500, 1)).isEqualTo(500);
+    assertThat(MigrationPlatform.Postgres.retryDelay(3, 500, 0.5)).isEqualTo(1500);
+    // capped at 30 seconds
+    assertThat(MigrationPlatform.Postgres.retryDelay(40, 500, 1)).isEqualTo(30_000);
+  }
+
+  @Test
+  void postgres_executeStatement_retryOnLockTimeout() throws SQLException {
+    List<String> executed = new ArrayList<>();
+    Connection connection = connection(executed, 2);
+    MigrationPlatform platform = postgres(3);
+
+    assertThat(platform.executeStatement(connection, "alter table foo add column bar integer")).isEqualTo(0);
+    assertThat(executed).containsExactly(
+      "savepoint", "current timeouts", "set local lock_timeout = 100", "set local statement_timeout = 60000", "alter table foo add column bar integer", "rollback",
+      "savepoint", "current timeouts", "set local lock_timeout = 100", "set local statement_timeout = 60000", "alter table foo add column bar integer", "rollback",
+      "savepoint", "current timeouts", "set local lock_timeout = 100", "set local statement_timeout = 60000", "alter table foo add column bar integer",
+      "reset timeouts 0s 0", "release");
+  }
+
+  @Test
+  void postgres_executeStatement_retriesExhausted() {
+    List<String> executed = new ArrayList<>();
+    Connection connection = connection(executed, 5);
+    MigrationPlatform platform = postgres(1);
+
+    assertThatThrownBy(() -> platform.executeStatement(connection, "alter table foo add column bar integer"))
+      .isInstanceOf(SQLException.class)
+      .hasMessageContaining("lock timeout");
+    assertThat(executed).filteredOn("rollback"::equals).hasSize(2);
+  }
+
+  @Test
+  void postgres_executeStatement_noTimeouts() throws SQLException {
+    List<String> executed = new ArrayList<>();
+    MigrationPlatform platform = new MigrationPlatform.Postgres().configure(new MigrationConfig());
+    platform.executeStatement(connection(executed, 0), "alter table foo add column bar integer");
+    assertThat(executed).containsExactly("alter table foo add column bar integer");
+  }
+
+  private static MigrationPlatform postgres(int lockRetries) {
+    MigrationConfig config = new MigrationConfig();
+    config.setLockTimeoutMillis(100);
+    config.setStatementTimeoutMillis(60_000);
+    config.setLockRetries(lockRetries);
+    config.setLockRetryDelayMillis(1);
+    return new MigrationPlatform.Postgres().configure(config);
+  }
+
+  /**
+   * Return the result of reading the current lock and statement timeouts.
+   */
+  private static ResultSet currentTimeouts() {
+    return (ResultSet) Proxy.newProxyInstance(MigrationPlatformTest.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "next":
+          return true;
+        case "getString":
+          return (Integer) args[0] == 1 ? "0s" : "0";
+        default:
+          return null;
+      }
+    });
+  }
+
+  /**
+   * Return a connection where the first lockTimeouts ALTER statements fail with a lock timeout.
+   */
+  private static Connection connection(List<String> executed, int lockTimeouts) {
+    int[] failures = {lockTimeouts};
+    Statement statement = (Statement) Proxy.newProxyInstance(MigrationPlatformTest.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "execute":
+          String sql = (String) args[0];
+          executed.add(sql);
+          if (sql.startsWith("alter") && failures[0]-- > 0) {
+            throw new SQLException("canceling statement due to lock timeout", "55P03");
+          }
+          return false;
+        case "executeQuery":
+          executed.add("current timeouts");
+          return currentTimeouts();
+        case "getUpdateCount":
+          return 0;
+        default:
+          return null;
+      }
+    });
+    String[] resetTo = new String[2];
+    PreparedStatement reset = (PreparedStatement) Proxy.newProxyInstance(MigrationPlatformTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "setString":
+          resetTo[(Integer) args[0] - 1] = (String) args[1];
+          return null;
+        case "execute":
+          executed.add("reset timeouts " + resetTo[0] + " " + resetTo[1]);
+          return false;
+        default:
+          return null;
+      }
+    });
+    Savepoint savepoint = (Savepoint) Proxy.newProxyInstance(MigrationPlatformTest.class.getClassLoader(), new Class<?>[]{Savepoint.class}, (proxy, method, args) -> null);
+    return (Connection) Proxy.newProxyInstance(MigrationPlatformTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "createStatement":
+          return statement;
+        case "prepareStatement":
+          return reset;
+        case "setSavepoint":
+          executed.add("savepoint");
+          return savepoint;
+        case "rollback":
+          executed.add("rollback");
+          return null;
+        case "releaseSavepoint":
+          executed.add("release");
+          return null;
+        default:
+          return null;
+      }
+    });
+  }
 }
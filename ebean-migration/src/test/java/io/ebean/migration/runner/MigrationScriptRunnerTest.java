@@ -0,0 +1,88 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationStatementListener;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MigrationScriptRunnerTest {
+
+  public static void sleepMillis(long millis) throws InterruptedException {
+    Thread.sleep(millis);
+  }
+
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  private final MigrationStatementListener listener = new MigrationStatementListener() {
+    @Override
+    public void statementStart(String scriptName, int ordinal, int total, String sql) {
+      events.add("start " + ordinal + "/" + total + " " + sql);
+    }
+
+    @Override
+    public void statementEnd(String scriptName, int ordinal, int total, String sql, long elapsedMillis, int updateCount) {
+      events.add("end " + ordinal + "/" + total + " " + updateCount);
+    }
+
+    @Override
+    public void statementProgress(String scriptName, int ordinal, int total, String sql, long elapsedMillis) {
+      events.add("progress " + ordinal + "/" + total);
+    }
+  };
+
+  private MigrationConfig config(int progressSeconds) {
+    MigrationConfig config = new MigrationConfig();
+    config.setStatementListener(listener);
+    config.setProgressSeconds(progressSeconds);
+    return config;
+  }
+
+  @Test
+  void runScript_statementEvents() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:scriptEvents", "sa", "")) {
+      MigrationScriptRunner runner = new MigrationScriptRunner(connection, new MigrationPlatform(), config(0));
+      runner.runScript("create table t1 (id integer);\ninsert into t1 values (1);\ninsert into t1 select id + 1 from t1;\nupdate t1 set id = id + 10;\n", "test");
+
+      assertThat(events).containsExactly(
+        "start 1/4 create table t1 (id integer)",
+        "end 1/4 0",
+        "start 2/4 insert into t1 values (1)",
+        "end 2/4 1",
+        "start 3/4 insert into t1 select id + 1 from t1",
+        "end 3/4 1",
+        "start 4/4 update t1 set id = id + 10",
+        "end 4/4 2");
+    }
+  }
+
+  @Test
+  void runScript_progress() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:scriptProgress", "sa", "")) {
+      MigrationScriptRunner runner = new MigrationScriptRunner(connection, new MigrationPlatform(), config(1));
+      runner.runScript("create alias sleep_millis for \"io.ebean.migration.runner.MigrationScriptRunnerTest.sleepMillis\";\ncall sleep_millis(2500);\n", "test");
+
+      assertThat(events).contains("start 2/2 call sleep_millis(2500)", "progress 2/2", "end 2/2 -1");
+      assertThat(events.indexOf("progress 2/2")).isGreaterThan(events.indexOf("start 2/2 call sleep_millis(2500)"));
+    }
+  }
+
+  @Test
+  void runScript_error() throws SQLException {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:scriptError", "sa", "")) {
+      MigrationScriptRunner runner = new MigrationScriptRunner(connection, new MigrationPlatform(), config(0));
+      assertThatThrownBy(() -> runner.runScript("create table t1 (id integer);\ninsert into missing values (1);\n", "test"))
+        .isInstanceOf(SQLException.class)
+        .hasMessageContaining("Error executing [insert into missing values (1)]");
+
+      assertThat(events).containsExactly("start 1/2 create table t1 (id integer)", "end 1/2 0", "start 2/2 insert into missing values (1)");
+    }
+  }
+}
@@ -89,6 +89,6 @@ public class MigrationTable2Test {
   }
 
   private LocalMigrationResource local(String raw) {
-    return new LocalDdlMigrationResource(MigrationVersion.parse(raw), "loc", null);
+    return new LocalDdlMigrationResource(MigrationVersion.parse(raw), "loc", null, null);
   }
 }
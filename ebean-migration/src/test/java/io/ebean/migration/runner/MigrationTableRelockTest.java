@@ -0,0 +1,138 @@
+package io.ebean.migration.runner;
+
+import io.ebean.datasource.DataSourceConfig;
+import io.ebean.datasource.DataSourceFactory;
+import io.ebean.datasource.DataSourcePool;
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationRunner;
+import io.ebean.migration.MigrationStatementListener;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationTableRelockTest {
+
+  private static DataSourcePool dataSource(String name) {
+    DataSourceConfig dataSourceConfig = new DataSourceConfig()
+      .setUrl("jdbc:h2:mem:" + name)
+      .setUsername("sa")
+      .setPassword("");
+    return DataSourceFactory.create(name, dataSourceConfig);
+  }
+
+  private static MigrationConfig config() {
+    MigrationConfig config = new MigrationConfig();
+    config.setPlatform("h2");
+    config.setMigrationPath("dbmig_lock");
+    config.setModuleThreads(2);
+    config.setRepeatableThreads(2);
+    return config;
+  }
+
+  @Test
+  void run_parallel_expect_secondRunnerLockedOut() {
+    DataSourcePool dataSource = dataSource("relockParallel");
+    try {
+      List<String> lockAttempts = new CopyOnWriteArrayList<>();
+      MigrationConfig config = config();
+      config.setStatementListener(new MigrationStatementListener() {
+        @Override
+        public void statementStart(String scriptName, int ordinal, int total, String sql) {
+          if (scriptName.startsWith("run migration")) {
+            // a second runner attempting to lock the migration table while the migrations execute
+            lockAttempts.add(scriptName + (obtainLogicalLock("relockParallel") ? " locked" : " blocked"));
+          }
+        }
+      });
+      new MigrationRunner(config).run(dataSource);
+
+      assertThat(lockAttempts).hasSize(4).allMatch(attempt -> attempt.endsWith(" blocked"));
+      // the migration table is unlocked after the run
+      assertThat(obtainLogicalLock("relockParallel")).isTrue();
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  @Test
+  void run_secondRunnerWhileLockReleased_expect_appliedMigrationsSkipped() throws Exception {
+    DataSourcePool dataSource = dataSource("relockGap");
+    try {
+      MigrationConfig config = config();
+      // a second runner runs the remaining migrations while the commit has released the lock
+      MigrationPlatform platform = new MigrationPlatform() {
+        private boolean secondRun;
+
+        @Override
+        boolean relockMigrationTable(String sqlTable, Connection connection) throws SQLException {
+          if (!secondRun) {
+            secondRun = true;
+            MigrationConfig secondConfig = new MigrationConfig();
+            secondConfig.setPlatform("h2");
+            secondConfig.setMigrationPath("dbmig_lock");
+            new MigrationRunner(secondConfig).run(dataSource.getConnection());
+          }
+          return super.relockMigrationTable(sqlTable, connection);
+        }
+      };
+      try (Connection connection = dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        Supplier<Connection> supplier = () -> {
+          try {
+            return dataSource.getConnection();
+          } catch (SQLException e) {
+            throw new IllegalStateException(e);
+          }
+        };
+        var firstCheck = new FirstCheck(config, new DefaultMigrationContext(config, connection), platform);
+        MigrationTable table = new MigrationTable(firstCheck, false, supplier);
+        table.createIfNeededAndLock();
+        LocalMigrationResources resources = new LocalMigrationResources(config);
+        resources.readResources();
+        table.runAll(resources.versions());
+        connection.commit();
+        table.unlockMigrationTable();
+
+        // the repeatable migration run by the second runner is not run again
+        assertThat(table.count()).isEqualTo(2);
+        assertThat(table.versions()).containsExactly("1.0", "1.1", "lk_summary");
+        try (Statement stmt = connection.createStatement();
+             ResultSet rset = stmt.executeQuery("select count(*) from lk_log")) {
+          assertThat(rset.next()).isTrue();
+          assertThat(rset.getInt(1)).isEqualTo(1);
+        }
+      }
+    } finally {
+      dataSource.shutdown();
+    }
+  }
+
+  /**
+   * Attempt to obtain the logical lock (used for H2) with another connection without keeping it.
+   */
+  private static boolean obtainLogicalLock(String database) {
+    try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + database, "sa", "")) {
+      connection.setAutoCommit(false);
+      try (Statement stmt = connection.createStatement()) {
+        stmt.execute("set lock_timeout 100");
+      }
+      try (PreparedStatement stmt = connection.prepareStatement("update db_migration set mcomment = 'locked' where id = 0 and mcomment = '<init>'")) {
+        return stmt.executeUpdate() == 1;
+      } finally {
+        connection.rollback();
+      }
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+}
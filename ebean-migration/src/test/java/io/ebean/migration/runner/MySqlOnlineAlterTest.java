@@ -0,0 +1,71 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MySqlOnlineAlterTest {
+
+  @Test
+  void parse() {
+    MySqlOnlineAlter.Alter alter = MySqlOnlineAlter.Alter.parse("alter table orders add column status varchar(10)");
+    assertThat(alter).isNotNull();
+    assertThat(alter.schema).isNull();
+    assertThat(alter.table).isEqualTo("orders");
+    assertThat(alter.alterations).isEqualTo("add column status varchar(10)");
+    assertThat(alter.qualified()).isEqualTo("`orders`");
+    assertThat(alter.shadow()).isEqualTo("`_orders_new`");
+    assertThat(alter.old()).isEqualTo("`_orders_old`");
+
+    alter = MySqlOnlineAlter.Alter.parse("ALTER TABLE `shop`.`orders`\n  add index ix_orders_status (status)");
+    assertThat(alter.schema).isEqualTo("shop");
+    assertThat(alter.table).isEqualTo("orders");
+    assertThat(alter.qualified()).isEqualTo("`shop`.`orders`");
+    assertThat(alter.shadow()).isEqualTo("`shop`.`_orders_new`");
+  }
+
+  @Test
+  void parse_notSupported() {
+    assertThat(MySqlOnlineAlter.Alter.parse("create table orders (id bigint)")).isNull();
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders rename to orders2")).isNull();
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders add constraint uq_orders_code unique (code)")).isNull();
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders drop primary key")).isNull();
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders add column x int, algorithm=instant")).isNull();
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders add constraint fk_orders_customer foreign key (customer_id) references customer (id)")).isNull();
+    // lock as part of a column name is fine
+    assertThat(MySqlOnlineAlter.Alter.parse("alter table orders add column lock_version int")).isNotNull();
+  }
+
+  @Test
+  void triggersAndCopy() {
+    MySqlOnlineAlter.Alter alter = MySqlOnlineAlter.Alter.parse("alter table orders add column status varchar(10)");
+    List<String> triggers = alter.createTriggers("id", List.of("id", "name"));
+    assertThat(triggers).containsExactly(
+      "create trigger `orders_osc_ins` after insert on `orders` for each row replace into `_orders_new` (`id`, `name`) values (NEW.`id`, NEW.`name`)",
+      "create trigger `orders_osc_upd` after update on `orders` for each row begin delete ignore from `_orders_new` where `id` = OLD.`id`; replace into `_orders_new` (`id`, `name`) values (NEW.`id`, NEW.`name`); end",
+      "create trigger `orders_osc_del` after delete on `orders` for each row delete ignore from `_orders_new` where `id` = OLD.`id`");
+
+    assertThat(alter.copySql("id", List.of("id", "name")))
+      .isEqualTo("replace into `_orders_new` (`id`, `name`) select `id`, `name` from `orders` where `id` >= ? and `id` < ? lock in share mode");
+  }
+
+  @Test
+  void names_truncated() {
+    String longName = "t".repeat(64);
+    MySqlOnlineAlter.Alter alter = MySqlOnlineAlter.Alter.parse("alter table " + longName + " add column x int");
+    assertThat(alter.shadowName()).hasSize(64).startsWith("_t").endsWith("_new");
+    assertThat(alter.triggerNames()).allMatch(name -> name.length() == 64);
+  }
+
+  @Test
+  void of_onlyMySqlWhenConfigured() {
+    MigrationConfig config = new MigrationConfig();
+    assertThat(MySqlOnlineAlter.of(config, new MigrationPlatform.MySql(), null)).isNull();
+    config.setOnlineAlterMinRows(1_000_000);
+    assertThat(MySqlOnlineAlter.of(config, new MigrationPlatform.MySql(), null)).isNotNull();
+    assertThat(MySqlOnlineAlter.of(config, new MigrationPlatform.Postgres(), null)).isNull();
+  }
+}
@@ -0,0 +1,135 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+import io.ebean.migration.MigrationVersion;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelMigrationsTest {
+
+  private static final String INSERT_SQL = MigrationMetaRow.insertSql("db_migration");
+
+  @Test
+  void dependsOn() {
+    assertThat(ParallelMigrations.dependsOn("create view v1 as select 1;")).isEmpty();
+    assertThat(ParallelMigrations.dependsOn("-- depends: R__base_views\ncreate view v1 as select 1;"))
+      .containsExactly("base_views");
+    assertThat(ParallelMigrations.dependsOn("-- a view\n-- Depends: R__One.sql, r__two  three\n\n-- depends: R__four\nselect 1;"))
+      .containsExactly("one", "two", "three", "four");
+  }
+
+  @Test
+  void dependsOn_onlyHeaderComments() {
+    assertThat(ParallelMigrations.dependsOn("select 1;\n-- depends: R__base_views")).isEmpty();
+  }
+
+  @Test
+  void module() {
+    assertThat(ParallelMigrations.module("create table t1 (id integer);")).isEqualTo("");
+    assertThat(ParallelMigrations.module("-- module: Billing\n-- depends: core, users\ncreate table t1 (id integer);")).isEqualTo("billing");
+    assertThat(ParallelMigrations.dependsOn("-- module: billing\n-- depends: core, users\ncreate table t1 (id integer);"))
+      .containsExactly("core", "users");
+    assertThat(ParallelMigrations.hasModule("-- module: billing\ncreate table t1 (id integer);")).isTrue();
+    assertThat(ParallelMigrations.hasModule("create table t1 (id integer);")).isFalse();
+  }
+
+  @Test
+  void run_cyclicDependency() {
+    MigrationConfig config = new MigrationConfig();
+    config.setRepeatableThreads(2);
+    ParallelMigrations repeatables = ParallelMigrations.repeatables(config, new MigrationPlatform(), () -> null, INSERT_SQL);
+    repeatables.add(local("R__one"), "-- depends: R__two\nselect 1;", 1, null);
+    repeatables.add(local("R__two"), "-- depends: R__one\nselect 1;", 2, null);
+    assertThatThrownBy(() -> repeatables.run(null))
+      .isInstanceOf(MigrationException.class)
+      .hasMessageContaining("Cyclic dependency");
+  }
+
+  @Test
+  void run_withError_expect_connectionsClosed() throws SQLException {
+    MigrationConfig config = new MigrationConfig();
+    config.setRepeatableThreads(3);
+    List<Connection> opened = new ArrayList<>();
+    Supplier<Connection> supplier = () -> {
+      try {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:parallelClose", "sa", "");
+        opened.add(connection);
+        return connection;
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+    try (Connection main = DriverManager.getConnection("jdbc:h2:mem:parallelClose", "sa", "")) {
+      MigrationPlatform platform = new MigrationPlatform();
+      ParallelMigrations repeatables = ParallelMigrations.repeatables(config, platform, supplier, INSERT_SQL);
+      repeatables.add(local("R__one"), "create view v_one as select 1 as one;", 1, null);
+      repeatables.add(local("R__two"), "create view v_two as select * from does_not_exist;", 2, null);
+      repeatables.add(local("R__three"), "-- depends: R__one\ncreate view v_three as select * from v_one;", 3, null);
+
+      repeatables.run(new MigrationScriptRunner(main, platform, config));
+
+      assertThat((Throwable) repeatables.failure()).isNotNull();
+      assertThat(opened.size()).isEqualTo(3);
+      for (Connection connection : opened) {
+        assertThat(connection.isClosed()).isTrue();
+      }
+    }
+  }
+
+  @Test
+  void run_expect_rowInsertedInMigrationTransaction() throws SQLException {
+    MigrationConfig config = new MigrationConfig();
+    config.setModuleThreads(2);
+    Supplier<Connection> supplier = () -> {
+      try {
+        return DriverManager.getConnection("jdbc:h2:mem:parallelInsert", "sa", "");
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+    try (Connection main = supplier.get()) {
+      try (Statement stmt = main.createStatement()) {
+        stmt.execute("create table db_migration (id integer primary key, mtype varchar(1), mstatus varchar(10), mversion varchar(150),"
+          + " mcomment varchar(150), mchecksum integer, run_on timestamp, run_by varchar(30), run_time integer)");
+      }
+      MigrationPlatform platform = new MigrationPlatform();
+      ParallelMigrations versions = ParallelMigrations.versions(config, platform, supplier, INSERT_SQL);
+      versions.add(local("1.1__billing"), "-- module: billing\ncreate table pi_invoice (id integer);", 1, null);
+      versions.add(local("1.2__users"), "-- module: users\ncreate table pi_user (id integer references does_not_exist);", 2, null);
+      Timestamp runOn = new Timestamp(System.currentTimeMillis());
+      int id = 1;
+      for (ParallelMigrations.Task task : versions.tasks()) {
+        task.insert = new MigrationMetaRow(id++, "V", task.local.key(), task.local.comment(), task.checksum, "test", runOn, 0);
+      }
+
+      assertThat(versions.run(new MigrationScriptRunner(main, platform, config))).hasSize(1);
+      assertThat((Throwable) versions.failure()).isNotNull();
+
+      // committed by the worker with the migration, the failed migration is not recorded
+      try (Statement stmt = main.createStatement();
+           ResultSet rset = stmt.executeQuery("select id, mversion from db_migration")) {
+        assertThat(rset.next()).isTrue();
+        assertThat(rset.getInt(1)).isEqualTo(1);
+        assertThat(rset.getString(2)).isEqualTo("1.1");
+        assertThat(rset.next()).isFalse();
+      }
+    }
+  }
+
+  private static LocalMigrationResource local(String raw) {
+    return new LocalDdlMigrationResource(MigrationVersion.parse(raw), raw + ".sql", null, null);
+  }
+}
@@ -0,0 +1,47 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceholderTransformTest {
+
+  private final PlaceholderTransform transform = PlaceholderTransform.build("schema=app; owner = admin", Map.of("table", "orders"));
+
+  @Test
+  void transform() {
+    assertThat(transform.transform("create table ${schema}.${table} (id integer);\ngrant select on ${schema}.${table} to ${owner};"))
+      .isEqualTo("create table app.orders (id integer);\ngrant select on app.orders to admin;");
+    assertThat(transform.transform("${table}")).isEqualTo("orders");
+  }
+
+  @Test
+  void transform_noPlaceholders_sameInstance() {
+    String script = "create table foo (id integer);";
+    assertThat(transform.transform(script)).isSameAs(script);
+    String unknown = "select '${unknown}' from foo";
+    assertThat(transform.transform(unknown)).isSameAs(unknown);
+  }
+
+  @Test
+  void transform_unknownAndUnterminated() {
+    assertThat(transform.transform("${unknown} ${table} ${")).isEqualTo("${unknown} orders ${");
+    assertThat(transform.transform("$${table}}")).isEqualTo("$orders}");
+  }
+
+  @Test
+  void transform_notConfigured() {
+    PlaceholderTransform none = PlaceholderTransform.build(null, null);
+    String script = "create table ${table} (id integer);";
+    assertThat(none.transform(script)).isSameAs(script);
+  }
+
+  @Test
+  void transform_reusedBuilder() {
+    String large = "x".repeat(2_000_000) + "${table}";
+    assertThat(transform.transform(large)).endsWith("xorders").hasSize(2_000_006);
+    assertThat(transform.transform("a ${table} b")).isEqualTo("a orders b");
+  }
+}
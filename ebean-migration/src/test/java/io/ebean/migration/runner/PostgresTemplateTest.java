@@ -0,0 +1,67 @@
+package io.ebean.migration.runner;
+
+import io.ebean.migration.MigrationConfig;
+import io.ebean.migration.MigrationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostgresTemplateTest {
+
+  private static MigrationConfig config(String url, String migrationPath) {
+    MigrationConfig config = new MigrationConfig();
+    config.setDbUrl(url);
+    config.setMigrationPath(migrationPath);
+    return config;
+  }
+
+  @Test
+  void url() {
+    PostgresTemplate template = new PostgresTemplate(config("jdbc:postgresql://localhost:6432/my_app?ssl=false", "dbmig"));
+    assertThat(template.database()).isEqualTo("my_app");
+    assertThat(template.url("postgres")).isEqualTo("jdbc:postgresql://localhost:6432/postgres?ssl=false");
+
+    template = new PostgresTemplate(config("jdbc:postgresql://localhost:6432/my_app", "dbmig"));
+    assertThat(template.database()).isEqualTo("my_app");
+    assertThat(template.url("other")).isEqualTo("jdbc:postgresql://localhost:6432/other");
+  }
+
+  @Test
+  void url_notPostgres() {
+    assertThatThrownBy(() -> new PostgresTemplate(config("jdbc:h2:mem:db", "dbmig")))
+      .isInstanceOf(MigrationException.class);
+  }
+
+  @Test
+  void migrationsHash() {
+    String hash = new PostgresTemplate(config("jdbc:postgresql://localhost:6432/a", "dbmig")).migrationsHash();
+    assertThat(hash).hasSize(16);
+    assertThat(new PostgresTemplate(config("jdbc:postgresql://localhost:6432/b", "dbmig")).migrationsHash()).isEqualTo(hash);
+    assertThat(new PostgresTemplate(config("jdbc:postgresql://localhost:6432/a", "dbmig2")).migrationsHash()).isNotEqualTo(hash);
+  }
+
+  @Test
+  void templateName() {
+    assertThat(PostgresTemplate.templateName("Migration_Template", "0123456789abcdef")).isEqualTo("migration_template_0123456789abcdef");
+    String longPrefix = "x".repeat(70);
+    assertThat(PostgresTemplate.templateName(longPrefix, "0123456789abcdef")).hasSize(63).endsWith("_0123456789abcdef");
+  }
+
+  @Test
+  void isPriorTemplate() {
+    String template = "migration_template_0123456789abcdef";
+    assertThat(PostgresTemplate.isPriorTemplate(template, "migration_template_fedcba9876543210")).isTrue();
+    assertThat(PostgresTemplate.isPriorTemplate(template, template)).isFalse();
+    assertThat(PostgresTemplate.isPriorTemplate(template, "migration_template_my_app_databas")).isFalse();
+    assertThat(PostgresTemplate.isPriorTemplate(template, "migration_template_0123")).isFalse();
+    assertThat(PostgresTemplate.isPriorTemplate(template, "other_template_a_0123456789abcdef")).isFalse();
+  }
+
+  @Test
+  void createIfNeeded_nullCredentials_expect_migrationException() {
+    MigrationConfig config = config("jdbc:postgresql://localhost:1/my_app", "dbmig");
+    assertThatThrownBy(() -> new PostgresTemplate(config).createIfNeeded())
+      .isInstanceOf(MigrationException.class);
+  }
+}
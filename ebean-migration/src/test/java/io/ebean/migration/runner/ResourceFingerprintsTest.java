@@ -0,0 +1,83 @@
+package io.ebean.migration.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceFingerprintsTest {
+
+  @Test
+  void of_file() {
+    ResourceFingerprints fingerprints = new ResourceFingerprints(getClass().getClassLoader());
+    long fingerprint = fingerprints.of("dbmig/1.1__initial.sql");
+    assertThat(fingerprint).isNotEqualTo(ResourceFingerprint.UNKNOWN);
+    assertThat(fingerprints.of("dbmig/1.1__initial.sql")).isEqualTo(fingerprint);
+    assertThat(fingerprints.of("dbmig/1.2__add_m3.sql")).isNotEqualTo(fingerprint);
+    // file system path (not on the classpath)
+    assertThat(fingerprints.of("test-fs-resources/fsdbmig/2.1__initial.sql")).isNotEqualTo(ResourceFingerprint.UNKNOWN);
+    assertThat(fingerprints.of("does-not-exist.sql")).isEqualTo(ResourceFingerprint.UNKNOWN);
+  }
+
+  @Test
+  void of_jarEntry_usingCentralDirectory() throws Exception {
+    Path jar = Files.createTempFile("migrations", ".jar");
+    writeJar(jar, "create table m1 (id integer);", "create table m2 (id integer);");
+    long first;
+    long second;
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+      ResourceFingerprints fingerprints = new ResourceFingerprints(classLoader);
+      first = fingerprints.of("dbmig/1.1__initial.sql");
+      second = fingerprints.of("dbmig/1.2__next.sql");
+      assertThat(first).isNotEqualTo(ResourceFingerprint.UNKNOWN);
+      assertThat(second).isNotEqualTo(ResourceFingerprint.UNKNOWN).isNotEqualTo(first);
+      // matches the fingerprint of the entry via the jar url connection
+      assertThat(ResourceFingerprint.of(classLoader.getResource("dbmig/1.1__initial.sql"))).isEqualTo(first);
+    }
+
+    // change the content of the second script only
+    Path changed = Files.createTempFile("migrations", ".jar");
+    writeJar(changed, "create table m1 (id integer);", "create table m2 (id bigint);");
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[]{changed.toUri().toURL()}, null)) {
+      ResourceFingerprints fingerprints = new ResourceFingerprints(classLoader);
+      assertThat(fingerprints.of("dbmig/1.1__initial.sql")).isEqualTo(first);
+      assertThat(fingerprints.of("dbmig/1.2__next.sql")).isNotEqualTo(second);
+    }
+    Files.delete(jar);
+    Files.delete(changed);
+  }
+
+  @Test
+  void of_zipEntry_unknownCrc() {
+    assertThat(ResourceFingerprint.of(new ZipEntry("dbmig/1.1__initial.sql"))).isEqualTo(ResourceFingerprint.UNKNOWN);
+    assertThat(ResourceFingerprint.of(new File("does-not-exist.sql"))).isEqualTo(ResourceFingerprint.UNKNOWN);
+  }
+
+  private static void writeJar(Path jar, String first, String second) throws Exception {
+    try (OutputStream os = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(os)) {
+      writeEntry(zip, "dbmig/1.1__initial.sql", first);
+      writeEntry(zip, "dbmig/1.2__next.sql", second);
+    }
+  }
+
+  private static void writeEntry(ZipOutputStream zip, String name, String content) throws Exception {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    ZipEntry entry = new ZipEntry(name);
+    entry.setCrc(crc.getValue());
+    zip.putNextEntry(entry);
+    zip.write(bytes);
+    zip.closeEntry();
+  }
+}
@@ -0,0 +1,2 @@
+create table chunk_orders (id bigint primary key, status varchar(1));
+insert into chunk_orders (id) select x from system_range(1, 25);
@@ -0,0 +1,3 @@
+-- module: core
+create table lk_core (id integer primary key);
+create table lk_log (name varchar(20));
@@ -0,0 +1,2 @@
+-- module: billing
+create table lk_invoice (id integer primary key);
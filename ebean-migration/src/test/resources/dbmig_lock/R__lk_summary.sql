@@ -0,0 +1 @@
+insert into lk_log (name) values ('summary');
@@ -0,0 +1 @@
+create table mod_core (id integer primary key, name varchar(20));
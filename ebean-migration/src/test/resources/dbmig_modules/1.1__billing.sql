@@ -0,0 +1,2 @@
+-- module: billing
+create table mod_invoice (id integer primary key, core_id integer references mod_core (id));
@@ -0,0 +1,2 @@
+-- module: users
+create table mod_user (id integer primary key, core_id integer references mod_core (id));
@@ -0,0 +1,2 @@
+-- module: billing
+create table mod_invoice_line (id integer primary key, invoice_id integer references mod_invoice (id));
@@ -0,0 +1,3 @@
+-- module: reports
+-- depends: billing, users
+create view mod_report_vw as select l.id, u.id as user_id from mod_invoice_line l join mod_user u on u.id = l.id;
@@ -0,0 +1 @@
+create or replace view mod_summary_vw as select count(*) as total from mod_report_vw;
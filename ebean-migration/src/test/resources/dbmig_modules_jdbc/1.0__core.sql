@@ -0,0 +1,2 @@
+-- module: core
+create table jm_core (id integer primary key, name varchar(20));
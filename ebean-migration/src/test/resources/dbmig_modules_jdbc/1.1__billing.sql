@@ -0,0 +1,3 @@
+-- module: billing
+-- depends: core
+create table jm_invoice (id integer primary key, core_id integer references jm_core (id));
@@ -0,0 +1,3 @@
+create table online_orders (id bigint not null auto_increment, name varchar(20), constraint pk_online_orders primary key (id));
+create table online_customer (id bigint not null, constraint pk_online_customer primary key (id));
+create table online_invoice (id bigint not null, customer_id bigint, constraint pk_online_invoice primary key (id), constraint fk_online_invoice_customer foreign key (customer_id) references online_customer (id));
@@ -0,0 +1,2 @@
+alter table online_orders add column status varchar(10) default 'N';
+alter table online_customer add column cname varchar(20);
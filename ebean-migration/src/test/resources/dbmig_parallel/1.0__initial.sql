@@ -0,0 +1,2 @@
+create table p1 (id integer, acol varchar(20));
+create table p2 (id integer, bcol varchar(20));
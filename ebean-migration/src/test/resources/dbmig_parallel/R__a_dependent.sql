@@ -0,0 +1,2 @@
+-- depends: R__z_base
+create or replace view p_dependent_vw as select id, acol from p_base_vw;
@@ -0,0 +1 @@
+create or replace view p_other_vw as select id, bcol from p2;
@@ -0,0 +1 @@
+create or replace view p_base_vw as select id, acol from p1;
@@ -0,0 +1 @@
+create table dup_a (id integer);
@@ -0,0 +1 @@
+create table dup_b (id integer);